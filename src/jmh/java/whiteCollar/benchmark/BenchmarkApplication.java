@@ -0,0 +1,80 @@
+package whiteCollar.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import whiteCollar.WhiteCollarApplication;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+import whiteCollar.service.IShopService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Arranca la aplicacion para los benchmarks contra una base de datos H2 en memoria (en modo MySQL),
+ * con un puerto aleatorio y sin trazas SQL, de forma que cada benchmark tenga su propia base de datos.
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String database, String... args) {
+        List<String> arguments = new ArrayList<>(List.of("--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:" + database + ";MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                "--spring.datasource.driverClassName=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.platform=h2",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"));
+        arguments.addAll(Arrays.asList(args));
+        return new SpringApplicationBuilder(WhiteCollarApplication.class)
+                .logStartupInfo(false)
+                .run(arguments.toArray(new String[0]));
+    }
+
+    /**
+     * Arranca la variante reactiva (perfil reactive), con el pool R2DBC sobre la misma base de datos H2
+     */
+    public static ConfigurableApplicationContext startReactive(String database, String... args) {
+        List<String> arguments = new ArrayList<>(List.of("--spring.profiles.active=reactive",
+                "--whitecollar.r2dbc.url=r2dbc:h2:mem:///" + database + "?options=DB_CLOSE_DELAY=-1;MODE=MySQL;LOCK_TIMEOUT=10000",
+                "--whitecollar.r2dbc.username="));
+        arguments.addAll(Arrays.asList(args));
+        return start(database, arguments.toArray(new String[0]));
+    }
+
+    public static Shop newShop(ConfigurableApplicationContext context, String name) {
+        Shop shop = new Shop();
+        shop.setName(name);
+        shop.setCapacity((long) Integer.MAX_VALUE);
+        return context.getBean(IShopService.class).saveShop(shop);
+    }
+
+    /**
+     * Asocia al hilo actual una peticion simulada, para que los enlaces se generen con URL absolutas
+     * igual que al atender una peticion real
+     */
+    public static void bindRequest(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setServerPort(8081);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    public static Picture newPicture(Shop shop, int i) {
+        Picture picture = new Picture();
+        picture.setIdShop(shop.getId());
+        picture.setShop(shop);
+        picture.setName("Benchmark picture " + i);
+        picture.setAuthor("Benchmark author " + (i % 100));
+        picture.setPrice(BigDecimal.valueOf(1000 + i, 2));
+        return picture;
+    }
+}
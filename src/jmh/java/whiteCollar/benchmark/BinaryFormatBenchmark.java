@@ -0,0 +1,113 @@
+package whiteCollar.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import whiteCollar.configuration.WebMVCConfiguration;
+import whiteCollar.dto.PictureDto;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+import whiteCollar.util.PictureModelAssembler;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara JSON (HAL), CBOR y Smile para el cuerpo de GET /shops/{id}/pictures con PICTURES cuadros: tamaño
+ * de la respuesta (se imprime al preparar cada combinacion) y tiempo de serializacion y de deserializacion.
+ *
+ * Se usan los conversores registrados en Spring MVC, los mismos que elige la cabecera Accept, de forma que
+ * la salida es la que recibe el cliente.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BinaryFormatBenchmark {
+
+    private static final Map<String, MediaType> FORMATS = Map.of(
+            "json", MediaTypes.HAL_JSON,
+            "cbor", MediaType.APPLICATION_CBOR,
+            "smile", WebMVCConfiguration.APPLICATION_SMILE);
+    private static final Type COLLECTION_TYPE =
+            new ParameterizedTypeReference<CollectionModel<EntityModel<PictureDto>>>() {}.getType();
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"20", "500"})
+    private int pictures;
+
+    private ConfigurableApplicationContext context;
+    private MediaType mediaType;
+    private GenericHttpMessageConverter<Object> converter;
+    private CollectionModel<EntityModel<PictureDto>> collectionModel;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void startApplication() throws Exception {
+        context = BenchmarkApplication.start("binary-format-benchmark");
+        mediaType = FORMATS.get(format);
+
+        List<HttpMessageConverter<?>> converters = context.getBean(RequestMappingHandlerAdapter.class).getMessageConverters();
+        converter = converters.stream()
+                .filter(GenericHttpMessageConverter.class::isInstance)
+                .map(candidate -> (GenericHttpMessageConverter<Object>) candidate)
+                .filter(candidate -> candidate.canWrite(COLLECTION_TYPE, CollectionModel.class, mediaType))
+                .findFirst()
+                .orElseThrow();
+
+        Shop shop = new Shop();
+        shop.setId(7L);
+        shop.setName("Binary Format Benchmark Collar");
+        shop.setCapacity((long) pictures);
+
+        BenchmarkApplication.bindRequest("/shops/" + shop.getId() + "/pictures");
+        PictureModelAssembler pictureModelAssembler = context.getBean(PictureModelAssembler.class);
+        List<EntityModel<PictureDto>> models = new ArrayList<>(pictures);
+        for (int i = 0; i < pictures; i++) {
+            Picture picture = BenchmarkApplication.newPicture(shop, i);
+            picture.setId((long) i + 1);
+            picture.setEntryDate(new Date());
+            models.add(pictureModelAssembler.toModel(picture));
+        }
+        collectionModel = CollectionModel.of(models, models.get(0).getRequiredLink("all").withSelfRel());
+        RequestContextHolder.resetRequestAttributes();
+
+        payload = serialize();
+        System.out.printf("%n%s, %d cuadros: %d bytes%n", mediaType, pictures, payload.length);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(collectionModel, COLLECTION_TYPE, mediaType, output);
+        return output.getBodyAsBytes();
+    }
+
+    @Benchmark
+    public Object deserialize() throws Exception {
+        MockHttpInputMessage input = new MockHttpInputMessage(payload);
+        input.getHeaders().setContentType(mediaType);
+        return converter.read(COLLECTION_TYPE, null, input);
+    }
+}
@@ -0,0 +1,79 @@
+package whiteCollar.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import whiteCollar.dto.PictureDto;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+import whiteCollar.util.PictureModelAssembler;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide la serializacion a HAL+JSON de un CollectionModel<EntityModel<PictureDto>> de PICTURES cuadros,
+ * el cuerpo de respuesta de GET /shops/{id}/pictures. Se usa el ObjectMapper del conversor HAL registrado
+ * en Spring MVC, de forma que la salida es la misma que recibe el cliente.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CollectionModelSerializationBenchmark {
+
+    @Param({"20", "500"})
+    private int pictures;
+
+    private ConfigurableApplicationContext context;
+    private ObjectWriter writer;
+    private CollectionModel<EntityModel<PictureDto>> collectionModel;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkApplication.start("serialization-benchmark");
+
+        AbstractJackson2HttpMessageConverter halConverter = context.getBean(RequestMappingHandlerAdapter.class)
+                .getMessageConverters().stream()
+                .filter(AbstractJackson2HttpMessageConverter.class::isInstance)
+                .map(AbstractJackson2HttpMessageConverter.class::cast)
+                .filter(converter -> converter.canWrite(CollectionModel.class, MediaTypes.HAL_JSON))
+                .findFirst()
+                .orElseThrow();
+        writer = halConverter.getObjectMapper().writer();
+
+        Shop shop = new Shop();
+        shop.setId(7L);
+        shop.setName("Serialization Benchmark Collar");
+        shop.setCapacity((long) pictures);
+
+        BenchmarkApplication.bindRequest("/shops/" + shop.getId() + "/pictures");
+        PictureModelAssembler pictureModelAssembler = context.getBean(PictureModelAssembler.class);
+        List<EntityModel<PictureDto>> models = new ArrayList<>(pictures);
+        for (int i = 0; i < pictures; i++) {
+            Picture picture = BenchmarkApplication.newPicture(shop, i);
+            picture.setId((long) i + 1);
+            picture.setEntryDate(new Date());
+            models.add(pictureModelAssembler.toModel(picture));
+        }
+        collectionModel = CollectionModel.of(models, models.get(0).getRequiredLink("all").withSelfRel());
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] serializeCollectionModel() throws Exception {
+        return writer.writeValueAsBytes(collectionModel);
+    }
+}
@@ -0,0 +1,76 @@
+package whiteCollar.benchmark;
+
+import org.mapstruct.factory.Mappers;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.*;
+import whiteCollar.dto.PictureDto;
+import whiteCollar.dto.ShopDto;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+import whiteCollar.util.PictureMapper;
+import whiteCollar.util.ShopMapper;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el coste por elemento del mapeo de entidades a DTO: el mapeo reflexivo de ModelMapper
+ * (con MatchingStrategies.STRICT, tal y como estaba configurado en WebMVCConfiguration) frente a
+ * los mappers generados por MapStruct que utilizan ahora los assemblers. ShopDto es inmutable (no tiene setters
+ * que ModelMapper pueda usar), por lo que el mapeo de tiendas solo se mide con MapStruct.
+ *
+ * Ejecutar con el profiler gc (-prof gc) para ver tambien los bytes reservados por elemento.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DtoMappingBenchmark {
+
+    private ModelMapper modelMapper;
+    private PictureMapper pictureMapper;
+    private ShopMapper shopMapper;
+    private Shop shop;
+    private Picture picture;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.STRICT);
+        pictureMapper = Mappers.getMapper(PictureMapper.class);
+        shopMapper = Mappers.getMapper(ShopMapper.class);
+
+        shop = new Shop();
+        shop.setId(7L);
+        shop.setName("Benchmark Collar");
+        shop.setCapacity(5000L);
+
+        picture = new Picture();
+        picture.setIdShop(shop.getId());
+        picture.setId(42L);
+        picture.setShop(shop);
+        picture.setName("La Noche Estrellada");
+        picture.setAuthor("Vincent Van Gogh");
+        picture.setPrice(new BigDecimal("130000000.90"));
+        picture.setEntryDate(new Date());
+    }
+
+    @Benchmark
+    public PictureDto pictureModelMapper() {
+        PictureDto pictureDto = modelMapper.map(picture, PictureDto.class);
+        pictureDto.setIdPicture(picture.getId());
+        pictureDto.setShopCapacity(picture.getShop().getCapacity());
+        return pictureDto;
+    }
+
+    @Benchmark
+    public PictureDto pictureMapStruct() {
+        return pictureMapper.toDto(picture);
+    }
+
+    @Benchmark
+    public ShopDto shopMapStruct() {
+        return shopMapper.toDto(shop);
+    }
+}
@@ -0,0 +1,68 @@
+package whiteCollar.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import whiteCollar.configuration.DtoSerializationModule;
+import whiteCollar.dto.PictureDto;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el coste por elemento de la serializacion a JSON de PictureDto: el serializador generico de Jackson,
+ * que recorre las propiedades por reflexion y formatea entryDate con un SimpleDateFormat, frente a los
+ * serializadores escritos a mano de DtoSerializationModule, que usa ahora el ObjectMapper de WebMVCConfiguration.
+ *
+ * Cada operacion escribe PICTURES cuadros en un OutputStream que descarta los bytes, de forma que solo se mide
+ * la serializacion. Ejecutar con el profiler gc (-prof gc) y dividir gc.alloc.rate.norm entre PICTURES para ver
+ * los bytes reservados por elemento.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DtoSerializationBenchmark {
+
+    private static final int PICTURES = 500;
+
+    @Param({"reflective", "handwritten"})
+    private String serializer;
+
+    private ObjectWriter writer;
+    private List<PictureDto> pictures;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.setTimeZone(TimeZone.getDefault());
+        if ("handwritten".equals(serializer)) {
+            mapper.registerModule(new DtoSerializationModule(TimeZone.getDefault(), Locale.getDefault()));
+        }
+        writer = mapper.writerFor(PictureDto.class);
+
+        pictures = new ArrayList<>(PICTURES);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < PICTURES; i++) {
+            pictures.add(new PictureDto((long) i + 1, 7L, 5000L, "Benchmark picture " + i, "Benchmark author " + (i % 100),
+                    BigDecimal.valueOf(1000 + i, 2), new Timestamp(now - i * 60_000L)));
+        }
+    }
+
+    @Benchmark
+    public void serializePictures() throws Exception {
+        try (JsonGenerator generator = writer.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+            generator.writeStartArray();
+            for (PictureDto picture : pictures) {
+                writer.writeValue(generator, picture);
+            }
+            generator.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package whiteCollar.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import whiteCollar.dto.PictureDto;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+import whiteCollar.repository.PictureSort;
+import whiteCollar.service.IPictureService;
+import whiteCollar.util.PictureMapper;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compara las dos formas de leer una pagina de PICTURES cuadros de una tienda contra H2 en memoria:
+ * cargando entidades Picture (con su tienda por fetch join) y copiandolas a PictureDto con MapStruct,
+ * como se hacia antes, o construyendo directamente los PictureDto con una consulta de proyeccion en
+ * una transaccion de solo lectura (IPictureService.listPicturesByShop).
+ *
+ * Ejecutar con el profiler gc (-prof gc): gc.alloc.rate.norm indica los bytes reservados por pagina.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ListingReadPathBenchmark {
+
+    private static final int PICTURES = 500;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private PictureMapper pictureMapper;
+    private IPictureService iPictureService;
+    private Long shopId;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkApplication.start("listing-benchmark");
+        entityManager = context.getBean(EntityManager.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        pictureMapper = context.getBean(PictureMapper.class);
+        iPictureService = context.getBean(IPictureService.class);
+
+        Shop shop = BenchmarkApplication.newShop(context, "Listing Benchmark Collar");
+        shopId = shop.getId();
+        List<Picture> pictures = new ArrayList<>(PICTURES);
+        for (int i = 0; i < PICTURES; i++) {
+            pictures.add(BenchmarkApplication.newPicture(shop, i));
+        }
+        iPictureService.savePictures(shopId, pictures).orElseThrow();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<PictureDto> entitiesMappedToDto() {
+        return transactionTemplate.execute(status -> {
+            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+            CriteriaQuery<Picture> query = cb.createQuery(Picture.class);
+            Root<Picture> root = query.from(Picture.class);
+            root.fetch("shop");
+            query.where(cb.equal(root.get("idShop"), shopId)).orderBy(cb.asc(root.get("id")));
+
+            return entityManager.createQuery(query)
+                    .setMaxResults(PICTURES + 1)
+                    .getResultList().stream()
+                    .map(pictureMapper::toDto)
+                    .collect(Collectors.toList());
+        });
+    }
+
+    @Benchmark
+    public List<PictureDto> dtoProjection() {
+        return iPictureService.listPicturesByShop(shopId, PictureSort.ID, null, null, PICTURES).getContent();
+    }
+}
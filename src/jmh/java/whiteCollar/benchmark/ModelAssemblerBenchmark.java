@@ -0,0 +1,85 @@
+package whiteCollar.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.context.request.RequestContextHolder;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+import whiteCollar.util.PictureModelAssembler;
+import whiteCollar.util.ShopModelAssembler;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el coste por elemento de PictureModelAssembler.toModel y ShopModelAssembler.toModel
+ * (mapeo a DTO y construccion de los enlaces), recorriendo un listado de PICTURES cuadros en memoria
+ * dentro de una peticion simulada, como hace GET /shops/{id}/pictures.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ModelAssemblerBenchmark {
+
+    private static final int PICTURES = 1000;
+
+    private ConfigurableApplicationContext context;
+    private PictureModelAssembler pictureModelAssembler;
+    private ShopModelAssembler shopModelAssembler;
+    private Shop shop;
+    private List<Picture> pictures;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkApplication.start("assembler-benchmark");
+        pictureModelAssembler = context.getBean(PictureModelAssembler.class);
+        shopModelAssembler = context.getBean(ShopModelAssembler.class);
+
+        shop = new Shop();
+        shop.setId(7L);
+        shop.setName("Assembler Benchmark Collar");
+        shop.setCapacity((long) PICTURES);
+
+        pictures = new ArrayList<>(PICTURES);
+        for (int i = 0; i < PICTURES; i++) {
+            Picture picture = BenchmarkApplication.newPicture(shop, i);
+            picture.setId((long) i + 1);
+            picture.setEntryDate(new Date());
+            pictures.add(picture);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void bindRequest() {
+        BenchmarkApplication.bindRequest("/shops/" + shop.getId() + "/pictures");
+    }
+
+    @TearDown(Level.Invocation)
+    public void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PICTURES)
+    public void pictureToModel(Blackhole blackhole) {
+        for (Picture picture : pictures) {
+            blackhole.consume(pictureModelAssembler.toModel(picture));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PICTURES)
+    public void shopToModel(Blackhole blackhole) {
+        for (int i = 0; i < PICTURES; i++) {
+            blackhole.consume(shopModelAssembler.toModel(shop));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package whiteCollar.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import whiteCollar.entity.Shop;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide POST /shops/{id}/pictures de extremo a extremo: peticion HTTP real contra la aplicacion arrancada
+ * en un puerto aleatorio, validacion, asignacion de id, reserva de capacidad e insercion en H2 en memoria,
+ * y serializacion de la respuesta con sus enlaces.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NewPictureBenchmark {
+
+    private static final String PICTURE = "{\"name\":\"Benchmark picture\",\"author\":\"Benchmark author\",\"price\":10.50}";
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkApplication.start("new-picture-benchmark");
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        Shop shop = BenchmarkApplication.newShop(context, "New Picture Benchmark Collar");
+        String port = context.getEnvironment().getProperty("local.server.port");
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/shops/" + shop.getId() + "/pictures"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(PICTURE))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public int newPicture() throws Exception {
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
@@ -0,0 +1,64 @@
+package whiteCollar.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+import whiteCollar.service.IPictureService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el numero de cuadros insertados por segundo mediante la insercion individual
+ * (IPictureService.savePicture, usada por POST /shops/{id}/pictures) y la insercion por lotes
+ * (IPictureService.savePictures, usada por POST /shops/{id}/pictures:batch), contra H2 en memoria.
+ *
+ * Cada invocacion inserta PICTURES cuadros, por lo que el resultado se expresa en inserciones por segundo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PictureInsertBenchmark {
+
+    private static final int PICTURES = 1000;
+
+    private ConfigurableApplicationContext context;
+    private IPictureService iPictureService;
+    private Shop shop;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkApplication.start("insert-benchmark");
+        iPictureService = context.getBean(IPictureService.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void newShop() {
+        shop = BenchmarkApplication.newShop(context, "Insert Benchmark Collar");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PICTURES)
+    public void singleInserts() {
+        for (int i = 0; i < PICTURES; i++) {
+            iPictureService.savePicture(BenchmarkApplication.newPicture(shop, i));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PICTURES)
+    public List<Picture> batchInsert() {
+        List<Picture> pictures = new ArrayList<>(PICTURES);
+        for (int i = 0; i < PICTURES; i++) {
+            pictures.add(BenchmarkApplication.newPicture(shop, i));
+        }
+        return iPictureService.savePictures(shop.getId(), pictures).orElseThrow();
+    }
+}
@@ -0,0 +1,88 @@
+package whiteCollar.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+import whiteCollar.service.IPictureService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el rendimiento de GET /shops/{id}/pictures con muchas peticiones simultaneas en las dos variantes
+ * de la aplicacion: servlet (Spring MVC sobre Tomcat, con el ejecutor acotado de AsyncConfiguration) y reactive
+ * (WebFlux sobre Netty, con R2DBC). Cada invocacion lanza CONCURRENCY peticiones a la vez y espera a todas;
+ * el resultado se expresa en peticiones por segundo.
+ *
+ * La tienda tiene PICTURES cuadros y la variante servlet los pide en una sola pagina, de forma que ambas
+ * variantes devuelven los mismos cuadros. La cola del ejecutor de la variante servlet se amplia para que
+ * ninguna peticion se rechace con 503.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StackThroughputBenchmark {
+
+    private static final int CONCURRENCY = 1000;
+    private static final int PICTURES = 200;
+
+    @Param({"servlet", "reactive"})
+    public String stack;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = "reactive".equals(stack)
+                ? BenchmarkApplication.startReactive("stack-throughput-benchmark")
+                : BenchmarkApplication.start("stack-throughput-benchmark",
+                        "--whitecollar.async.queue-capacity=" + (CONCURRENCY * 2));
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        Shop shop = BenchmarkApplication.newShop(context, "Stack Throughput Benchmark Collar");
+        List<Picture> pictures = new ArrayList<>(PICTURES);
+        for (int i = 0; i < PICTURES; i++) {
+            pictures.add(BenchmarkApplication.newPicture(shop, i));
+        }
+        context.getBean(IPictureService.class).savePictures(shop.getId(), pictures).orElseThrow();
+
+        String port = context.getEnvironment().getProperty("local.server.port");
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/shops/" + shop.getId()
+                        + "/pictures?size=" + PICTURES))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENCY)
+    public long concurrentPictureListings() {
+        List<CompletableFuture<HttpResponse<byte[]>>> responses = new ArrayList<>(CONCURRENCY);
+        for (int i = 0; i < CONCURRENCY; i++) {
+            responses.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()));
+        }
+
+        long bytes = 0;
+        for (CompletableFuture<HttpResponse<byte[]>> future : responses) {
+            HttpResponse<byte[]> response = future.join();
+            if (response.statusCode() != 200 && response.statusCode() != 201) {
+                throw new IllegalStateException("Unexpected status " + response.statusCode());
+            }
+            bytes += response.body().length;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,74 @@
+package whiteCollar.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import whiteCollar.service.PrefixIndex;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide la latencia de las sugerencias de busqueda sobre un indice de prefijos (PrefixIndex) con PICTURES
+ * nombres distintos y AUTHORS autores, con cambios pendientes de compactar, y la de las altas incrementales.
+ *
+ * El modo SampleTime muestra los percentiles de cada consulta (p0.99, p0.999); el objetivo es un p99
+ * por debajo de 1 ms. Ejecutar con el profiler gc (-prof gc) para ver los bytes reservados por consulta,
+ * y con un heap acotado (por ejemplo -Xmx512m) para comprobar que el indice cabe en memoria.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SuggestBenchmark {
+
+    private static final int PICTURES = 2_000_000;
+    private static final int AUTHORS = 20_000;
+    private static final int PENDING_CHANGES = 50_000;
+    private static final String[] WORDS = {"Bodegon", "Retrato", "Paisaje", "Marina", "Vista", "Estudio",
+            "Naturaleza", "Escena", "Alegoria", "Interior"};
+
+    @Param({"b", "bod", "retrato de la"})
+    public String prefix;
+
+    private PrefixIndex names;
+    private PrefixIndex authors;
+    private long nextId = PICTURES;
+
+    @Setup(Level.Trial)
+    public void buildIndex() {
+        Random random = new Random(42);
+        PrefixIndex.Builder nameBuilder = new PrefixIndex.Builder();
+        PrefixIndex.Builder authorBuilder = new PrefixIndex.Builder();
+        for (long id = 0; id < PICTURES; id++) {
+            long ref = PrefixIndex.ref(id % 1000, id);
+            nameBuilder.add(name(random, id), ref);
+            authorBuilder.add("Autor " + random.nextInt(AUTHORS), ref);
+        }
+        names = new PrefixIndex();
+        names.reset(nameBuilder);
+        authors = new PrefixIndex();
+        authors.reset(authorBuilder);
+
+        for (int i = 0; i < PENDING_CHANGES; i++) {
+            names.add(name(random, nextId), PrefixIndex.ref(1000L, nextId++));
+        }
+    }
+
+    @Benchmark
+    public List<PrefixIndex.Match> suggestNames() {
+        return names.startingWith(prefix, 10);
+    }
+
+    @Benchmark
+    public List<PrefixIndex.Match> suggestAuthors() {
+        return authors.startingWith(prefix, 10);
+    }
+
+    @Benchmark
+    public void addPicture() {
+        names.add("Retrato de la benchmark " + nextId, PrefixIndex.ref(1001L, nextId++));
+    }
+
+    private static String name(Random random, long id) {
+        return WORDS[random.nextInt(WORDS.length)] + " de la " + WORDS[random.nextInt(WORDS.length)].toLowerCase() + " " + id;
+    }
+}
@@ -2,8 +2,14 @@ package whiteCollar;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 
-@SpringBootApplication
+/**
+ * La autoconfiguracion de R2DBC esta desactivada: registraria un gestor de transacciones reactivo que sustituiria
+ * al de JPA. La variante reactiva crea su propio pool de conexiones (ver ReactiveConfiguration)
+ */
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
 public class WhiteCollarApplication {
 
 	public static void main(String[] args) {
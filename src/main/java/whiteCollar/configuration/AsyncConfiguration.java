@@ -0,0 +1,241 @@
+package whiteCollar.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Clase de la capa de Configuration de Spring
+ *
+ * Define el ejecutor en el que ShopController hace el trabajo de cada peticion (servicios, acceso a base de datos
+ * y construccion de la respuesta). Los metodos del controlador devuelven un CompletableFuture, de forma que el hilo
+ * de Tomcat queda libre mientras la consulta se ejecuta, y una ralentizacion de la base de datos acumula tareas en
+ * la cola del ejecutor en lugar de hilos de Tomcat bloqueados.
+ *
+ * whitecollar.async.executor elige la implementacion:
+ * - bounded (por defecto): un pool de whitecollar.async.pool-size hilos, por defecto tantos como conexiones tiene
+ *   el pool de la base de datos, con una cola de whitecollar.async.queue-capacity tareas. Cuando la cola esta
+ *   llena la peticion se rechaza con 503 Service Unavailable (ver ExecutorBusyAdvice)
+ * - virtual: un hilo virtual por tarea (requiere JDK 21 o superior); la concurrencia queda acotada por el pool
+ *   de conexiones
+ *
+ * Cada tarea se ejecuta con los atributos de la peticion que la creo, para que los enlaces HATEOAS y los ETag
+ * se calculen contra esa peticion.
+ *
+ * La escritura de la exportacion NDJSON (StreamingResponseBody) no usa este ejecutor sino streamingExecutor, un
+ * pool propio de whitecollar.async.streaming-pool-size hilos y whitecollar.async.streaming-queue-capacity tareas
+ * en espera, para que unos pocos clientes lentos no ocupen los hilos del resto de peticiones. Con su cola llena la
+ * exportacion tambien se rechaza con 503.
+ *
+ * Los ejecutores bounded publican las metricas executor.queued, executor.queue.remaining, executor.active,
+ * executor.pool.size, executor.completed y executor.rejected, con la etiqueta name=shopExecutor o
+ * name=streamingExecutor.
+ *
+ * Anotaciones:
+ *
+ * @Configuration
+ * Indica que una clase declara uno o mas metodos @Bean y puede ser procesada por el contenedor Spring
+ * para generar definiciones de beans y solicitudes de servicio para esos beans en tiempo de ejecucion
+ *
+ * @Bean
+ * Anotacion a nivel de metodo y un analogo directo del elemento XML <bean/>
+ *
+ * @Profile
+ * No se aplica con el perfil reactive, en el que ShopController no se crea (ver ReactiveConfiguration)
+ *
+ */
+@Configuration
+@Profile("!" + ReactiveConfiguration.PROFILE)
+public class AsyncConfiguration implements WebMvcConfigurer {
+
+    public static final String SHOP_EXECUTOR = "shopExecutor";
+    public static final String STREAMING_EXECUTOR = "streamingExecutor";
+
+    private final AsyncTaskExecutor streamingExecutor;
+    private final long requestTimeout;
+    private final long streamingTimeout;
+
+    public AsyncConfiguration(@Qualifier(STREAMING_EXECUTOR) AsyncTaskExecutor streamingExecutor,
+                              @Value("${whitecollar.async.request-timeout:30000}") long requestTimeout,
+                              @Value("${whitecollar.async.streaming-timeout:600000}") long streamingTimeout) {
+        this.streamingExecutor = streamingExecutor;
+        this.requestTimeout = requestTimeout;
+        this.streamingTimeout = streamingTimeout;
+    }
+
+    /**
+     * Ejecutor de las peticiones de ShopController
+     *
+     * @param executor, implementacion del ejecutor: bounded o virtual
+     * @param poolSize, numero de hilos del ejecutor bounded
+     * @param queueCapacity, numero maximo de tareas en espera del ejecutor bounded
+     * @param meterRegistry, registro de metricas, si existe
+     * @return ejecutor de las peticiones
+     */
+    @Bean(SHOP_EXECUTOR)
+    public static AsyncTaskExecutor shopExecutor(@Value("${whitecollar.async.executor:bounded}") String executor,
+                                                 @Value("${whitecollar.async.pool-size:${spring.datasource.hikari.maximum-pool-size:10}}") int poolSize,
+                                                 @Value("${whitecollar.async.queue-capacity:100}") int queueCapacity,
+                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        if ("virtual".equals(executor)) {
+            ConcurrentTaskExecutor virtualThreads = new ConcurrentTaskExecutor(virtualThreadPerTaskExecutor());
+            virtualThreads.setTaskDecorator(AsyncConfiguration::withRequestAttributes);
+            return virtualThreads;
+        }
+        if (!"bounded".equals(executor)) {
+            throw new IllegalArgumentException("Unknown whitecollar.async.executor: " + executor);
+        }
+
+        return bounded(SHOP_EXECUTOR, "shop-", poolSize, queueCapacity, meterRegistry);
+    }
+
+    /**
+     * Ejecutor en el que se escribe la exportacion NDJSON. Cada exportacion ocupa un hilo y una conexion de la
+     * base de datos mientras dura la escritura, por eso tiene su propio pool, menor que el de peticiones
+     *
+     * @param poolSize, numero de hilos del ejecutor
+     * @param queueCapacity, numero maximo de exportaciones en espera
+     * @param meterRegistry, registro de metricas, si existe
+     * @return ejecutor de las exportaciones
+     */
+    @Bean(STREAMING_EXECUTOR)
+    public static AsyncTaskExecutor streamingExecutor(@Value("${whitecollar.async.streaming-pool-size:2}") int poolSize,
+                                                      @Value("${whitecollar.async.streaming-queue-capacity:10}") int queueCapacity,
+                                                      ObjectProvider<MeterRegistry> meterRegistry) {
+        return bounded(STREAMING_EXECUTOR, "streaming-", poolSize, queueCapacity, meterRegistry);
+    }
+
+    /**
+     * Las respuestas de los CompletableFuture se completan en shopExecutor (ver ShopController) y se responden con
+     * 503 Service Unavailable si no terminan en whitecollar.async.request-timeout milisegundos. El ejecutor de
+     * Spring MVC solo escribe los StreamingResponseBody de la exportacion, que van a streamingExecutor con su
+     * propio limite, whitecollar.async.streaming-timeout (ver StreamingTimeout)
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamingExecutor);
+        configurer.setDefaultTimeout(requestTimeout);
+        configurer.registerCallableInterceptors(new StreamingTimeout(streamingTimeout));
+    }
+
+    /**
+     * Aplica el limite de tiempo de las respuestas escritas con StreamingResponseBody.
+     *
+     * Spring MVC escribe un StreamingResponseBody como una tarea Callable, y es el unico caso de Callable en la
+     * aplicacion: los metodos de ShopController devuelven CompletableFuture, que se procesan como DeferredResult
+     * y conservan request-timeout. El interceptor se invoca antes de iniciar el procesamiento asincrono, cuando
+     * aun se puede cambiar el limite de la peticion; un valor de cero o menos la deja sin limite. Al vencer el
+     * limite Spring MVC responde 503, o cierra la conexion si la respuesta ya habia empezado a escribirse
+     */
+    static final class StreamingTimeout implements CallableProcessingInterceptor {
+
+        private final long timeout;
+
+        StreamingTimeout(long timeout) {
+            this.timeout = timeout;
+        }
+
+        @Override
+        public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+            if (request instanceof AsyncWebRequest) {
+                ((AsyncWebRequest) request).setTimeout(timeout);
+            }
+        }
+    }
+
+    private static ThreadPoolTaskExecutor bounded(String name, String threadNamePrefix, int poolSize, int queueCapacity,
+                                                  ObjectProvider<MeterRegistry> meterRegistry) {
+        ThreadPoolTaskExecutor bounded = new ThreadPoolTaskExecutor();
+        bounded.setThreadNamePrefix(threadNamePrefix);
+        bounded.setCorePoolSize(poolSize);
+        bounded.setMaxPoolSize(poolSize);
+        bounded.setQueueCapacity(queueCapacity);
+        bounded.setTaskDecorator(AsyncConfiguration::withRequestAttributes);
+        bounded.setWaitForTasksToCompleteOnShutdown(true);
+        meterRegistry.ifAvailable(registry -> monitor(bounded, name, queueCapacity, registry));
+        return bounded;
+    }
+
+    /**
+     * Ejecuta la tarea con una copia de los atributos de la peticion en curso. La copia se hace con un objeto
+     * nuevo porque Spring marca como finalizados los atributos originales cuando el hilo de Tomcat sale del
+     * controlador, aunque la peticion asincrona siga abierta
+     */
+    private static Runnable withRequestAttributes(Runnable task) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return task;
+        }
+        ServletRequestAttributes servletAttributes = (ServletRequestAttributes) attributes;
+        return () -> {
+            RequestContextHolder.setRequestAttributes(
+                    new ServletRequestAttributes(servletAttributes.getRequest(), servletAttributes.getResponse()));
+            try {
+                task.run();
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        };
+    }
+
+    private static ExecutorService virtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("whitecollar.async.executor=virtual requires JDK 21 or later", e);
+        }
+    }
+
+    private static void monitor(ThreadPoolTaskExecutor executor, String name, int queueCapacity, MeterRegistry registry) {
+        Tags tags = Tags.of("name", name);
+        Counter rejected = Counter.builder("executor.rejected").tags(tags)
+                .description("Tasks rejected because the queue was full")
+                .register(registry);
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            new ThreadPoolExecutor.AbortPolicy().rejectedExecution(task, pool);
+        });
+
+        Gauge.builder("executor.queued", executor, e -> e.getThreadPoolExecutor().getQueue().size()).tags(tags)
+                .description("Tasks waiting in the queue")
+                .register(registry);
+        Gauge.builder("executor.queue.remaining", executor,
+                        e -> queueCapacity - e.getThreadPoolExecutor().getQueue().size()).tags(tags)
+                .description("Free slots in the queue")
+                .register(registry);
+        Gauge.builder("executor.active", executor, ThreadPoolTaskExecutor::getActiveCount).tags(tags)
+                .description("Threads running a task")
+                .register(registry);
+        Gauge.builder("executor.pool.size", executor, ThreadPoolTaskExecutor::getPoolSize).tags(tags)
+                .description("Threads in the pool")
+                .register(registry);
+        FunctionCounter.builder("executor.completed", executor,
+                        e -> e.getThreadPoolExecutor().getCompletedTaskCount()).tags(tags)
+                .description("Tasks completed")
+                .register(registry);
+    }
+}
@@ -0,0 +1,86 @@
+package whiteCollar.configuration;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.TypeUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Conversor de mensajes HTTP para formatos binarios de Jackson (CBOR, Smile).
+ *
+ * A diferencia de los conversores CBOR y Smile de Spring, que crean su propio ObjectMapper, la serializacion
+ * la hace un ObjectMapper ya configurado (el de HAL, ver WebMVCConfiguration.extendMessageConverters) sobre
+ * un generador del formato binario: los modulos, serializadores y formatos de fecha son los mismos que en JSON,
+ * por lo que la respuesta tiene la misma estructura (_links, _embedded, PictureDto, ShopDto) y solo cambia
+ * la codificacion.
+ */
+final class BinaryJacksonHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final ObjectMapper objectMapper;
+    private final JsonFactory jsonFactory;
+
+    BinaryJacksonHttpMessageConverter(ObjectMapper objectMapper, JsonFactory jsonFactory, MediaType mediaType) {
+        super(mediaType);
+        this.objectMapper = objectMapper;
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return true;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return objectMapper.canSerialize(clazz) && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        JavaType javaType = objectMapper.constructType(GenericTypeResolver.resolveType(type, contextClass));
+        try (JsonParser parser = jsonFactory.createParser(inputMessage.getBody())) {
+            return objectMapper.readerFor(javaType).readValue(parser);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException("Could not read document: " + e.getOriginalMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        ObjectWriter writer = objectMapper.writer();
+        if (type != null && TypeUtils.isAssignable(type, object.getClass())) {
+            JavaType javaType = objectMapper.constructType(type);
+            if (javaType.isContainerType()) {
+                writer = writer.forType(javaType);
+            }
+        }
+
+        OutputStream body = StreamUtils.nonClosing(outputMessage.getBody());
+        try (JsonGenerator generator = jsonFactory.createGenerator(body)) {
+            writer.writeValue(generator, object);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotWritableException("Could not write document: " + e.getOriginalMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package whiteCollar.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Clase de la capa de Configuration de Spring
+ *
+ * Sustituye el DataSource unico de spring.datasource por un ReadWriteRoutingDataSource: las transacciones
+ * de solo lectura de los servicios (listShops, listPicturesByShop, findShopVersion, shopListVersion)
+ * se ejecutan en las replicas de whitecollar.datasource.replica-urls, y el resto en la base
+ * de datos principal. Las replicas usan el mismo driver, usuario y contraseña que la principal, y sus conexiones
+ * se abren en modo solo lectura.
+ *
+ * Las replicas pueden ir por detras de la principal: una lectura en una transaccion de solo lectura puede
+ * no ver una escritura recien confirmada. Las lecturas que forman parte de una transaccion de escritura,
+ * y las consultas de las estadisticas, siguen yendo a la principal.
+ *
+ * Las versiones con las que se calculan los ETag se leen junto con el contenido del listado, en una misma
+ * transaccion de solo lectura de ShopController y por tanto con una sola conexion a una sola replica. Si la
+ * version se leyera en otra fuente (la principal u otra replica mas adelantada), podria ir por delante del
+ * contenido, y el cliente guardaria un listado antiguo con el ETag vigente, al que se responderia 304 hasta
+ * el siguiente cambio de la tienda.
+ *
+ * findShopById, que llena la cache de tiendas, se lee siempre en la principal: una lectura en una replica
+ * atrasada justo despues de eliminar la tienda de la cache dejaria en ella una copia antigua.
+ *
+ * Cada pool publica sus metricas hikaricp.* con su nombre (primary, replica-0, replica-1...) en la etiqueta pool.
+ *
+ * Anotaciones:
+ *
+ * @Configuration
+ * Indica que una clase declara uno o mas metodos @Bean y puede ser procesada por el contenedor Spring
+ * para generar definiciones de beans y solicitudes de servicio para esos beans en tiempo de ejecucion
+ *
+ * @ConditionalOnProperty
+ * La configuracion solo se aplica con whitecollar.datasource.routing.enabled=true; si no, Spring Boot crea
+ * el DataSource unico de spring.datasource
+ *
+ * @Primary
+ * El DataSource de la aplicacion (JPA, inicializacion del esquema) es el proxy, no el enrutador
+ *
+ */
+@Configuration
+@ConditionalOnProperty(name = "whitecollar.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfiguration {
+
+    /**
+     * Enrutador entre la base de datos principal y las replicas
+     *
+     * @param properties, propiedades spring.datasource de la base de datos principal
+     * @param replicaUrls, URLs JDBC de las replicas
+     * @param replicaPoolSize, numero maximo de conexiones de cada replica
+     * @param replicaSelection, forma de elegir la replica: round-robin o least-loaded
+     * @param meterRegistry, registro de metricas, si existe
+     * @return enrutador, que cierra todos los pools al cerrarse el contexto
+     */
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(DataSourceProperties properties,
+                                                        @Value("${whitecollar.datasource.replica-urls:}") List<String> replicaUrls,
+                                                        @Value("${whitecollar.datasource.replica-pool-size:10}") int replicaPoolSize,
+                                                        @Value("${whitecollar.datasource.replica-selection:round-robin}")
+                                                                ReadWriteRoutingDataSource.ReplicaSelection replicaSelection,
+                                                        ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        withMetrics(primary, meterRegistry);
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+                    .url(url)
+                    .build();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            withMetrics(replica, meterRegistry);
+            replicas.add(replica);
+        }
+
+        return new ReadWriteRoutingDataSource(primary, replicas, replicaSelection);
+    }
+
+    /**
+     * DataSource de la aplicacion: retrasa la eleccion de la conexion hasta la primera sentencia,
+     * cuando ya se sabe si la transaccion es de solo lectura
+     *
+     * @param routingDataSource, enrutador entre la principal y las replicas
+     * @return proxy sobre el enrutador
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    private static void withMetrics(HikariDataSource dataSource, ObjectProvider<MeterRegistry> meterRegistry) {
+        meterRegistry.ifAvailable(registry ->
+                dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+    }
+}
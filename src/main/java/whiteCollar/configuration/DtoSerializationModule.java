@@ -0,0 +1,180 @@
+package whiteCollar.configuration;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+import whiteCollar.dto.PictureDto;
+import whiteCollar.dto.ShopDto;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Modulo de Jackson con serializadores escritos a mano para PictureDto y ShopDto, registrado en el ObjectMapper
+ * de WebMVCConfiguration (y por tanto en las copias que usan HAL y los formatos binarios).
+ *
+ * El serializador generico de Jackson (BeanSerializer) recorre las propiedades del DTO con getters invocados
+ * por reflexion, y formatea entryDate con un SimpleDateFormat, que no es thread-safe y se clona para cada
+ * fecha. Estos serializadores escriben los campos directamente, con nombres ya codificados (SerializedString),
+ * y formatean la fecha con un DateTimeFormatter inmutable creado una sola vez.
+ *
+ * La salida es identica byte a byte a la del serializador generico: mismos campos en el mismo orden,
+ * null para los campos vacios y entryDate con el patron de @JsonFormat de PictureDto, en la zona horaria
+ * y el idioma del ObjectMapper. Admiten tambien la serializacion "unwrapped" que hace EntityModel con su contenido.
+ */
+public final class DtoSerializationModule extends SimpleModule {
+
+    public DtoSerializationModule(TimeZone timeZone, Locale locale) {
+        super("whitecollar-dto");
+        DateTimeFormatter entryDateFormatter = DateTimeFormatter.ofPattern(PictureDto.ENTRY_DATE_PATTERN, locale)
+                .withZone(timeZone.toZoneId());
+        addSerializer(PictureDto.class, new PictureDtoSerializer(entryDateFormatter, NameTransformer.NOP, false));
+        addSerializer(ShopDto.class, new ShopDtoSerializer(NameTransformer.NOP, false));
+    }
+
+    private static void writeNumber(JsonGenerator gen, SerializableString name, Long value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    private static void writeNumber(JsonGenerator gen, SerializableString name, BigDecimal value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    private static void writeString(JsonGenerator gen, SerializableString name, String value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(value);
+        }
+    }
+
+    private static SerializedString name(NameTransformer transformer, String name) {
+        return new SerializedString(transformer.transform(name));
+    }
+
+    /**
+     * Escribe idPicture, idShop, shopCapacity, name, author, price y entryDate, en el orden de declaracion de PictureDto
+     */
+    static final class PictureDtoSerializer extends StdSerializer<PictureDto> {
+
+        private final DateTimeFormatter entryDateFormatter;
+        private final boolean unwrapping;
+        private final SerializedString idPicture;
+        private final SerializedString idShop;
+        private final SerializedString shopCapacity;
+        private final SerializedString name;
+        private final SerializedString author;
+        private final SerializedString price;
+        private final SerializedString entryDate;
+
+        PictureDtoSerializer(DateTimeFormatter entryDateFormatter, NameTransformer transformer, boolean unwrapping) {
+            super(PictureDto.class);
+            this.entryDateFormatter = entryDateFormatter;
+            this.unwrapping = unwrapping;
+            this.idPicture = name(transformer, "idPicture");
+            this.idShop = name(transformer, "idShop");
+            this.shopCapacity = name(transformer, "shopCapacity");
+            this.name = name(transformer, "name");
+            this.author = name(transformer, "author");
+            this.price = name(transformer, "price");
+            this.entryDate = name(transformer, "entryDate");
+        }
+
+        @Override
+        public void serialize(PictureDto picture, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            if (!unwrapping) {
+                gen.writeStartObject(picture);
+            }
+            writeNumber(gen, idPicture, picture.getIdPicture());
+            writeNumber(gen, idShop, picture.getIdShop());
+            writeNumber(gen, shopCapacity, picture.getShopCapacity());
+            writeString(gen, name, picture.getName());
+            writeString(gen, author, picture.getAuthor());
+            writeNumber(gen, price, picture.getPrice());
+            writeString(gen, entryDate, format(picture.getEntryDate()));
+            if (!unwrapping) {
+                gen.writeEndObject();
+            }
+        }
+
+        /**
+         * Se parte de los milisegundos, y no de Date.toInstant, porque java.sql.Date no admite toInstant
+         */
+        private String format(Date date) {
+            return date == null ? null : entryDateFormatter.format(Instant.ofEpochMilli(date.getTime()));
+        }
+
+        @Override
+        public boolean isUnwrappingSerializer() {
+            return unwrapping;
+        }
+
+        @Override
+        public JsonSerializer<PictureDto> unwrappingSerializer(NameTransformer transformer) {
+            return new PictureDtoSerializer(entryDateFormatter, transformer, true);
+        }
+    }
+
+    /**
+     * Escribe id, name y capacity, en el orden de declaracion de ShopDto
+     */
+    static final class ShopDtoSerializer extends StdSerializer<ShopDto> {
+
+        private final boolean unwrapping;
+        private final SerializedString id;
+        private final SerializedString name;
+        private final SerializedString capacity;
+
+        ShopDtoSerializer(NameTransformer transformer, boolean unwrapping) {
+            super(ShopDto.class);
+            this.unwrapping = unwrapping;
+            this.id = name(transformer, "id");
+            this.name = name(transformer, "name");
+            this.capacity = name(transformer, "capacity");
+        }
+
+        @Override
+        public void serialize(ShopDto shop, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            if (!unwrapping) {
+                gen.writeStartObject(shop);
+            }
+            writeNumber(gen, id, shop.getId());
+            writeString(gen, name, shop.getName());
+            writeNumber(gen, capacity, shop.getCapacity());
+            if (!unwrapping) {
+                gen.writeEndObject();
+            }
+        }
+
+        @Override
+        public boolean isUnwrappingSerializer() {
+            return unwrapping;
+        }
+
+        @Override
+        public JsonSerializer<ShopDto> unwrappingSerializer(NameTransformer transformer) {
+            return new ShopDtoSerializer(transformer, true);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package whiteCollar.configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerMapping;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+import whiteCollar.repository.PictureSearch;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+
+/**
+ * Clase de la capa de Configuration de Spring
+ *
+ * Configura las metricas de la aplicacion (Micrometer), que Actuator publica en formato Prometheus
+ * en /actuator/prometheus:
+ * - http.server.requests: latencia de cada mapeo de ShopController, registrada automaticamente por Actuator
+ * - whitecollar.service: latencia de los metodos de IShopService e IPictureService anotados con @Timed
+ * - hibernate.*: estadisticas de Hibernate (consultas, cargas de entidades), con hibernate.generate_statistics
+ *   activado. La aplicacion no usa la cache de segundo nivel de Hibernate; los aciertos de la cache de tiendas
+ *   se publican en cache.gets (ver SpringConfiguration.cacheManager)
+ * - hikaricp.connections.*: estado del pool de conexiones, registrado automaticamente por Actuator
+ *
+ * Las metricas http.server.requests y whitecollar.service llevan la etiqueta shop.bucket, el resto de dividir
+ * el id de la tienda entre whitecollar.metrics.shop-buckets (o "none" si la operacion no es sobre una tienda),
+ * para localizar las tiendas con mas trafico sin crear una serie por tienda.
+ *
+ * Anotaciones:
+ *
+ * @Configuration
+ * Indica que una clase declara uno o mas metodos @Bean y puede ser procesada por el contenedor Spring
+ * para generar definiciones de beans y solicitudes de servicio para esos beans en tiempo de ejecucion
+ *
+ * @Bean
+ * Anotacion a nivel de metodo y un analogo directo del elemento XML <bean/>
+ *
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    public static final String SHOP_BUCKET_TAG = "shop.bucket";
+    private static final String NO_SHOP = "none";
+
+    private final int shopBuckets;
+
+    public MetricsConfiguration(@Value("${whitecollar.metrics.shop-buckets:16}") int shopBuckets) {
+        this.shopBuckets = shopBuckets;
+    }
+
+    /**
+     * Aspecto que mide la duracion de los metodos anotados con @Timed, etiquetada con la clase, el metodo
+     * y el grupo de la tienda. En IShopService e IPictureService la tienda es siempre el primer argumento:
+     * su id, la propia tienda o un cuadro de la tienda
+     *
+     * @param meterRegistry, registro de metricas de la aplicacion
+     * @return aspecto que registra los temporizadores
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry, this::serviceTags);
+    }
+
+    /**
+     * Añade la etiqueta shop.bucket a las metricas http.server.requests, a partir de la variable {id}
+     * de la plantilla de URI del mapeo
+     *
+     * @return contribuidor de etiquetas de las peticiones HTTP
+     */
+    @Bean
+    public WebMvcTagsContributor shopBucketTagsContributor() {
+        return new WebMvcTagsContributor() {
+            @Override
+            public Iterable<Tag> getTags(HttpServletRequest request, HttpServletResponse response,
+                                         Object handler, Throwable exception) {
+                @SuppressWarnings("unchecked")
+                Map<String, String> variables =
+                        (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+                return Tags.of(shopBucket(variables != null ? parseId(variables.get("id")) : null));
+            }
+
+            @Override
+            public Iterable<Tag> getLongRequestTags(HttpServletRequest request, Object handler) {
+                return Tags.empty();
+            }
+        };
+    }
+
+    private Iterable<Tag> serviceTags(ProceedingJoinPoint pjp) {
+        Signature signature = pjp.getStaticPart().getSignature();
+        Object[] args = pjp.getArgs();
+        return Tags.of(
+                Tag.of("class", signature.getDeclaringTypeName()),
+                Tag.of("method", signature.getName()),
+                shopBucket(args.length > 0 ? shopId(args[0]) : null));
+    }
+
+    private Tag shopBucket(Long idShop) {
+        return Tag.of(SHOP_BUCKET_TAG, idShop != null ? String.valueOf(Math.floorMod(idShop, shopBuckets)) : NO_SHOP);
+    }
+
+    private static Long shopId(Object arg) {
+        if (arg instanceof Long) {
+            return (Long) arg;
+        }
+        if (arg instanceof Shop) {
+            return ((Shop) arg).getId();
+        }
+        if (arg instanceof Picture) {
+            return ((Picture) arg).getIdShop();
+        }
+        if (arg instanceof PictureSearch) {
+            return ((PictureSearch) arg).getIdShop();
+        }
+        return null;
+    }
+
+    private static Long parseId(String id) {
+        try {
+            return id != null ? Long.valueOf(id) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package whiteCollar.configuration;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import whiteCollar.controller.ReactiveShopHandler;
+
+import java.util.TimeZone;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Clase de la capa de Configuration de Spring
+ *
+ * Configura la variante reactiva de la API, que se activa con el perfil reactive (spring.profiles.active=reactive,
+ * ver application-reactive.properties). Con este perfil la aplicacion arranca sobre WebFlux y Netty, en lugar de
+ * Spring MVC y Tomcat: las rutas de tiendas y cuadros las atiende ReactiveShopHandler, que accede a la base de datos
+ * con R2DBC, y ShopController, WebMVCConfiguration y AsyncConfiguration no se crean.
+ *
+ * El pool de conexiones R2DBC se configura con whitecollar.r2dbc.url, username, password y pool-size. El esquema
+ * lo sigue creando el DataSource JDBC de spring.datasource, que comparten el resto de servicios de la aplicacion.
+ *
+ * El gestor de transacciones R2DBC no se registra como bean, para que las anotaciones @Transactional de los
+ * servicios JPA sigan usando el gestor de transacciones JPA; ReactiveShopHandler usa el TransactionalOperator.
+ * Por el mismo motivo la autoconfiguracion de R2DBC de Spring Boot esta desactivada (ver WhiteCollarApplication).
+ *
+ * Anotaciones:
+ *
+ * @Configuration
+ * Indica que una clase declara uno o mas metodos @Bean y puede ser procesada por el contenedor Spring
+ * para generar definiciones de beans y solicitudes de servicio para esos beans en tiempo de ejecucion
+ *
+ * @Profile
+ * La configuracion solo se aplica con el perfil reactive
+ *
+ */
+@Configuration
+@Profile(ReactiveConfiguration.PROFILE)
+public class ReactiveConfiguration {
+
+    public static final String PROFILE = "reactive";
+
+    /**
+     * Pool de conexiones R2DBC
+     *
+     * @param url, URL R2DBC de la base de datos, por ejemplo r2dbc:mysql://localhost:3306/whitecollardb
+     * @param username, usuario de la base de datos
+     * @param password, contraseña de la base de datos
+     * @param poolSize, numero maximo de conexiones
+     * @return pool de conexiones, que se cierra al cerrarse el contexto
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory(@Value("${whitecollar.r2dbc.url}") String url,
+                                            @Value("${whitecollar.r2dbc.username:}") String username,
+                                            @Value("${whitecollar.r2dbc.password:}") String password,
+                                            @Value("${whitecollar.r2dbc.pool-size:10}") int poolSize) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (!username.isEmpty()) {
+            options.option(ConnectionFactoryOptions.USER, username);
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .name("r2dbc")
+                .initialSize(1)
+                .maxSize(poolSize)
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    /**
+     * Ejecuta un Mono en una transaccion R2DBC
+     */
+    @Bean
+    public TransactionalOperator transactionalOperator(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    /**
+     * Servidor Netty, en lugar de Tomcat, que Spring Boot elegiria por estar tambien en el classpath
+     */
+    @Bean
+    public NettyReactiveWebServerFactory reactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Rutas de la variante reactiva, las mismas que las de ShopController
+     */
+    @Bean
+    public RouterFunction<ServerResponse> shopRoutes(ReactiveShopHandler handler) {
+        return route()
+                .GET("/shops", handler::allShops)
+                .POST("/shops", handler::newShop)
+                .GET("/shops/{id}/pictures", handler::allPicturesByShop)
+                .POST("/shops/{id}/pictures", handler::newPicture)
+                .DELETE("/shops/{id}/pictures", handler::deletePicturesByShop)
+                .build();
+    }
+
+    /**
+     * Las fechas se escriben en la zona horaria del sistema, igual que con el ObjectMapper de WebMVCConfiguration
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer timeZoneCustomizer() {
+        return builder -> builder.timeZone(TimeZone.getDefault());
+    }
+}
@@ -0,0 +1,93 @@
+package whiteCollar.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource que envia las transacciones de solo lectura (@Transactional(readOnly = true)) a uno de los
+ * pools de las replicas, y el resto de accesos al pool de la base de datos principal.
+ *
+ * La replica se elige por turnos (ROUND_ROBIN) o la que tenga menos conexiones activas en ese momento
+ * (LEAST_LOADED, empezando a comparar por la siguiente en turno para repartir los empates).
+ *
+ * La decision se toma al pedir la conexion, por lo que este DataSource debe envolverse en un
+ * LazyConnectionDataSourceProxy: el gestor de transacciones pide la conexion al empezar la transaccion,
+ * antes de marcarla como de solo lectura, y el proxy retrasa la peticion hasta la primera sentencia.
+ * Ver DataSourceRoutingConfiguration.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    public enum ReplicaSelection { ROUND_ROBIN, LEAST_LOADED }
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica-";
+
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> replicas;
+    private final ReplicaSelection replicaSelection;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                      ReplicaSelection replicaSelection) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.replicaSelection = replicaSelection;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < this.replicas.size(); i++) {
+            targets.put(REPLICA + i, this.replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        return REPLICA + (replicaSelection == ReplicaSelection.LEAST_LOADED ? leastLoaded() : nextInTurn());
+    }
+
+    private int nextInTurn() {
+        return Math.floorMod(next.getAndIncrement(), replicas.size());
+    }
+
+    private int leastLoaded() {
+        int first = nextInTurn();
+        int chosen = first;
+        int fewest = Integer.MAX_VALUE;
+        for (int i = 0; i < replicas.size(); i++) {
+            int candidate = (first + i) % replicas.size();
+            int active = activeConnections(replicas.get(candidate));
+            if (active < fewest) {
+                fewest = active;
+                chosen = candidate;
+            }
+        }
+        return chosen;
+    }
+
+    private static int activeConnections(HikariDataSource dataSource) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return pool != null ? pool.getActiveConnections() : 0;
+    }
+
+    /**
+     * Cierra los pools de la base de datos principal y de las replicas
+     */
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+        primary.close();
+    }
+}
@@ -1,7 +1,11 @@
 package whiteCollar.configuration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
@@ -10,6 +14,7 @@ import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
+import whiteCollar.service.ShopServiceImpl;
 
 import java.util.TimeZone;
 
@@ -32,6 +37,11 @@ import java.util.TimeZone;
  * Habilita la capacidad de ejecucion de metodos asincronicos de Spring, similar a la funcionalidad que
  * se encuentra en el espacio de nombres de Spring XML <task:*>
  *
+ * @EnableCaching
+ * Utilizada junto a la anotacion @Configuration.
+ * Habilita la gestion de caches de Spring dirigida por anotaciones (@Cacheable, @CacheEvict), similar a la
+ * funcionalidad que se encuentra en el espacio de nombres de Spring XML <cache:*>
+ *
  * @Bean
  * Anotación a nivel de metodo y un analogo directo del elemento XML <bean/>. La anotación admite la mayoria
  * de los atributos ofrecidos por <bean/>, tales como: metodo de inicio (init-method), metodo de destruccion
@@ -42,6 +52,7 @@ import java.util.TimeZone;
 @Configuration
 @EnableScheduling
 @EnableAsync
+@EnableCaching
 public class SpringConfiguration {
 
     /**
@@ -107,4 +118,25 @@ public class SpringConfiguration {
         return new RestTemplate(clientHttpRequestFactory);
     }
 
+    /**
+     * Gestor de caches de la aplicacion, respaldado por Caffeine.
+     * La cache de tiendas esta acotada en tamaño y tiempo de vida segun la especificacion
+     * whitecollar.shop-cache.spec, y registra estadisticas de aciertos, fallos y expulsiones, que Actuator
+     * publica como metricas (cache.gets, cache.evictions).
+     *
+     * El gestor se envuelve en un TransactionAwareCacheManagerProxy, de forma que las invalidaciones hechas
+     * dentro de una transaccion se aplican despues del commit. Asi otra peticion no puede volver a guardar
+     * en la cache el estado anterior de la tienda mientras la transaccion sigue abierta.
+     *
+     * @param spec, especificacion de Caffeine de la cache de tiendas
+     * @return gestor de caches
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${whitecollar.shop-cache.spec:maximumSize=10000,expireAfterWrite=10m,recordStats}") String spec) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager(ShopServiceImpl.SHOPS_CACHE);
+        caffeineCacheManager.setCacheSpecification(spec);
+        caffeineCacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+
 }
@@ -1,15 +1,27 @@
 package whiteCollar.configuration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.modelmapper.ModelMapper;
-import org.modelmapper.convention.MatchingStrategies;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.config.HypermediaMappingInformation;
+import org.springframework.hateoas.server.mvc.TypeConstrainedMappingJackson2HttpMessageConverter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import whiteCollar.dto.ShopPicturesDto;
 
+import java.util.List;
+import java.util.Locale;
 import java.util.TimeZone;
 
 
@@ -38,12 +50,28 @@ import java.util.TimeZone;
  * A su vez, importa DelegatingWebMvcConfiguration, que proporciona la configuración predeterminada
  * de Spring MVC
  *
+ * @Profile
+ * No se aplica con el perfil reactive, en el que la aplicacion arranca sobre WebFlux (ver ReactiveConfiguration)
+ *
  */
 @ComponentScan(basePackages = {"whiteCollar"})
 @Configuration
 @EnableWebMvc
+@Profile("!" + ReactiveConfiguration.PROFILE)
 public class WebMVCConfiguration implements WebMvcConfigurer {
 
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    public static final String APPLICATION_SLIM_JSON_VALUE = "application/vnd.whitecollar.slim+json";
+    public static final MediaType APPLICATION_SLIM_JSON = MediaType.parseMediaType(APPLICATION_SLIM_JSON_VALUE);
+
+    private final ObjectProvider<HypermediaMappingInformation> hypermediaMappings;
+
+    public WebMVCConfiguration(ObjectProvider<HypermediaMappingInformation> hypermediaMappings) {
+        this.hypermediaMappings = hypermediaMappings;
+    }
+
     /**
      * Crea un controlador de recursos proporcionando los patrones de ruta de URL para lo cual se
      * debe invocar al controlador para que sirva recursos estáticos (por ejemplo, "/**").
@@ -76,26 +104,49 @@ public class WebMVCConfiguration implements WebMvcConfigurer {
      * Mapper (y ObjectReaders, ObjectWriters) usara instancias de JsonParser y JsonGenerator
      * para implementar la lectura/escritura real de JSON
      *
+     * PictureDto y ShopDto se escriben con serializadores propios, sin reflexion (ver DtoSerializationModule),
+     * que producen la misma salida que el serializador generico
+     *
      * @return instancia de tipo ObjectMapper
      */
     @Bean
     public ObjectMapper objectMapper() {
         ObjectMapper mapper = new ObjectMapper();
         mapper.setTimeZone(TimeZone.getDefault());
+        mapper.registerModule(new DtoSerializationModule(TimeZone.getDefault(), Locale.getDefault()));
         return mapper;
     }
 
     /**
-     * Realiza el mapeo de objetos, mantiene la configuracion y almacena TypeMaps, que
-     * encapsulan la configuración de mapeo para un par de tipos origen y destino
+     * Añade los formatos binarios CBOR (application/cbor) y Smile (application/x-jackson-smile), que el cliente
+     * elige con la cabecera Accept, para los consumidores internos que descargan listados grandes de cuadros:
+     * ocupan menos que JSON y se codifican y decodifican con menos CPU.
+     *
+     * Se serializan con una copia del ObjectMapper configurada para HAL, de forma que las respuestas mantienen
+     * _links, _embedded y la estructura de PictureDto y ShopDto. Sustituyen a los conversores CBOR y Smile de
+     * Spring, que no conocen HAL, y se añaden al final para que JSON siga siendo el formato por defecto
+     *
+     * Añade tambien el formato de la representacion reducida del listado de cuadros de una tienda
+     * (application/vnd.whitecollar.slim+json, ver ShopPicturesDto), con el mismo ObjectMapper. Se añade al
+     * principio, para que se elija antes que el conversor JSON generico, que acepta cualquier application/*+json
+     * pero no conoce HAL; solo escribe objetos ShopPicturesDto, por lo que no afecta al resto de respuestas
      *
-     * @return instancia de tipo ModelMapper, para el mapero de objetos de tipo fuente y destino
+     * @param converters, conversores de mensajes HTTP registrados en Spring MVC
      */
-    @Bean
-    public ModelMapper getModelMapper() {
-        ModelMapper modelMapper = new ModelMapper();
-        modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.STRICT);
-        return modelMapper;
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        ObjectMapper halMapper = hypermediaMappings.orderedStream()
+                .filter(mapping -> mapping.getMediaTypes().contains(MediaTypes.HAL_JSON))
+                .findFirst()
+                .map(mapping -> mapping.configureObjectMapper(objectMapper().copy()))
+                .orElseGet(() -> objectMapper().copy());
+
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(0, new TypeConstrainedMappingJackson2HttpMessageConverter(ShopPicturesDto.class,
+                List.of(APPLICATION_SLIM_JSON), halMapper));
+        converters.add(new BinaryJacksonHttpMessageConverter(halMapper, new CBORFactory(), MediaType.APPLICATION_CBOR));
+        converters.add(new BinaryJacksonHttpMessageConverter(halMapper, new SmileFactory(), APPLICATION_SMILE));
     }
 
 }
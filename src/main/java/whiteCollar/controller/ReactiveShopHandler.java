@@ -0,0 +1,206 @@
+package whiteCollar.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.hateoas.mediatype.problem.Problem;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import whiteCollar.configuration.ReactiveConfiguration;
+import whiteCollar.controller.exception.ShopNotFoundException;
+import whiteCollar.dto.PictureDto;
+import whiteCollar.dto.ShopDto;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+import whiteCollar.repository.ReactivePictureRepository;
+import whiteCollar.repository.ReactiveShopRepository;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Clase de la capa Controller de la variante reactiva (perfil reactive).
+ *
+ * Atiende las mismas rutas que ShopController (GET y POST /shops, GET, POST y DELETE /shops/{id}/pictures)
+ * como funciones de WebFlux, enlazadas a las rutas en ReactiveConfiguration.shopRoutes. Ningun metodo bloquea:
+ * los accesos a base de datos se hacen con R2DBC y los listados se escriben a medida que llegan las filas.
+ *
+ * Los listados son un Flux con contrapresion: la base de datos solo entrega filas a medida que el cliente
+ * consume la respuesta, de como maximo whitecollar.reactive.fetch-size filas por peticion. Con Accept
+ * application/x-ndjson se escribe un objeto JSON por linea; en otro caso, un array JSON.
+ *
+ * A diferencia de ShopController, las respuestas no llevan enlaces HATEOAS ni ETag, los listados no
+ * se paginan y el listado de cuadros de una tienda sin cuadros es un array vacio en lugar de 204 No Content.
+ *
+ * Anotaciones:
+ * @Component
+ * Indica que la clase es un "componente" y permite que se detecte automaticamente a traves del escaneo
+ * del classpath
+ *
+ * @Profile
+ * Solo se crea con el perfil reactive
+ */
+@Component
+@Profile(ReactiveConfiguration.PROFILE)
+public class ReactiveShopHandler {
+
+    private final ReactiveShopRepository reactiveShopRepository;
+    private final ReactivePictureRepository reactivePictureRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final Validator validator;
+    private final int fetchSize;
+
+    public ReactiveShopHandler(ReactiveShopRepository reactiveShopRepository,
+                               ReactivePictureRepository reactivePictureRepository,
+                               TransactionalOperator transactionalOperator, Validator validator,
+                               @Value("${whitecollar.reactive.fetch-size:256}") int fetchSize) {
+        this.reactiveShopRepository = reactiveShopRepository;
+        this.reactivePictureRepository = reactivePictureRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.validator = validator;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * GET /shops, todas las tiendas ordenadas por id
+     */
+    public Mono<ServerResponse> allShops(ServerRequest request) {
+        return stream(request, reactiveShopRepository.findAll(), ShopDto.class);
+    }
+
+    /**
+     * POST /shops, guarda una nueva tienda y la devuelve con el id asignado
+     */
+    public Mono<ServerResponse> newShop(ServerRequest request) {
+        return request.bodyToMono(Shop.class)
+                .flatMap(shop -> validated(shop, valid ->
+                        transactionalOperator.transactional(reactiveShopRepository.save(valid))
+                                .flatMap(saved -> ServerResponse.created(request.uri()).bodyValue(saved))));
+    }
+
+    /**
+     * GET /shops/{id}/pictures, todos los cuadros de la tienda ordenados por id
+     */
+    public Mono<ServerResponse> allPicturesByShop(ServerRequest request) {
+        Long shopId = shopId(request);
+        return reactiveShopRepository.findCapacityById(shopId)
+                .flatMap(capacity -> stream(request, reactivePictureRepository.findByShop(shopId, capacity), PictureDto.class))
+                .switchIfEmpty(shopNotFound(shopId));
+    }
+
+    /**
+     * POST /shops/{id}/pictures, guarda un nuevo cuadro en la tienda si tiene capacidad.
+     *
+     * La reserva de la plaza, la asignacion del id y la insercion se hacen en la misma transaccion, de forma
+     * que si la insercion falla, la reserva se deshace. Si otra peticion crea a la vez la fila contador de ids
+     * de la tienda, la transaccion se repite una vez
+     */
+    public Mono<ServerResponse> newPicture(ServerRequest request) {
+        Long shopId = shopId(request);
+        return request.bodyToMono(Picture.class)
+                .flatMap(picture -> validated(picture, valid -> reactiveShopRepository.findCapacityById(shopId)
+                        .flatMap(capacity -> savePicture(shopId, capacity, valid)
+                                .flatMap(saved -> ServerResponse.created(request.uri()).bodyValue(saved))
+                                .switchIfEmpty(ServerResponse.badRequest()
+                                        .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                                        .bodyValue(Problem.create()
+                                                .withTitle("Please select another shop.")
+                                                .withDetail("The store does not have enough capacity."))))
+                        .switchIfEmpty(shopNotFound(shopId))));
+    }
+
+    /**
+     * DELETE /shops/{id}/pictures, elimina todos los cuadros de la tienda y libera su capacidad
+     */
+    public Mono<ServerResponse> deletePicturesByShop(ServerRequest request) {
+        Long shopId = shopId(request);
+        return reactiveShopRepository.findCapacityById(shopId)
+                .flatMap(capacity -> transactionalOperator.transactional(reactivePictureRepository.deleteByShop(shopId)
+                                .flatMap(deleted -> deleted > 0
+                                        ? reactiveShopRepository.releaseCapacity(shopId, deleted)
+                                        : Mono.empty()))
+                        .then(ServerResponse.noContent().build()))
+                .switchIfEmpty(shopNotFound(shopId));
+    }
+
+    private Mono<PictureDto> savePicture(Long shopId, Long capacity, Picture picture) {
+        picture.setIdShop(shopId);
+        if (picture.getEntryDate() == null) {
+            picture.setEntryDate(new Date());
+        }
+        if (picture.getAuthor().equals("")) {
+            picture.setAuthor("ANONYMOUS");
+        }
+
+        Mono<PictureDto> save = reactiveShopRepository.reserveCapacity(shopId, 1)
+                .filter(reserved -> reserved)
+                .flatMap(reserved -> reactivePictureRepository.nextId(shopId))
+                .flatMap(id -> {
+                    picture.setId(id);
+                    return reactivePictureRepository.insert(picture, capacity);
+                });
+
+        return transactionalOperator.transactional(save)
+                .retryWhen(Retry.max(1).filter(DataIntegrityViolationException.class::isInstance));
+    }
+
+    private <T> Mono<ServerResponse> stream(ServerRequest request, Flux<T> rows, Class<T> type) {
+        MediaType mediaType = request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+                ? MediaType.APPLICATION_NDJSON
+                : MediaType.APPLICATION_JSON;
+        return ServerResponse.ok().contentType(mediaType).body(rows.limitRate(fetchSize), type);
+    }
+
+    /**
+     * Valida el cuerpo de la peticion; si no es valido responde 400 con el mismo formato que
+     * RestExceptionHandler
+     */
+    private <T> Mono<ServerResponse> validated(T body, Function<T, Mono<ServerResponse>> handler) {
+        Set<ConstraintViolation<T>> violations = validator.validate(body);
+        if (violations.isEmpty()) {
+            return handler.apply(body);
+        }
+
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("timestamp", new Date());
+        error.put("status", HttpStatus.BAD_REQUEST.value());
+        List<String> errors = violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.toList());
+        error.put("errors", errors);
+        return ServerResponse.badRequest().bodyValue(error);
+    }
+
+    private static Mono<ServerResponse> shopNotFound(Long shopId) {
+        return Mono.defer(() -> ServerResponse.status(HttpStatus.NOT_FOUND)
+                .contentType(MediaType.TEXT_PLAIN)
+                .bodyValue(new ShopNotFoundException(shopId).getMessage()));
+    }
+
+    /**
+     * Id de la tienda de la ruta. Si no es un numero responde 400, como ShopController, en lugar de 500
+     */
+    private static Long shopId(ServerRequest request) {
+        String id = request.pathVariable("id");
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            throw new ServerWebInputException("Invalid shop id: " + id);
+        }
+    }
+}
@@ -1,26 +1,73 @@
 package whiteCollar.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.MediaTypes;
 import org.springframework.hateoas.mediatype.problem.Problem;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import whiteCollar.configuration.AsyncConfiguration;
+import whiteCollar.configuration.ReactiveConfiguration;
+import whiteCollar.configuration.WebMVCConfiguration;
+import whiteCollar.controller.exception.InvalidPageRequestException;
 import whiteCollar.controller.exception.ShopNotFoundException;
+import whiteCollar.dto.PictureBatchResultDto;
 import whiteCollar.dto.PictureDto;
+import whiteCollar.dto.PictureRankDto;
+import whiteCollar.dto.PictureSuggestionDto;
 import whiteCollar.dto.ShopDto;
+import whiteCollar.dto.ShopPicturesDto;
+import whiteCollar.dto.ShopStatisticsDto;
 import whiteCollar.entity.Picture;
 import whiteCollar.entity.Shop;
+import whiteCollar.repository.Keyset;
+import whiteCollar.repository.KeysetSlice;
+import whiteCollar.repository.PictureField;
+import whiteCollar.repository.PictureSearch;
+import whiteCollar.repository.PictureSort;
+import whiteCollar.service.IPictureLeaderboardService;
 import whiteCollar.service.IPictureService;
+import whiteCollar.service.IPictureSuggestService;
 import whiteCollar.service.IShopService;
+import whiteCollar.service.IShopStatisticsService;
+import whiteCollar.service.PictureRanking;
 import whiteCollar.util.PictureModelAssembler;
 import whiteCollar.util.ShopModelAssembler;
 
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ConstraintViolation;
 import javax.validation.Valid;
-import java.util.Comparator;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
@@ -57,14 +104,41 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
  *
  * @DeleteMapping
  * Anotacion compuesta que actua como un atajo para @RequestMapping(method = RequestMethod.DELETE).
+ *
+ * Los metodos devuelven un CompletableFuture: el trabajo de cada peticion (servicios, base de datos y
+ * construccion de la respuesta) se hace en el ejecutor de peticiones (ver AsyncConfiguration), y el hilo
+ * de Tomcat queda libre mientras tanto. Si la cola del ejecutor esta llena se responde 503 Service Unavailable
+ * Los listados leen la version del ETag y la pagina en una misma transaccion de solo lectura (ver snapshot),
+ * para que ambas vean el mismo estado de la base de datos, tambien con el enrutado de lecturas a replicas
+ * Las sugerencias de busqueda (GET /pictures/suggest) y las clasificaciones (GET /pictures/top), que se sirven
+ * desde memoria, se atienden directamente
+ *
+ * @Profile
+ * No se crea con el perfil reactive, en el que las mismas rutas las atiende ReactiveShopHandler
  */
 @RestController
+@Profile("!" + ReactiveConfiguration.PROFILE)
 public class ShopController {
 
+    private static final String SHOP_SORT = "SHOP_ID";
+    private static final String SEARCH_SORT = "SEARCH_PRICE";
+    private static final String SLIM_VIEW = "slim";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int DEFAULT_SUGGESTIONS = 10;
+    private static final int MAX_SUGGESTIONS = 50;
+
     private final IShopService iShopService;
     private final IPictureService iPictureService;
+    private final IShopStatisticsService iShopStatisticsService;
+    private final IPictureSuggestService iPictureSuggestService;
+    private final IPictureLeaderboardService iPictureLeaderboardService;
     private final ShopModelAssembler shopModelAssembler;
     private final PictureModelAssembler pictureModelAssembler;
+    private final ObjectWriter ndjsonWriter;
+    private final Validator validator;
+    private final Executor shopExecutor;
+    private final TransactionTemplate readOnly;
 
     /**
      * Constructor de la clase, parametrizado con las interfaces IShopService, IPictureService y las clases
@@ -74,20 +148,47 @@ public class ShopController {
      *                      en la que se exponen los servicios o funcionalidades accesibles via HTTP
      * @param iPictureService, interfaz de tipo IPictureService, implementada por la clase PictureServiceImpl,
      *                      en la que se exponen los servicios o funcionalidades accesibles via HTTP
+     * @param iShopStatisticsService, interfaz de tipo IShopStatisticsService, implementada por la clase
+     *                      ShopStatisticsServiceImpl, que mantiene en memoria las estadisticas de cada tienda
+     * @param iPictureSuggestService, interfaz de tipo IPictureSuggestService, implementada por la clase
+     *                      PictureSuggestServiceImpl, que mantiene en memoria los indices de sugerencias de busqueda
+     * @param iPictureLeaderboardService, interfaz de tipo IPictureLeaderboardService, implementada por la clase
+     *                      PictureLeaderboardServiceImpl, que mantiene en memoria las clasificaciones de cuadros
      * @param shopModelAssembler, instancia de tipo ShopModelAssembler, convierte un objeto de dominio en
      *                          un RepresentationModel, esto es, un EntityModel que envuelve al objeto de dominio
      *                          y lo agrega enlaces
      * @param pictureModelAssembler, instancia de tipo PictureModelAssembler, convierte un objeto de dominio en
      *                            un RepresentationModel, esto es, un EntityModel que envuelve al objeto de dominio
      *                            y lo agrega enlaces
+     * @param objectMapper, instancia de tipo ObjectMapper, utilizada para escribir los cuadros exportados
+     *                     en formato JSON, uno por linea
+     * @param validator, instancia de tipo Validator, utilizada para validar por separado cada cuadro
+     *                  de una insercion por lotes
+     * @param shopExecutor, ejecutor acotado en el que se atienden las peticiones
+     * @param transactionManager, gestor de transacciones, con el que se leen juntas la version del ETag y la pagina
+     *                          de cada listado
      */
     @Autowired
     public ShopController(IShopService iShopService, IPictureService iPictureService,
-                          ShopModelAssembler shopModelAssembler, PictureModelAssembler pictureModelAssembler) {
+                          IShopStatisticsService iShopStatisticsService, IPictureSuggestService iPictureSuggestService,
+                          IPictureLeaderboardService iPictureLeaderboardService,
+                          ShopModelAssembler shopModelAssembler, PictureModelAssembler pictureModelAssembler,
+                          ObjectMapper objectMapper, Validator validator,
+                          @Qualifier(AsyncConfiguration.SHOP_EXECUTOR) Executor shopExecutor,
+                          PlatformTransactionManager transactionManager) {
         this.iShopService = iShopService;
         this.iPictureService = iPictureService;
+        this.iShopStatisticsService = iShopStatisticsService;
+        this.iPictureSuggestService = iPictureSuggestService;
+        this.iPictureLeaderboardService = iPictureLeaderboardService;
         this.shopModelAssembler = shopModelAssembler;
         this.pictureModelAssembler = pictureModelAssembler;
+        this.ndjsonWriter = objectMapper.writerFor(PictureDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.validator = validator;
+        this.shopExecutor = shopExecutor;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
     }
 
     /**
@@ -95,27 +196,63 @@ public class ShopController {
      * http://localhost:8081/shops
      *
      * Accede a la capa de servicio ShopServiceImpl mediante su interface IShopService
-     * y hace uso del servicio 'listShops()' para recuperar un listado de tipos Shop
-     * en forma de ResponseEntity, esto es, modelando el objeto de dominio a objeto DTO
-     * y agregando enlaces al objeto de dominio
+     * y hace uso del servicio 'listShops(after, before, size)' para recuperar una pagina de tiendas,
+     * ordenadas por id y construidas directamente como objetos ShopDto, en forma de ResponseEntity,
+     * esto es, agregando enlaces a cada objeto DTO
+     *
+     * La paginacion es por cursor (keyset): los enlaces next y prev incluyen un cursor opaco con el id
+     * de la ultima (o primera) tienda de la pagina, de forma que cualquier pagina cuesta lo mismo que la primera
+     *
+     * La respuesta lleva un ETag calculado con la version del listado de tiendas, que avanza cada vez que
+     * se crea o modifica una tienda. Si la peticion trae un If-None-Match con ese ETag, se responde
+     * 304 Not Modified sin consultar ni cargar ninguna tienda
      *
-     * @return objeto generico de tipo ResponseEntity, formado por un listado de tipos ShopDto,
-     * que contiene todos las tiendas que hay en el sistema, junto con enlaces agregados
+     * @param after, cursor opcional, devuelve las tiendas situadas despues de el
+     * @param before, cursor opcional, devuelve las tiendas situadas antes de el
+     * @param size, numero maximo de tiendas de la pagina
+     *
+     * @return CompletableFuture con un objeto generico de tipo ResponseEntity, formado por un listado de tipos ShopDto,
+     * que contiene una pagina de las tiendas que hay en el sistema, junto con enlaces agregados
      */
     @GetMapping("/shops")
-    public ResponseEntity<?> allShops(){
-
-        List<EntityModel<ShopDto>> shops = iShopService.listShops().stream()
-                .map(shopModelAssembler::toModel)
-                .collect(Collectors.toList());
+    public CompletableFuture<ResponseEntity<?>> allShops(@RequestParam(name="after", required=false) String after,
+                                                         @RequestParam(name="before", required=false) String before,
+                                                         @RequestParam(name="size", required=false) Integer size){
+        return async(() -> {
+            Keyset afterKeyset = cursor(after, SHOP_SORT);
+            Keyset beforeKeyset = cursor(before, SHOP_SORT);
+            int pageSize = pageSize(size);
+
+            KeysetSlice<ShopDto> page = snapshot(() -> notModified("shops-" + iShopService.shopListVersion())
+                    ? null
+                    : iShopService.listShops(afterKeyset, beforeKeyset, pageSize));
+            if (page == null) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+
+            List<EntityModel<ShopDto>> shops = page.getContent().stream()
+                    .map(shopModelAssembler::toModel)
+                    .collect(Collectors.toList());
 
-        CollectionModel<EntityModel<ShopDto>> collectionModel =
-                CollectionModel.of(shops,
-                        linkTo(methodOn(ShopController.class).allShops()).withSelfRel());
+            CollectionModel<EntityModel<ShopDto>> collectionModel =
+                    CollectionModel.of(shops,
+                            linkTo(methodOn(ShopController.class).allShops(after, before, size)).withSelfRel().expand());
+
+            if (!page.isEmpty() && page.hasNext()) {
+                String next = Keyset.of(SHOP_SORT, "", page.getLast().getId()).encode();
+                collectionModel.add(linkTo(methodOn(ShopController.class).allShops(next, null, size))
+                        .withRel(IanaLinkRelations.NEXT).expand());
+            }
+            if (!page.isEmpty() && page.hasPrevious()) {
+                String prev = Keyset.of(SHOP_SORT, "", page.getFirst().getId()).encode();
+                collectionModel.add(linkTo(methodOn(ShopController.class).allShops(null, prev, size))
+                        .withRel(IanaLinkRelations.PREV).expand());
+            }
 
-        return ResponseEntity
-                .created(collectionModel.getRequiredLink(IanaLinkRelations.SELF).toUri())
-                .body(collectionModel);
+            return ResponseEntity
+                    .created(collectionModel.getRequiredLink(IanaLinkRelations.SELF).toUri())
+                    .body(collectionModel);
+        });
     }
 
     /**
@@ -132,17 +269,18 @@ public class ShopController {
      *                 El cuerpo de la solicitud se pasa en formato JSON, segun el tipo de contenido de la solicitud.
      *                 Se aplica la validacion automatica anotando el argumento con @Valid
      *
-     * @return objeto generico de tipo ResponseEntity, formado por un objeto de tipo ShopDto,
+     * @return CompletableFuture con un objeto generico de tipo ResponseEntity, formado por un objeto de tipo ShopDto,
      * que contiene la nueva tienda creada, junto con enlaces agregados
      */
     @PostMapping("/shops")
-    public ResponseEntity<?> newShop(@Valid @RequestBody Shop newShop) {
-
-        EntityModel<ShopDto> entityModel = shopModelAssembler.toModel(iShopService.saveShop(newShop));
+    public CompletableFuture<ResponseEntity<?>> newShop(@Valid @RequestBody Shop newShop) {
+        return async(() -> {
+            EntityModel<ShopDto> entityModel = shopModelAssembler.toModel(iShopService.saveShop(newShop));
 
-        return ResponseEntity
-                .created(entityModel.getRequiredLink(IanaLinkRelations.SELF).toUri())
-                .body(entityModel);
+            return ResponseEntity
+                    .created(entityModel.getRequiredLink(IanaLinkRelations.SELF).toUri())
+                    .body(entityModel);
+        });
     }
 
     /**
@@ -150,47 +288,406 @@ public class ShopController {
      * http://localhost:8081/shops/{id}/pictures
      *
      * Accede a la capa de servicio ShopServiceImpl mediante su interface IShopService
-     * y hace uso del servicio 'findShopById(shopId)' para recuperar un objeto de tipo Shop
+     * y hace uso del servicio 'findShopById(shopId)' para recuperar un objeto de tipo ShopDto
      * cuyo id coincida con el shopId pasado en el PathVariable
      *
      * En caso de que no existiese ningun objeto Shop con el shopId especificado,
      * lanza una exception
      *
      * Despues accede a la capa de servicio PictureServiceImpl mediante su interface
-     * IPictureService y hace uso del servicio 'listPicturesByShop(shop)' para recuperar
-     * un listado de tipos Picture asociados al objeto de tipo Shop pasado como parametro
-     * y cuyo id coincide con el shopId pasado en el PathVariable
+     * IPictureService y hace uso del servicio 'listPicturesByShop(shopId, sort, after, before, size)'
+     * para recuperar una pagina de cuadros asociados a la tienda, ordenados en el servidor y construidos
+     * directamente como objetos PictureDto, sin cargar entidades
+     *
+     * La paginacion es por cursor (keyset) sobre el atributo de orden y el id del cuadro: los enlaces
+     * next y prev incluyen un cursor opaco, y los indices compuestos de la tabla picture hacen que
+     * cualquier pagina cueste lo mismo que la primera
+     *
+     * La respuesta lleva un ETag calculado con la version de la tienda, que avanza con cada alta o baja
+     * de cuadros y cada vez que se modifica la tienda. Si la peticion trae un If-None-Match con ese ETag,
+     * se responde 304 Not Modified sin cargar sus cuadros; la tienda se lee de la cache de tiendas
      *
      * @param shopId, tipo Long anotado con @PathVariable para indicar que es un parametro de metodo
      *                y debe estar vinculado a una variable de tipo plantilla de URI (URI template)
      *                Indica el id de la tienda de la que se quiere recuperar el listado de cuadros asociados
+     * @param sort, orden del listado: id (por defecto), price o entryDate
+     * @param after, cursor opcional, devuelve los cuadros situados despues de el
+     * @param before, cursor opcional, devuelve los cuadros situados antes de el
+     * @param size, numero maximo de cuadros de la pagina
      *
-     * @return objeto generico de tipo ResponseEntity, formado por un listado de tipos PictureDto,
-     * que contiene todos los cuadros disponibles en una tienda determinada, junto con enlaces agregados
+     * @return CompletableFuture con un objeto generico de tipo ResponseEntity, formado por un listado de tipos PictureDto,
+     * que contiene una pagina de los cuadros disponibles en una tienda determinada, junto con enlaces agregados
      */
     @GetMapping("/shops/{id}/pictures")
-    public ResponseEntity<?> allPicturesByShop(@PathVariable(name="id") Long shopId){
+    public CompletableFuture<ResponseEntity<?>> allPicturesByShop(@PathVariable(name="id") Long shopId,
+                                                                  @RequestParam(name="sort", required=false) String sort,
+                                                                  @RequestParam(name="after", required=false) String after,
+                                                                  @RequestParam(name="before", required=false) String before,
+                                                                  @RequestParam(name="size", required=false) Integer size){
+        return async(() -> {
+            ShopDto shop = iShopService.findShopById(shopId)
+                    .orElseThrow(() -> new ShopNotFoundException(shopId));
+
+            PictureSort pictureSort = pictureSort(sort);
+            Keyset afterKeyset = cursor(after, pictureSort);
+            Keyset beforeKeyset = cursor(before, pictureSort);
+            int pageSize = pageSize(size);
+
+            KeysetSlice<PictureDto> page = snapshot(() -> {
+                Optional<Long> version = iShopService.findShopVersion(shopId);
+                if (version.isPresent() && notModified("shop-" + shopId + "-" + version.get())) {
+                    return null;
+                }
+                return iPictureService.listPicturesByShop(shop.getId(), pictureSort, afterKeyset, beforeKeyset, pageSize);
+            });
+            if (page == null) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+
+            if (!page.isEmpty()){
+                List<EntityModel<PictureDto>> picturesDto = page.getContent().stream()
+                        .map(pictureModelAssembler::toModel)
+                        .collect(Collectors.toList());
+
+                CollectionModel<EntityModel<PictureDto>> collectionModel =
+                        CollectionModel.of(picturesDto,
+                                linkTo(methodOn(ShopController.class).allPicturesByShop(shopId, sort, after, before, size)).withSelfRel().expand());
+
+                if (page.hasNext()) {
+                    PictureDto last = page.getLast();
+                    String next = Keyset.of(pictureSort, pictureSort.valueOf(last), last.getIdPicture()).encode();
+                    collectionModel.add(linkTo(methodOn(ShopController.class).allPicturesByShop(shopId, sort, next, null, size))
+                            .withRel(IanaLinkRelations.NEXT).expand());
+                }
+                if (page.hasPrevious()) {
+                    PictureDto first = page.getFirst();
+                    String prev = Keyset.of(pictureSort, pictureSort.valueOf(first), first.getIdPicture()).encode();
+                    collectionModel.add(linkTo(methodOn(ShopController.class).allPicturesByShop(shopId, sort, null, prev, size))
+                            .withRel(IanaLinkRelations.PREV).expand());
+                }
+
+                return ResponseEntity
+                        .created(collectionModel.getRequiredLink(IanaLinkRelations.SELF).toUri())
+                        .body(collectionModel);
+            }
+
+            return ResponseEntity.noContent().build();
+        });
+    }
 
-        Shop shop = iShopService.findShopById(shopId)
-                .orElseThrow(() -> new ShopNotFoundException(shopId));
+    /**
+     * Representa el mapeo de una peticion HTTP GET, a la URL
+     * http://localhost:8081/shops/{id}/pictures?view=slim
+     *
+     * Devuelve la misma pagina de cuadros que allPicturesByShop en una representacion reducida (ShopPicturesDto):
+     * el id y la capacidad de la tienda y los enlaces aparecen una sola vez en el sobre, en lugar de repetirse
+     * en cada cuadro, y cada cuadro lleva solo sus propios campos. Con el parametro fields (por ejemplo
+     * fields=name,price) cada cuadro lleva solo el id y los campos pedidos, y la consulta solo lee esas columnas,
+     * ademas de la del orden, que se necesita para los cursores (ver IPictureService.listPicturesByShop)
+     *
+     * El tipo de la respuesta es application/vnd.whitecollar.slim+json, salvo que la cabecera Accept pida
+     * HAL+JSON, CBOR o Smile. El ETag incluye la representacion y los campos, para no confundirse con el de
+     * la representacion completa
+     *
+     * @param shopId, id de la tienda de la que se quiere recuperar el listado de cuadros asociados
+     * @param view, representacion pedida, siempre slim
+     * @param fields, campos de cada cuadro separados por comas (name, author, price, entryDate), por defecto todos
+     * @param sort, orden del listado: id (por defecto), price o entryDate
+     * @param after, cursor opcional, devuelve los cuadros situados despues de el
+     * @param before, cursor opcional, devuelve los cuadros situados antes de el
+     * @param size, numero maximo de cuadros de la pagina
+     *
+     * @return CompletableFuture con un objeto generico de tipo ResponseEntity, formado por un objeto ShopPicturesDto
+     * con una pagina de los cuadros disponibles en una tienda determinada, junto con enlaces agregados
+     */
+    @GetMapping(value = "/shops/{id}/pictures", params = "view=" + SLIM_VIEW,
+            produces = {WebMVCConfiguration.APPLICATION_SLIM_JSON_VALUE, MediaTypes.HAL_JSON_VALUE,
+                    MediaType.APPLICATION_CBOR_VALUE, WebMVCConfiguration.APPLICATION_SMILE_VALUE})
+    public CompletableFuture<ResponseEntity<?>> slimPicturesByShop(@PathVariable(name="id") Long shopId,
+                                                                   @RequestParam(name="view") String view,
+                                                                   @RequestParam(name="fields", required=false) String fields,
+                                                                   @RequestParam(name="sort", required=false) String sort,
+                                                                   @RequestParam(name="after", required=false) String after,
+                                                                   @RequestParam(name="before", required=false) String before,
+                                                                   @RequestParam(name="size", required=false) Integer size){
+        return async(() -> {
+            Set<PictureField> pictureFields = pictureFields(fields);
+            String fieldsTag = pictureFields.stream().map(PictureField::getParam).collect(Collectors.joining(","));
+
+            ShopDto shop = iShopService.findShopById(shopId)
+                    .orElseThrow(() -> new ShopNotFoundException(shopId));
+
+            PictureSort pictureSort = pictureSort(sort);
+            Keyset afterKeyset = cursor(after, pictureSort);
+            Keyset beforeKeyset = cursor(before, pictureSort);
+            int pageSize = pageSize(size);
+
+            KeysetSlice<PictureDto> page = snapshot(() -> {
+                Optional<Long> version = iShopService.findShopVersion(shopId);
+                if (version.isPresent() && notModified("shop-" + shopId + "-" + version.get() + "-" + SLIM_VIEW + "-" + fieldsTag)) {
+                    return null;
+                }
+                return iPictureService.listPicturesByShop(shop.getId(), pictureSort, afterKeyset, beforeKeyset, pageSize,
+                        pictureFields);
+            });
+            if (page == null) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+
+            if (!page.isEmpty()){
+                ShopPicturesDto shopPictures = pictureModelAssembler.toSlimModel(shop, page.getContent(), pictureFields);
+                shopPictures.add(linkTo(methodOn(ShopController.class).slimPicturesByShop(shopId, SLIM_VIEW, fields, sort,
+                        after, before, size)).withSelfRel().expand());
+
+                if (page.hasNext()) {
+                    PictureDto last = page.getLast();
+                    String next = Keyset.of(pictureSort, pictureSort.valueOf(last), last.getIdPicture()).encode();
+                    shopPictures.add(linkTo(methodOn(ShopController.class).slimPicturesByShop(shopId, SLIM_VIEW, fields, sort,
+                            next, null, size)).withRel(IanaLinkRelations.NEXT).expand());
+                }
+                if (page.hasPrevious()) {
+                    PictureDto first = page.getFirst();
+                    String prev = Keyset.of(pictureSort, pictureSort.valueOf(first), first.getIdPicture()).encode();
+                    shopPictures.add(linkTo(methodOn(ShopController.class).slimPicturesByShop(shopId, SLIM_VIEW, fields, sort,
+                            null, prev, size)).withRel(IanaLinkRelations.PREV).expand());
+                }
+
+                return ResponseEntity
+                        .created(shopPictures.getRequiredLink(IanaLinkRelations.SELF).toUri())
+                        .body(shopPictures);
+            }
+
+            return ResponseEntity.noContent().build();
+        });
+    }
 
-        List<Picture> picturesByShop = iPictureService.listPicturesByShop(shop);
+    /**
+     * Representa el mapeo de una peticion HTTP GET, a la URL
+     * http://localhost:8081/shops/{id}/pictures con la cabecera Accept: application/vnd.whitecollar.slim+json
+     *
+     * Devuelve la representacion reducida, igual que slimPicturesByShop
+     */
+    @GetMapping(value = "/shops/{id}/pictures", produces = WebMVCConfiguration.APPLICATION_SLIM_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<?>> slimPicturesByShopForMediaType(@PathVariable(name="id") Long shopId,
+                                                                               @RequestParam(name="fields", required=false) String fields,
+                                                                               @RequestParam(name="sort", required=false) String sort,
+                                                                               @RequestParam(name="after", required=false) String after,
+                                                                               @RequestParam(name="before", required=false) String before,
+                                                                               @RequestParam(name="size", required=false) Integer size){
+        return slimPicturesByShop(shopId, SLIM_VIEW, fields, sort, after, before, size);
+    }
 
-        if (!picturesByShop.isEmpty()){
-            List<EntityModel<PictureDto>> picturesDto = picturesByShop.stream()
-                    .map(pictureModelAssembler::toModel)
-                    .collect(Collectors.toList());
+    /**
+     * Representa el mapeo de una peticion HTTP GET, a la URL
+     * http://localhost:8081/pictures/search
+     *
+     * Busca cuadros en todas las tiendas. Accede a la capa de servicio PictureServiceImpl mediante su interface
+     * IPictureService y hace uso del servicio 'searchPictures(search, after, before, size)', que construye la
+     * consulta solo con los criterios indicados y devuelve una pagina de cuadros ordenados por precio,
+     * construidos directamente como objetos PictureDto
+     *
+     * La paginacion es por cursor (keyset) sobre el precio, el id de la tienda y el id del cuadro: los enlaces
+     * next y prev incluyen un cursor opaco
+     *
+     * @param author, autor del cuadro, opcional
+     * @param namePrefix, comienzo del nombre del cuadro, opcional
+     * @param minPrice, precio minimo, opcional
+     * @param maxPrice, precio maximo, opcional
+     * @param shopId, id de la tienda a la que se limita la busqueda, opcional
+     * @param after, cursor opcional, devuelve los cuadros situados despues de el
+     * @param before, cursor opcional, devuelve los cuadros situados antes de el
+     * @param size, numero maximo de cuadros de la pagina
+     *
+     * @return CompletableFuture con un objeto generico de tipo ResponseEntity, formado por un listado de tipos PictureDto,
+     * que contiene una pagina de los cuadros encontrados, junto con enlaces agregados
+     */
+    @GetMapping("/pictures/search")
+    public CompletableFuture<ResponseEntity<?>> searchPictures(@RequestParam(name="author", required=false) String author,
+                                                               @RequestParam(name="namePrefix", required=false) String namePrefix,
+                                                               @RequestParam(name="minPrice", required=false) BigDecimal minPrice,
+                                                               @RequestParam(name="maxPrice", required=false) BigDecimal maxPrice,
+                                                               @RequestParam(name="shopId", required=false) Long shopId,
+                                                               @RequestParam(name="after", required=false) String after,
+                                                               @RequestParam(name="before", required=false) String before,
+                                                               @RequestParam(name="size", required=false) Integer size){
+        return async(() -> {
+            if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+                throw new InvalidPageRequestException("minPrice " + minPrice + " is greater than maxPrice " + maxPrice);
+            }
+
+            PictureSearch search = new PictureSearch(author, namePrefix, minPrice, maxPrice, shopId);
+            KeysetSlice<PictureDto> page = iPictureService.searchPictures(search,
+                    searchCursor(after), searchCursor(before), pageSize(size));
+
+            if (!page.isEmpty()){
+                List<EntityModel<PictureDto>> picturesDto = page.getContent().stream()
+                        .map(pictureModelAssembler::toModel)
+                        .collect(Collectors.toList());
+
+                CollectionModel<EntityModel<PictureDto>> collectionModel =
+                        CollectionModel.of(picturesDto,
+                                linkTo(methodOn(ShopController.class).searchPictures(author, namePrefix, minPrice, maxPrice,
+                                        shopId, after, before, size)).withSelfRel().expand());
+
+                if (page.hasNext()) {
+                    PictureDto last = page.getLast();
+                    String next = Keyset.of(SEARCH_SORT, PictureSort.PRICE, last.getPrice(), last.getIdShop(), last.getIdPicture()).encode();
+                    collectionModel.add(linkTo(methodOn(ShopController.class).searchPictures(author, namePrefix, minPrice, maxPrice,
+                            shopId, next, null, size)).withRel(IanaLinkRelations.NEXT).expand());
+                }
+                if (page.hasPrevious()) {
+                    PictureDto first = page.getFirst();
+                    String prev = Keyset.of(SEARCH_SORT, PictureSort.PRICE, first.getPrice(), first.getIdShop(), first.getIdPicture()).encode();
+                    collectionModel.add(linkTo(methodOn(ShopController.class).searchPictures(author, namePrefix, minPrice, maxPrice,
+                            shopId, null, prev, size)).withRel(IanaLinkRelations.PREV).expand());
+                }
+
+                return ResponseEntity.ok(collectionModel);
+            }
+
+            return ResponseEntity.noContent().build();
+        });
+    }
 
-            CollectionModel<EntityModel<PictureDto>> collectionModel =
-                    CollectionModel.of(picturesDto,
-                            linkTo(methodOn(ShopController.class).allPicturesByShop(shopId)).withSelfRel());
+    /**
+     * Representa el mapeo de una peticion HTTP GET, a la URL
+     * http://localhost:8081/pictures/suggest
+     *
+     * Devuelve sugerencias para la busqueda mientras se escribe: los autores y los nombres de cuadros que empiezan
+     * por el texto indicado, sin distinguir mayusculas de minusculas. Accede a la capa de servicio
+     * PictureSuggestServiceImpl mediante su interface IPictureSuggestService, que mantiene los indices en memoria.
+     *
+     * A diferencia del resto de metodos, se atiende directamente en el hilo de Tomcat: no accede a la base de datos,
+     * y asi no espera en la cola del ejecutor de peticiones detras de las consultas
+     *
+     * @param query, texto escrito por el usuario
+     * @param limit, numero maximo de autores y de nombres sugeridos
+     *
+     * @return objeto de tipo ResponseEntity, formado por un listado de tipos PictureSuggestionDto, junto con enlaces agregados
+     */
+    @GetMapping("/pictures/suggest")
+    public ResponseEntity<CollectionModel<PictureSuggestionDto>> suggestPictures(@RequestParam(name="q") String query,
+                                                                                 @RequestParam(name="limit", required=false) Integer limit) {
+        int suggestions = limit == null ? DEFAULT_SUGGESTIONS : Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
 
-            return ResponseEntity
-                    .created(collectionModel.getRequiredLink(IanaLinkRelations.SELF).toUri())
-                    .body(collectionModel);
+        CollectionModel<PictureSuggestionDto> collectionModel =
+                CollectionModel.of(iPictureSuggestService.suggest(query, suggestions),
+                        linkTo(methodOn(ShopController.class).suggestPictures(query, limit)).withSelfRel().expand());
+
+        return ResponseEntity.ok(collectionModel);
+    }
+
+    /**
+     * Representa el mapeo de una peticion HTTP GET, a la URL
+     * http://localhost:8081/pictures/top
+     *
+     * Devuelve los primeros cuadros de todas las tiendas, o solo los del autor indicado, segun una clasificacion:
+     * por precio (por defecto) o por fecha de entrada, de mayor a menor. Accede a la capa de servicio
+     * PictureLeaderboardServiceImpl mediante su interface IPictureLeaderboardService, que mantiene las
+     * clasificaciones en memoria, por lo que la peticion no recorre la tabla picture ni las colecciones de cuadros
+     * de las tiendas. Como las sugerencias, se atiende directamente en el hilo de Tomcat
+     *
+     * @param by, clasificacion: price (por defecto) o entryDate
+     * @param n, numero de cuadros, como maximo whitecollar.leaderboard.size
+     * @param author, autor al que se limita la clasificacion, opcional
+     *
+     * @return objeto de tipo ResponseEntity, formado por un listado de tipos PictureRankDto, junto con enlaces agregados
+     */
+    @GetMapping("/pictures/top")
+    public ResponseEntity<CollectionModel<PictureRankDto>> topPictures(@RequestParam(name="by", required=false) String by,
+                                                                       @RequestParam(name="n", required=false) Integer n,
+                                                                       @RequestParam(name="author", required=false) String author) {
+        PictureRanking ranking;
+        try {
+            ranking = by == null ? PictureRanking.PRICE : PictureRanking.fromParam(by);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageRequestException(e.getMessage());
         }
+        int top = n == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(n, iPictureLeaderboardService.size()));
 
-        return ResponseEntity.noContent().build();
+        CollectionModel<PictureRankDto> collectionModel =
+                CollectionModel.of(iPictureLeaderboardService.top(ranking, author, top),
+                        linkTo(methodOn(ShopController.class).topPictures(by, n, author)).withSelfRel().expand());
+
+        return ResponseEntity.ok(collectionModel);
+    }
+
+    /**
+     * Representa el mapeo de una peticion HTTP GET, a la URL
+     * http://localhost:8081/shops/{id}/pictures/export
+     *
+     * Exporta todos los cuadros de una tienda en formato NDJSON (un objeto PictureDto en JSON por linea),
+     * escribiendolos en la respuesta a medida que se leen de la base de datos mediante un StreamingResponseBody.
+     * A diferencia del listado, no construye la lista completa de cuadros ni de EntityModel antes de
+     * escribir, por lo que la memoria utilizada no depende del tamaño de la tienda.
+     *
+     * En caso de que no existiese ningun objeto Shop con el shopId especificado en el PathVariable,
+     * lanza una exception
+     *
+     * @param shopId, tipo Long anotado con @PathVariable para indicar que es un parametro de metodo
+     *                y debe estar vinculado a una variable de tipo plantilla de URI (URI template)
+     *                Indica el id de la tienda cuyos cuadros se quieren exportar
+     *
+     * @return CompletableFuture con un objeto de tipo ResponseEntity, cuyo cuerpo se escribe de forma asincrona
+     *         en streamingExecutor (ver AsyncConfiguration)
+     */
+    @GetMapping(value = "/shops/{id}/pictures/export", produces = "application/x-ndjson")
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> exportPicturesByShop(@PathVariable(name="id") Long shopId) {
+        return async(() -> {
+            ShopDto shop = iShopService.findShopById(shopId)
+                    .orElseThrow(() -> new ShopNotFoundException(shopId));
+
+            StreamingResponseBody body = outputStream -> {
+                try (JsonGenerator generator = ndjsonWriter.getFactory().createGenerator(outputStream)) {
+                    generator.setRootValueSeparator(null);
+                    iPictureService.exportPicturesByShop(shop.getId(), picture -> {
+                        try {
+                            ndjsonWriter.writeValue(generator, pictureModelAssembler.convertToDto(picture));
+                            generator.writeRaw('\n');
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+            };
+
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                    .body(body);
+        });
+    }
+
+    /**
+     * Representa el mapeo de una peticion HTTP GET, a la URL
+     * http://localhost:8081/shops/{id}/stats
+     *
+     * Devuelve las estadisticas de inventario de una tienda: numero de cuadros, suma, media, minimo y maximo
+     * del precio, fechas de entrada mas antigua y mas reciente y numero de cuadros por autor.
+     * Las estadisticas se mantienen en memoria (ver ShopStatisticsServiceImpl), por lo que la peticion
+     * no consulta la tabla picture
+     *
+     * En caso de que no existiese ningun objeto Shop con el shopId especificado en el PathVariable,
+     * lanza una exception
+     *
+     * @param shopId, tipo Long anotado con @PathVariable para indicar que es un parametro de metodo
+     *                y debe estar vinculado a una variable de tipo plantilla de URI (URI template)
+     *                Indica el id de la tienda cuyas estadisticas se quieren obtener
+     *
+     * @return CompletableFuture con un objeto de tipo ResponseEntity, con las estadisticas y enlaces a si mismas y a los cuadros de la tienda
+     */
+    @GetMapping("/shops/{id}/stats")
+    public CompletableFuture<ResponseEntity<EntityModel<ShopStatisticsDto>>> shopStatistics(@PathVariable(name="id") Long shopId) {
+        return async(() -> {
+            ShopDto shop = iShopService.findShopById(shopId)
+                    .orElseThrow(() -> new ShopNotFoundException(shopId));
+
+            EntityModel<ShopStatisticsDto> entityModel = EntityModel.of(iShopStatisticsService.shopStatistics(shop.getId()),
+                    linkTo(methodOn(ShopController.class).shopStatistics(shopId)).withSelfRel(),
+                    linkTo(methodOn(ShopController.class).allPicturesByShop(shopId, null, null, null, null))
+                            .withRel("pictures").expand());
+
+            return ResponseEntity.ok(entityModel);
+        });
     }
 
     /**
@@ -198,7 +695,7 @@ public class ShopController {
      * http://localhost:8081/shops/{id}/pictures
      *
      * Accede a la capa de servicio ShopServiceImpl mediante su interface IShopService
-     * y hace uso del servicio 'findShopById(shopId)' para recuperar un objeto de tipo Shop
+     * y hace uso del servicio 'findShopById(shopId)' para recuperar un objeto de tipo ShopDto
      * cuyo id coincida con el shopId pasado en el PathVariable
      *
      * En caso de que no existiese ningun objeto Shop con el shopId especificado en el PathVariable,
@@ -207,8 +704,8 @@ public class ShopController {
      * Despues accede a la capa de servicio PictureServiceImpl mediante su interface
      * IPictureService y hace uso del servicio 'savePicture(newPicture)' para salvar el nuevo objeto creado
      *
-     * Antes de salvar el nuevo objeto Picture, comprueba la capacidad de la tienda,
-     * para ello accede al servicio currentShopCapacity(shopId) de la interface IShopService.
+     * Antes de salvar el nuevo objeto Picture, el servicio reserva una plaza en la tienda mediante
+     * una unica sentencia UPDATE condicional sobre el contador de ocupacion (ver IShopService.reserveCapacity).
      * En caso de que la tienda no tenga capacidad suficiente, informa con el mensaje correspondiente
      * y no hace el salvado del objeto Picture
      *
@@ -221,36 +718,102 @@ public class ShopController {
      *                y debe estar vinculado a una variable de tipo plantilla de URI (URI template)
      *                Indica el id de la tienda en la que se quiere salvar un nuevo objeto de tipo Picture
      *
-     * @return objeto generico de tipo ResponseEntity, formado por un objeto de tipo PictureDto,
+     * @return CompletableFuture con un objeto generico de tipo ResponseEntity, formado por un objeto de tipo PictureDto,
      * que contiene el nuevo cuadro creado, junto con enlaces agregados
      */
     @PostMapping("/shops/{id}/pictures")
-    public ResponseEntity<?> newPicture(@Valid @RequestBody Picture newPicture, @PathVariable(name="id") Long shopId) {
+    public CompletableFuture<ResponseEntity<?>> newPicture(@Valid @RequestBody Picture newPicture, @PathVariable(name="id") Long shopId) {
+        return async(() -> {
+            ShopDto shop = iShopService.findShopById(shopId)
+                    .orElseThrow(() -> new ShopNotFoundException(shopId));
 
-        Shop shop = iShopService.findShopById(shopId)
-                .orElseThrow(() -> new ShopNotFoundException(shopId));
+            newPicture.setShop(shopModelAssembler.convertToEntity(shop));
+            newPicture.setIdShop(shopId);
+            Optional<Picture> savedPicture = iPictureService.savePicture(newPicture);
 
-        //Long currentCapacity = shop.getPictures().stream().count();
-        Long currentCapacity = iShopService.currentShopCapacity(shopId);
+            if (savedPicture.isPresent()){
+                EntityModel<PictureDto> entityModel = pictureModelAssembler.toModel(savedPicture.get());
 
-        if(shop.getCapacity() > currentCapacity){
-            Long maxValue = shop.getPictures().stream().map(p -> p.getId()).max(Comparator.naturalOrder()).orElseGet(()-> 0L);
-            newPicture.setId(maxValue+1);
-            newPicture.setShop(shop);
-            newPicture.setIdShop(shopId);
-            EntityModel<PictureDto> entityModel = pictureModelAssembler.toModel(iPictureService.savePicture(newPicture));
+                return ResponseEntity
+                        .created(entityModel.getRequiredLink(IanaLinkRelations.SELF).toUri())
+                        .body(entityModel);
+            }
 
             return ResponseEntity
-                    .created(entityModel.getRequiredLink(IanaLinkRelations.SELF).toUri())
-                    .body(entityModel);
-        }
-
-        return ResponseEntity
-                .status(HttpStatus.BAD_REQUEST)
-                .body(Problem.create()
-                        .withTitle("Please select another shop.")
-                        .withDetail("The store does not have enough capacity."));
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(Problem.create()
+                            .withTitle("Please select another shop.")
+                            .withDetail("The store does not have enough capacity."));
+        });
+    }
 
+    /**
+     * Representa el mapeo de una peticion HTTP POST, a la URL
+     * http://localhost:8081/shops/{id}/pictures:batch
+     *
+     * Guarda un lote de cuadros en una tienda con una sola peticion. Cada cuadro se valida por separado;
+     * los que no superan la validacion se rechazan y el resto se guardan mediante el servicio
+     * 'savePictures(shopId, pictures)' de la interface IPictureService, que comprueba la capacidad
+     * de la tienda una sola vez para todo el lote y agrupa las inserciones en lotes JDBC.
+     *
+     * En caso de que no existiese ningun objeto Shop con el shopId especificado en el PathVariable,
+     * lanza una exception. Si la tienda no tiene capacidad para todos los cuadros validos del lote,
+     * no guarda ninguno e informa con el mensaje correspondiente
+     *
+     * @param newPictures, listado de tipos Picture anotado con @RequestBody, con los cuadros a guardar
+     * @param shopId, tipo Long anotado con @PathVariable para indicar que es un parametro de metodo
+     *                y debe estar vinculado a una variable de tipo plantilla de URI (URI template)
+     *                Indica el id de la tienda en la que se quieren salvar los cuadros
+     *
+     * @return CompletableFuture con un objeto generico de tipo ResponseEntity, formado por un listado de tipos PictureBatchResultDto,
+     * con el resultado de cada cuadro del lote, en el mismo orden en que se recibieron
+     */
+    @PostMapping("/shops/{id}/pictures:batch")
+    public CompletableFuture<ResponseEntity<?>> newPictures(@RequestBody List<Picture> newPictures, @PathVariable(name="id") Long shopId) {
+        return async(() -> {
+            ShopDto shop = iShopService.findShopById(shopId)
+                    .orElseThrow(() -> new ShopNotFoundException(shopId));
+
+            Shop shopEntity = shopModelAssembler.convertToEntity(shop);
+            PictureBatchResultDto[] results = new PictureBatchResultDto[newPictures.size()];
+            List<Picture> validPictures = new ArrayList<>();
+            List<Integer> validIndexes = new ArrayList<>();
+
+            for (int i = 0; i < newPictures.size(); i++) {
+                Picture picture = newPictures.get(i);
+                Set<ConstraintViolation<Picture>> violations = validator.validate(picture);
+                if (violations.isEmpty()) {
+                    picture.setShop(shopEntity);
+                    validPictures.add(picture);
+                    validIndexes.add(i);
+                } else {
+                    results[i] = PictureBatchResultDto.rejected(i, violations.stream()
+                            .map(ConstraintViolation::getMessage)
+                            .collect(Collectors.toList()));
+                }
+            }
+
+            Optional<List<Picture>> savedPictures = iPictureService.savePictures(shopId, validPictures);
+
+            if (savedPictures.isEmpty()) {
+                return ResponseEntity
+                        .status(HttpStatus.BAD_REQUEST)
+                        .body(Problem.create()
+                                .withTitle("Please select another shop.")
+                                .withDetail("The store does not have enough capacity for " + validPictures.size() + " pictures."));
+            }
+
+            for (int i = 0; i < validIndexes.size(); i++) {
+                int index = validIndexes.get(i);
+                results[index] = PictureBatchResultDto.created(index, savedPictures.get().get(i).getId());
+            }
+
+            CollectionModel<PictureBatchResultDto> collectionModel =
+                    CollectionModel.of(Arrays.asList(results),
+                            linkTo(methodOn(ShopController.class).allPicturesByShop(shopId, null, null, null, null)).withRel("all").expand());
+
+            return ResponseEntity.ok(collectionModel);
+        });
     }
 
     /**
@@ -258,31 +821,178 @@ public class ShopController {
      * http://shops:8081/shops/{id}/pictures}
      *
      * Accede a la capa de servicio ShopServiceImpl mediante su interface IShopService
-     * y hace uso del servicio 'findShopById(shopId)' para recuperar un objeto de tipo Shop
+     * y hace uso del servicio 'findShopById(shopId)' para recuperar un objeto de tipo ShopDto
      * cuyo id coincida con el shopId pasado en el PathVariable
      *
      * En caso de que no existiese ningun objeto Shop con el shopId especificado en el PathVariable,
      * lanza una exception
      *
      * Despues accede a la capa de servicio PictureServiceImpl mediante su interface IPictureService
-     * y hace uso del servicio 'firePictures(shop.getPictures())' para eliminar en lote
-     * (deleteInBatch, en una sola query) el listado de cuadros asociados a una determinada tienda,
-     * El servicio es parametrizado con el listado de cuadros a eliminar
+     * y hace uso del servicio 'firePicturesByShop(shopId)' para eliminar todos los cuadros asociados
+     * a una determinada tienda con sentencias DELETE por tramos, sin cargarlos en memoria
      *
      * @param shopId, tipo Long anotado con @PathVariable para indicar que es un parametro de metodo
      *            y debe estar vinculado a una variable de tipo plantilla de URI (URI template)
      *            Indica el id de la tienda concreta en la que se eliminaran todos sus cuadros
      *
-     * @return objeto generico de tipo ResponseEntity, con una respuesta de operacion valida
+     * @return CompletableFuture con un objeto generico de tipo ResponseEntity, con una respuesta de operacion valida
      */
     @DeleteMapping("/shops/{id}/pictures")
-    public ResponseEntity<?> deletePicturesByShop(@PathVariable(name="id") Long shopId) {
-        Shop shop = iShopService.findShopById(shopId)
-                .orElseThrow(() -> new ShopNotFoundException(shopId));
+    public CompletableFuture<ResponseEntity<?>> deletePicturesByShop(@PathVariable(name="id") Long shopId) {
+        return async(() -> {
+            ShopDto shop = iShopService.findShopById(shopId)
+                    .orElseThrow(() -> new ShopNotFoundException(shopId));
 
-        iPictureService.firePictures(shop.getPictures());
+            iPictureService.firePicturesByShop(shop.getId());
 
-        return ResponseEntity.noContent().build();
+            return ResponseEntity.noContent().build();
+        });
+    }
+
+    /**
+     * Lee la version del ETag y la pagina de un listado en una unica transaccion de solo lectura, y por tanto
+     * con una sola conexion: con el enrutado de lecturas activado ambas se leen en la misma replica, y con el
+     * aislamiento REPEATABLE READ de MySQL en la misma instantanea. Si se leyeran en transacciones distintas,
+     * la version podria salir de una replica mas adelantada que la del contenido, y el cliente recibiria 304
+     * para un listado antiguo hasta el siguiente cambio de la tienda
+     *
+     * @param reads, lecturas del listado; devuelven null si el cliente ya tiene la version vigente
+     * @return la pagina leida, o null para responder 304 Not Modified
+     */
+    private <T> T snapshot(Supplier<T> reads) {
+        return readOnly.execute(status -> reads.get());
+    }
+
+    /**
+     * Ejecuta el trabajo de una peticion en el ejecutor de peticiones
+     */
+    private <T> CompletableFuture<T> async(Supplier<T> work) {
+        return CompletableFuture.supplyAsync(work, shopExecutor);
+    }
+
+    /**
+     * Limita el tamaño de pagina solicitado al rango [1, MAX_PAGE_SIZE]
+     */
+    private static int pageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private static PictureSort pictureSort(String sort) {
+        if (sort == null) {
+            return PictureSort.ID;
+        }
+        try {
+            return PictureSort.fromParam(sort);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageRequestException(e.getMessage());
+        }
+    }
+
+    private static Set<PictureField> pictureFields(String fields) {
+        try {
+            return PictureField.fromParam(fields);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageRequestException(e.getMessage());
+        }
+    }
+
+    private static Keyset cursor(String cursor, String sort) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            return Keyset.decode(cursor, sort);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageRequestException(e.getMessage());
+        }
+    }
+
+    /**
+     * Decodifica un cursor del listado de cuadros de una tienda, comprobando que su valor es valido para el orden
+     * (un id, un precio o una fecha), para que un cursor manipulado se rechace con 400 y no llegue a la consulta
+     */
+    private static Keyset cursor(String cursor, PictureSort sort) {
+        Keyset keyset = cursor(cursor, sort.name());
+        if (keyset != null) {
+            parseValue(keyset, sort, cursor);
+        }
+        return keyset;
+    }
+
+    private static void parseValue(Keyset keyset, PictureSort sort, String cursor) {
+        try {
+            sort.parse(keyset.getValue());
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new InvalidPageRequestException("Malformed cursor " + cursor);
+        }
+    }
+
+    /**
+     * Decodifica un cursor de la busqueda de cuadros, que debe incluir un precio y el id de la tienda
+     */
+    private static Keyset searchCursor(String cursor) {
+        Keyset keyset = cursor(cursor, SEARCH_SORT);
+        if (keyset == null) {
+            return null;
+        }
+        parseValue(keyset, PictureSort.PRICE, cursor);
+        if (keyset.getIdShop() == null) {
+            throw new InvalidPageRequestException("Cursor " + cursor + " does not belong to sort " + SEARCH_SORT);
+        }
+        return keyset;
+    }
+
+    /**
+     * Comprueba el ETag indicado contra la cabecera If-None-Match de la peticion en curso y lo añade
+     * a la respuesta.
+     *
+     * El mismo recurso se sirve en JSON, CBOR o Smile segun la cabecera Accept, por lo que al ETag se le añade
+     * el formato de la representacion (por ejemplo "-cbor") y la respuesta lleva Vary: Accept, para que ni el
+     * cliente ni las caches intermedias reutilicen la representacion de un formato para otro
+     *
+     * @return true si el cliente ya tiene esa version y se debe responder 304 Not Modified
+     */
+    private static boolean notModified(String etag) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        HttpServletResponse response = attributes.getResponse();
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        String format = representation(attributes.getRequest().getHeader(HttpHeaders.ACCEPT));
+        return new ServletWebRequest(attributes.getRequest(), response).checkNotModified(etag + format);
+    }
+
+    /**
+     * Sufijo del ETag para el formato que se negocia con la cabecera Accept: el tipo aceptado de mayor
+     * preferencia decide; JSON, en cualquiera de sus variantes (HAL, slim), es el formato por defecto
+     *
+     * @param accept, valor de la cabecera Accept de la peticion, o null si no la lleva
+     * @return "-cbor", "-smile" o una cadena vacia para JSON
+     */
+    private static String representation(String accept) {
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(mediaType)) {
+                return "-cbor";
+            }
+            if (WebMVCConfiguration.APPLICATION_SMILE.equalsTypeAndSubtype(mediaType)) {
+                return "-smile";
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON) || mediaType.isCompatibleWith(MediaTypes.HAL_JSON)) {
+                return "";
+            }
+        }
+        return "";
     }
 
 }
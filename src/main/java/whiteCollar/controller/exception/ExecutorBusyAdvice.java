@@ -0,0 +1,29 @@
+package whiteCollar.controller.exception;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Clase de la capa Controller, dentro del paquete Exception
+ *
+ * La anotacion @ControllerAdvice es una especializacion de @Component para clases que declaran
+ * los metodos @ExceptionHandler, @InitBinder o @ModelAttribute para compartir entre varias clases
+ * de @Controller.
+ *
+ * Responde con 503 Service Unavailable cuando la cola del ejecutor de peticiones, o la del ejecutor de la
+ * exportacion NDJSON, esta llena (ver AsyncConfiguration)
+ */
+@ControllerAdvice
+class ExecutorBusyAdvice {
+
+    @ResponseBody
+    @ExceptionHandler(TaskRejectedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    String executorBusyHandler(TaskRejectedException ex) {
+        return "The server is busy, please try again later.";
+    }
+}
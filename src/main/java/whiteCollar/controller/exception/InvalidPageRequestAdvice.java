@@ -0,0 +1,27 @@
+package whiteCollar.controller.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Clase de la capa Controller, dentro del paquete Exception
+ *
+ * La anotacion @ControllerAdvice es una especializacion de @Component para clases que declaran
+ * los metodos @ExceptionHandler, @InitBinder o @ModelAttribute para compartir entre varias clases
+ * de @Controller.
+ *
+ * Responde con 400 Bad Request cuando un listado paginado recibe un cursor o un orden no valido
+ */
+@ControllerAdvice
+class InvalidPageRequestAdvice {
+
+    @ResponseBody
+    @ExceptionHandler(InvalidPageRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    String invalidPageRequestHandler(InvalidPageRequestException ex) {
+        return ex.getMessage();
+    }
+}
@@ -0,0 +1,16 @@
+package whiteCollar.controller.exception;
+
+/**
+ * Clase de la capa Controller, dentro del paquete Exception
+ *
+ * Extiende RuntimeException, de tipo unchecked.
+ *
+ * La exception es lanzada en los listados paginados, las busquedas y las clasificaciones de cuadros, en los
+ * casos en los que el cursor, el orden o los filtros indicados en la peticion no son validos
+ */
+public class InvalidPageRequestException extends RuntimeException {
+
+    public InvalidPageRequestException(String message) {
+        super(message);
+    }
+}
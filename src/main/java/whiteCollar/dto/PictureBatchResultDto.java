@@ -0,0 +1,82 @@
+package whiteCollar.dto;
+
+import java.util.List;
+
+/**
+ * Clase de la capa de dominio, implementa el patron Data Transfer Object (DTO Pattern).
+ *
+ * Representa el resultado de cada uno de los cuadros enviados en una insercion por lotes
+ * (POST /shops/{id}/pictures:batch): su posicion en el lote, si se ha creado o se ha rechazado,
+ * el id asignado en caso de crearse y los errores de validacion en caso de rechazarse.
+ */
+public class PictureBatchResultDto extends ResponseDto{
+
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+
+    private int index;
+    private String status;
+    private Long idPicture;
+    private List<String> errors;
+
+    public PictureBatchResultDto() {
+    }
+
+    public static PictureBatchResultDto created(int index, Long idPicture) {
+        PictureBatchResultDto result = new PictureBatchResultDto();
+        result.setIndex(index);
+        result.setStatus(CREATED);
+        result.setIdPicture(idPicture);
+        return result;
+    }
+
+    public static PictureBatchResultDto rejected(int index, List<String> errors) {
+        PictureBatchResultDto result = new PictureBatchResultDto();
+        result.setIndex(index);
+        result.setStatus(REJECTED);
+        result.setErrors(errors);
+        return result;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getIdPicture() {
+        return idPicture;
+    }
+
+    public void setIdPicture(Long idPicture) {
+        this.idPicture = idPicture;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+
+    @Override
+    public String toString() {
+        return "PictureBatchResultDto {" +
+                "index=" + index +
+                ", status='" + status + '\'' +
+                ", idPicture=" + idPicture +
+                ", errors=" + errors +
+                '}';
+    }
+}
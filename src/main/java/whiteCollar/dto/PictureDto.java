@@ -25,6 +25,8 @@ import java.util.Date;
  */
 public class PictureDto extends ResponseDto{
 
+    public static final String ENTRY_DATE_PATTERN = "dd/MM/yyyy hh:mm:ss a";
+
     private Long idPicture;
     private Long idShop;
     private Long shopCapacity;
@@ -32,12 +34,27 @@ public class PictureDto extends ResponseDto{
     private String author;
     private BigDecimal price;
 
-    @JsonFormat(pattern = "dd/MM/yyyy hh:mm:ss a")
+    @JsonFormat(pattern = ENTRY_DATE_PATTERN)
     private Date entryDate;
 
     public PictureDto() {
     }
 
+    /**
+     * Constructor usado por las consultas de proyeccion (select new ...), que construyen el DTO
+     * directamente a partir de las columnas, sin cargar entidades
+     */
+    public PictureDto(Long idPicture, Long idShop, Long shopCapacity, String name, String author,
+                      BigDecimal price, Date entryDate) {
+        this.idPicture = idPicture;
+        this.idShop = idShop;
+        this.shopCapacity = shopCapacity;
+        this.name = name;
+        this.author = author;
+        this.price = price;
+        this.entryDate = entryDate;
+    }
+
     public Long getIdPicture() {
         return idPicture;
     }
@@ -0,0 +1,94 @@
+package whiteCollar.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Clase de la capa de dominio, implementa el patron Data Transfer Object (DTO Pattern).
+ *
+ * Representa un cuadro de una clasificacion de cuadros de todas las tiendas (GET /pictures/top): su posicion,
+ * empezando por 1, la tienda en la que esta y sus datos.
+ */
+public class PictureRankDto extends ResponseDto{
+
+    private int rank;
+    private Long idPicture;
+    private Long idShop;
+    private String name;
+    private String author;
+    private BigDecimal price;
+
+    @JsonFormat(pattern = "dd/MM/yyyy hh:mm:ss a")
+    private Date entryDate;
+
+    public PictureRankDto() {
+    }
+
+    public PictureRankDto(int rank, Long idPicture, Long idShop, String name, String author, BigDecimal price, Date entryDate) {
+        this.rank = rank;
+        this.idPicture = idPicture;
+        this.idShop = idShop;
+        this.name = name;
+        this.author = author;
+        this.price = price;
+        this.entryDate = entryDate;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public void setRank(int rank) {
+        this.rank = rank;
+    }
+
+    public Long getIdPicture() {
+        return idPicture;
+    }
+
+    public void setIdPicture(Long idPicture) {
+        this.idPicture = idPicture;
+    }
+
+    public Long getIdShop() {
+        return idShop;
+    }
+
+    public void setIdShop(Long idShop) {
+        this.idShop = idShop;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public Date getEntryDate() {
+        return entryDate;
+    }
+
+    public void setEntryDate(Date entryDate) {
+        this.entryDate = entryDate;
+    }
+}
@@ -0,0 +1,88 @@
+package whiteCollar.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Clase de la capa de dominio, implementa el patron Data Transfer Object (DTO Pattern).
+ *
+ * Representa un cuadro en la representacion reducida del listado de una tienda (ver ShopPicturesDto): solo
+ * los campos propios del cuadro, sin la tienda ni enlaces. Con el parametro fields solo se rellenan los
+ * campos pedidos, ademas del id, y los campos vacios no se escriben en la respuesta.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PictureSlimDto extends ResponseDto{
+
+    private Long idPicture;
+    private String name;
+    private String author;
+    private BigDecimal price;
+
+    @JsonFormat(pattern = "dd/MM/yyyy hh:mm:ss a")
+    private Date entryDate;
+
+    public PictureSlimDto() {
+    }
+
+    public PictureSlimDto(Long idPicture, String name, String author, BigDecimal price, Date entryDate) {
+        this.idPicture = idPicture;
+        this.name = name;
+        this.author = author;
+        this.price = price;
+        this.entryDate = entryDate;
+    }
+
+    public Long getIdPicture() {
+        return idPicture;
+    }
+
+    public void setIdPicture(Long idPicture) {
+        this.idPicture = idPicture;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public Date getEntryDate() {
+        return entryDate;
+    }
+
+    public void setEntryDate(Date entryDate) {
+        this.entryDate = entryDate;
+    }
+
+    @Override
+    public String toString() {
+        return "PictureSlimDto {" +
+                "idPicture=" + idPicture +
+                ", name='" + name + '\'' +
+                ", author='" + author + '\'' +
+                ", price=" + price +
+                ", entryDate=" + entryDate +
+                '}';
+    }
+}
@@ -0,0 +1,50 @@
+package whiteCollar.dto;
+
+/**
+ * Clase de la capa de dominio, implementa el patron Data Transfer Object (DTO Pattern).
+ *
+ * Representa una sugerencia de busqueda (GET /pictures/suggest): un nombre o un autor que empieza por el texto
+ * escrito, el campo al que pertenece (name o author) y el numero de cuadros que lo tienen.
+ */
+public class PictureSuggestionDto extends ResponseDto{
+
+    public static final String NAME = "name";
+    public static final String AUTHOR = "author";
+
+    private String value;
+    private String field;
+    private long pictures;
+
+    public PictureSuggestionDto() {
+    }
+
+    public PictureSuggestionDto(String value, String field, long pictures) {
+        this.value = value;
+        this.field = field;
+        this.pictures = pictures;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public void setField(String field) {
+        this.field = field;
+    }
+
+    public long getPictures() {
+        return pictures;
+    }
+
+    public void setPictures(long pictures) {
+        this.pictures = pictures;
+    }
+}
@@ -1,6 +1,8 @@
 package whiteCollar.dto;
 
-import org.springframework.stereotype.Component;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
  * Clase de la capa de dominio, implementa el patron Data Transfer Object (DTO Pattern) mediante la
@@ -9,47 +11,53 @@ import org.springframework.stereotype.Component;
  * fuentes o tablas y concentrarlas en una unica clase simple, esto es, crear estructuras de datos
  * independientes del modelo de datos, para transmitir información entre un cliente y un servidor)
  *
+ * Es inmutable: IShopService.findShopById guarda en la cache de tiendas un ShopDto en lugar de la entidad Shop,
+ * de forma que todas las peticiones comparten una copia que nadie puede modificar y que no arrastra el contexto
+ * de persistencia ni la coleccion perezosa de cuadros. La version de la tienda (la misma de los ETag) viaja con
+ * la copia, pero no forma parte de la representacion JSON.
+ *
  * Anotaciones:
- * @Component
- * Indica que una clase es un "componente".
- * Estas clases se consideran candidatas para la deteccion automatica cuando se utiliza una configuración
- * basada en anotaciones y un escaneo de classpath.
- * También se pueden considerar otras anotaciones a nivel de clase como identificación de un componente,
- * normalmente un tipo especial de componente: por ejemplo, la anotación @Repository
+ * @JsonCreator
+ * Constructor que utiliza Jackson para leer un ShopDto, ya que la clase no tiene setters
+ *
+ * @JsonIgnore
+ * La version no se escribe en las respuestas
  */
-@Component
 public class ShopDto extends ResponseDto{
 
-    private Long id;
-    private String name;
-    private Long capacity;
+    private final Long id;
+    private final String name;
+    private final Long capacity;
+    private final Long version;
 
-
-    public ShopDto() {
+    /**
+     * Constructor usado por las consultas de proyeccion (select new ...), que construyen el DTO
+     * directamente a partir de las columnas, sin cargar entidades, y por ShopMapper
+     */
+    @JsonCreator
+    public ShopDto(@JsonProperty("id") Long id, @JsonProperty("name") String name,
+                   @JsonProperty("capacity") Long capacity, @JsonProperty("version") Long version) {
+        this.id = id;
+        this.name = name;
+        this.capacity = capacity;
+        this.version = version;
     }
 
     public Long getId() {
         return id;
     }
 
-    public void setId(Long id) {
-        this.id = id;
-    }
-
     public String getName() {
         return name;
     }
 
-    public void setName(String name) {
-        this.name = name;
-    }
-
     public Long getCapacity() {
         return capacity;
     }
 
-    public void setCapacity(Long capacity) {
-        this.capacity = capacity;
+    @JsonIgnore
+    public Long getVersion() {
+        return version;
     }
 
     @Override
@@ -58,6 +66,7 @@ public class ShopDto extends ResponseDto{
                 "id=" + id +
                 ", name='" + name + '\'' +
                 ", capacity=" + capacity +
+                ", version=" + version +
                 '}';
     }
 }
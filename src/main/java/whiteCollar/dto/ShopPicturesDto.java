@@ -0,0 +1,53 @@
+package whiteCollar.dto;
+
+import org.springframework.hateoas.RepresentationModel;
+
+import java.util.List;
+
+/**
+ * Clase de la capa de dominio, implementa el patron Data Transfer Object (DTO Pattern).
+ *
+ * Representacion reducida de una pagina de cuadros de una tienda (GET /shops/{id}/pictures?view=slim, o con
+ * Accept: application/vnd.whitecollar.slim+json). Los datos de la tienda (idShop, shopCapacity) y los enlaces,
+ * que en la representacion completa se repiten en cada PictureDto, aparecen una sola vez en el sobre, y cada
+ * cuadro (PictureSlimDto) lleva solo sus propios campos.
+ */
+public class ShopPicturesDto extends RepresentationModel<ShopPicturesDto> {
+
+    private Long idShop;
+    private Long shopCapacity;
+    private List<PictureSlimDto> pictures;
+
+    public ShopPicturesDto() {
+    }
+
+    public ShopPicturesDto(Long idShop, Long shopCapacity, List<PictureSlimDto> pictures) {
+        this.idShop = idShop;
+        this.shopCapacity = shopCapacity;
+        this.pictures = pictures;
+    }
+
+    public Long getIdShop() {
+        return idShop;
+    }
+
+    public void setIdShop(Long idShop) {
+        this.idShop = idShop;
+    }
+
+    public Long getShopCapacity() {
+        return shopCapacity;
+    }
+
+    public void setShopCapacity(Long shopCapacity) {
+        this.shopCapacity = shopCapacity;
+    }
+
+    public List<PictureSlimDto> getPictures() {
+        return pictures;
+    }
+
+    public void setPictures(List<PictureSlimDto> pictures) {
+        this.pictures = pictures;
+    }
+}
@@ -0,0 +1,122 @@
+package whiteCollar.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Clase de la capa de dominio, implementa el patron Data Transfer Object (DTO Pattern).
+ *
+ * Representa las estadisticas del inventario de una tienda (GET /shops/{id}/stats): numero de cuadros,
+ * precio total, medio, minimo y maximo, fechas de entrada del cuadro mas antiguo y del mas reciente,
+ * y numero de cuadros por autor. Si la tienda no tiene cuadros, los valores minimos, maximos y medios son nulos.
+ */
+public class ShopStatisticsDto extends ResponseDto{
+
+    private Long idShop;
+    private long pictures;
+    private BigDecimal totalPrice;
+    private BigDecimal averagePrice;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+
+    @JsonFormat(pattern = "dd/MM/yyyy hh:mm:ss a")
+    private Date oldestEntryDate;
+
+    @JsonFormat(pattern = "dd/MM/yyyy hh:mm:ss a")
+    private Date newestEntryDate;
+
+    private Map<String, Long> picturesByAuthor;
+
+    public ShopStatisticsDto() {
+    }
+
+    public Long getIdShop() {
+        return idShop;
+    }
+
+    public void setIdShop(Long idShop) {
+        this.idShop = idShop;
+    }
+
+    public long getPictures() {
+        return pictures;
+    }
+
+    public void setPictures(long pictures) {
+        this.pictures = pictures;
+    }
+
+    public BigDecimal getTotalPrice() {
+        return totalPrice;
+    }
+
+    public void setTotalPrice(BigDecimal totalPrice) {
+        this.totalPrice = totalPrice;
+    }
+
+    public BigDecimal getAveragePrice() {
+        return averagePrice;
+    }
+
+    public void setAveragePrice(BigDecimal averagePrice) {
+        this.averagePrice = averagePrice;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(BigDecimal minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(BigDecimal maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public Date getOldestEntryDate() {
+        return oldestEntryDate;
+    }
+
+    public void setOldestEntryDate(Date oldestEntryDate) {
+        this.oldestEntryDate = oldestEntryDate;
+    }
+
+    public Date getNewestEntryDate() {
+        return newestEntryDate;
+    }
+
+    public void setNewestEntryDate(Date newestEntryDate) {
+        this.newestEntryDate = newestEntryDate;
+    }
+
+    public Map<String, Long> getPicturesByAuthor() {
+        return picturesByAuthor;
+    }
+
+    public void setPicturesByAuthor(Map<String, Long> picturesByAuthor) {
+        this.picturesByAuthor = picturesByAuthor;
+    }
+
+    @Override
+    public String toString() {
+        return "ShopStatisticsDto {" +
+                "idShop=" + idShop +
+                ", pictures=" + pictures +
+                ", totalPrice=" + totalPrice +
+                ", averagePrice=" + averagePrice +
+                ", minPrice=" + minPrice +
+                ", maxPrice=" + maxPrice +
+                ", oldestEntryDate=" + oldestEntryDate +
+                ", newestEntryDate=" + newestEntryDate +
+                ", picturesByAuthor=" + picturesByAuthor +
+                '}';
+    }
+}
@@ -23,6 +23,9 @@ import java.util.Date;
  * Los nombres de los campos o propiedades en la clase de clave primaria, en este caso, PictureShopPk.class,
  * y los campos o propiedades de la clave primaria de la entidad se deben corresponder y sus tipos deben ser los mismos.
  *
+ * El id del cuadro es unico dentro de cada tienda y no lo genera la base de datos, sino que lo asigna
+ * PictureIdAllocator a partir de un contador por tienda (tabla shop_picture_sequence).
+ *
  * La anotacion @ManyToOne especifica una asociacion de un solo valor a otra clase de entidad
  * que tiene multiplicidad de muchos a uno, en este caso, la asociacion es con la entidad Shop,
  * donde varios valores de tipo Picture pueden estar asociados a una unica entidad de tipo Shop.
@@ -48,7 +51,6 @@ public class Picture implements Serializable {
 
     @Id
     @Column(name = "id_picture")
-    @GeneratedValue(strategy = GenerationType.AUTO)
     private Long id;
 
     @Column(name = "name")//no hace falta si se llama igual
@@ -2,6 +2,7 @@ package whiteCollar.entity;
 
 import javax.persistence.Column;
 import java.io.Serializable;
+import java.util.Objects;
 
 /**
  * Clase de la capa de dominio.
@@ -11,6 +12,9 @@ import java.io.Serializable;
  * Sus campos o propiedades deben ser declarados exactamente igual que los campos o propiedades
  * de la entidad que contiene la clave primaria compuesta, en este caso, la entidad Picture, anotada
  * con @IdClass(PictureShopPk.class)
+ *
+ * Implementa equals y hashCode a partir de ambos campos, tal y como exige JPA para las clases de clave
+ * primaria, de forma que Hibernate pueda localizar las entidades en el contexto de persistencia por valor.
  */
 public class PictureShopPk implements Serializable {
 
@@ -23,6 +27,11 @@ public class PictureShopPk implements Serializable {
     public PictureShopPk() {
     }
 
+    public PictureShopPk(Long idShop, Long id) {
+        this.idShop = idShop;
+        this.id = id;
+    }
+
     public Long getIdShop() {
         return idShop;
     }
@@ -38,4 +47,21 @@ public class PictureShopPk implements Serializable {
     public void setId(Long id) {
         this.id = id;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PictureShopPk)) {
+            return false;
+        }
+        PictureShopPk that = (PictureShopPk) o;
+        return Objects.equals(idShop, that.idShop) && Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(idShop, id);
+    }
 }
@@ -22,6 +22,13 @@ import java.util.List;
  *
  * Al ser la relacion bidireccional, el elemento mappedBy debe usarse para especificar
  * el campo de relacion o la propiedad de la entidad que es propietaria de la relacion.
+ *
+ * La columna occupancy es un contador del numero de cuadros de la tienda. Solo se modifica mediante
+ * sentencias UPDATE condicionales (ver IShopRepository), por eso se mapea como insertable = false
+ * y updatable = false, de forma que Hibernate nunca sobreescriba su valor.
+ *
+ * La columna version avanza cada vez que se guarda la tienda o cambian sus cuadros, en las mismas
+ * sentencias UPDATE, y se usa para calcular el ETag del listado de cuadros. Tampoco la escribe Hibernate.
  */
 @Entity
 @Table(name="shop") //en caso que la tabla sea diferente
@@ -42,6 +49,12 @@ public class Shop implements Serializable {
     @NotNull(message = "capacity is required")
     private Long capacity;
 
+    @Column(name = "occupancy", insertable = false, updatable = false)
+    private Long occupancy;
+
+    @Column(name = "version", insertable = false, updatable = false)
+    private Long version;
+
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "shop", fetch = FetchType.LAZY)
     private List<Picture> pictures;
 
@@ -72,6 +85,22 @@ public class Shop implements Serializable {
         this.capacity = capacity;
     }
 
+    public Long getOccupancy() {
+        return occupancy;
+    }
+
+    public void setOccupancy(Long occupancy) {
+        this.occupancy = occupancy;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public List<Picture> getPictures() {
         return pictures;
     }
@@ -0,0 +1,53 @@
+package whiteCollar.entity;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * Clase de la capa de dominio.
+ *
+ * La anotacion @Entity indica que la clase es una entidad.
+ *
+ * La anotacion @Table indica que la clase sera mapeada a la tabla shop_picture_sequence, que guarda
+ * una fila contador por tienda con el siguiente id de cuadro libre.
+ *
+ * El contador no se incrementa de uno en uno, sino en bloques (estrategia hi/lo): cada vez que se
+ * avanza, se reserva un bloque de ids que despues se reparte en memoria (ver PictureIdAllocator),
+ * de forma que la mayoria de inserciones no necesitan acceder a esta tabla.
+ */
+@Entity
+@Table(name="shop_picture_sequence")
+public class ShopPictureSequence implements Serializable {
+
+    //Atributos de entidad ShopPictureSequence
+    @Id
+    @Column(name = "id_shop")
+    private Long idShop;
+
+    @Column(name = "next_val")
+    private Long nextVal;
+
+    public ShopPictureSequence() {
+    }
+
+    public ShopPictureSequence(Long idShop, Long nextVal) {
+        this.idShop = idShop;
+        this.nextVal = nextVal;
+    }
+
+    public Long getIdShop() {
+        return idShop;
+    }
+
+    public void setIdShop(Long idShop) {
+        this.idShop = idShop;
+    }
+
+    public Long getNextVal() {
+        return nextVal;
+    }
+
+    public void setNextVal(Long nextVal) {
+        this.nextVal = nextVal;
+    }
+}
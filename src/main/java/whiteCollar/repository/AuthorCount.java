@@ -0,0 +1,30 @@
+package whiteCollar.repository;
+
+/**
+ * Fila de resultado de las consultas de numero de cuadros por autor y tienda
+ * (ver IPictureRepository.countByShopAndAuthor)
+ */
+public class AuthorCount {
+
+    private final Long idShop;
+    private final String author;
+    private final long pictures;
+
+    public AuthorCount(Long idShop, String author, Long pictures) {
+        this.idShop = idShop;
+        this.author = author;
+        this.pictures = pictures;
+    }
+
+    public Long getIdShop() {
+        return idShop;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public long getPictures() {
+        return pictures;
+    }
+}
@@ -1,21 +1,115 @@
 package whiteCollar.repository;
 
 import org.hibernate.metamodel.model.convert.spi.JpaAttributeConverter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import whiteCollar.entity.Picture;
+import whiteCollar.entity.PictureShopPk;
 import whiteCollar.entity.Shop;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Interface de la capa Repository, extiende JpaRepository
  *
+ * El metodo streamPicturesByShopId recorre los cuadros de una tienda con un cursor de solo avance:
+ * el driver JDBC los va leyendo en bloques de FETCH_SIZE filas, en lugar de cargar todo el resultado
+ * en memoria. Debe invocarse dentro de una transaccion y el Stream debe cerrarse al terminar.
+ *
+ * Las consultas que devuelven cuadros para construir su representacion (findPicturesByShop y
+ * streamPicturesByShopId) cargan tambien la tienda en la misma consulta, con un entity graph o un
+ * join fetch, para que PictureModelAssembler no lance una carga perezosa por cuadro.
+ *
+ * streamPictureTerms recorre el nombre y el autor de todos los cuadros, sin cargar entidades, para construir
+ * el indice de sugerencias de busqueda al arrancar; como streamPicturesByShopId, debe invocarse dentro de una
+ * transaccion y el Stream debe cerrarse al terminar.
+ *
+ * Las consultas de clasificacion (streamPictureRanks, findRanks) devuelven los datos de los cuadros de todas
+ * las tiendas sin cargar entidades: streamPictureRanks los recorre todos al arrancar, y findRanks lee los primeros
+ * segun el orden del Pageable, recorriendo los indices sobre price, entry_date, (author, price) y
+ * (author, entry_date).
+ *
+ * Las consultas de agregados (aggregateByShop, countByShopAndAuthor) calculan las estadisticas de inventario
+ * de todas las tiendas, o de una sola, con GROUP BY en la base de datos y sin cargar entidades.
+ *
+ * El borrado de los cuadros de una tienda se hace con sentencias DELETE por rango de id (deleteByShopUpTo),
+ * sin cargar las entidades. findIdsByShop permite obtener el limite de cada tramo recorriendo solo el indice
+ * de la clave primaria.
  */
 @Repository
 @Transactional
-public interface IPictureRepository extends JpaRepository<Picture, Long> {
+public interface IPictureRepository extends JpaRepository<Picture, PictureShopPk>, IPictureRepositoryCustom {
+
+    String FETCH_SIZE = "500";
+
+    @EntityGraph(attributePaths = "shop")
     List<Picture> findPicturesByShop(Shop shop);
+
+    @Query("select coalesce(max(p.id), 0) from Picture p where p.idShop = :idShop")
+    Long findMaxPictureId(@Param("idShop") Long idShop);
+
+    @QueryHints({
+            @QueryHint(name = org.hibernate.annotations.QueryHints.FETCH_SIZE, value = FETCH_SIZE),
+            @QueryHint(name = org.hibernate.annotations.QueryHints.READ_ONLY, value = "true")})
+    @Query("select p from Picture p join fetch p.shop where p.idShop = :idShop order by p.id")
+    Stream<Picture> streamPicturesByShopId(@Param("idShop") Long idShop);
+
+    @QueryHints({
+            @QueryHint(name = org.hibernate.annotations.QueryHints.FETCH_SIZE, value = FETCH_SIZE),
+            @QueryHint(name = org.hibernate.annotations.QueryHints.READ_ONLY, value = "true")})
+    @Query("select new whiteCollar.repository.PictureTerms(p.idShop, p.id, p.name, p.author) from Picture p")
+    Stream<PictureTerms> streamPictureTerms();
+
+    @QueryHints({
+            @QueryHint(name = org.hibernate.annotations.QueryHints.FETCH_SIZE, value = FETCH_SIZE),
+            @QueryHint(name = org.hibernate.annotations.QueryHints.READ_ONLY, value = "true")})
+    @Query("select new whiteCollar.repository.PictureRank(p.idShop, p.id, p.name, p.author, p.price, p.entryDate) " +
+            "from Picture p")
+    Stream<PictureRank> streamPictureRanks();
+
+    @Query("select new whiteCollar.repository.PictureRank(p.idShop, p.id, p.name, p.author, p.price, p.entryDate) " +
+            "from Picture p")
+    List<PictureRank> findRanks(Pageable pageable);
+
+    @Query("select new whiteCollar.repository.PictureRank(p.idShop, p.id, p.name, p.author, p.price, p.entryDate) " +
+            "from Picture p where p.author = :author")
+    List<PictureRank> findRanks(@Param("author") String author, Pageable pageable);
+
+    @Query("select p.id from Picture p where p.idShop = :idShop order by p.id")
+    List<Long> findIdsByShop(@Param("idShop") Long idShop, Pageable pageable);
+
+    @Modifying
+    @Query("delete from Picture p where p.idShop = :idShop and p.id <= :maxId")
+    int deleteByShopUpTo(@Param("idShop") Long idShop, @Param("maxId") Long maxId);
+
+    @Modifying
+    @Query("delete from Picture p where p.idShop = :idShop")
+    int deleteByShop(@Param("idShop") Long idShop);
+
+    @Query("select new whiteCollar.repository.PictureAggregate(p.idShop, count(p), sum(p.price), " +
+            "min(p.price), max(p.price), min(p.entryDate), max(p.entryDate)) from Picture p group by p.idShop")
+    List<PictureAggregate> aggregateByShop();
+
+    @Query("select new whiteCollar.repository.PictureAggregate(p.idShop, count(p), sum(p.price), " +
+            "min(p.price), max(p.price), min(p.entryDate), max(p.entryDate)) from Picture p " +
+            "where p.idShop = :idShop group by p.idShop")
+    List<PictureAggregate> aggregateByShop(@Param("idShop") Long idShop);
+
+    @Query("select new whiteCollar.repository.AuthorCount(p.idShop, p.author, count(p)) from Picture p " +
+            "group by p.idShop, p.author")
+    List<AuthorCount> countByShopAndAuthor();
+
+    @Query("select new whiteCollar.repository.AuthorCount(p.idShop, p.author, count(p)) from Picture p " +
+            "where p.idShop = :idShop group by p.idShop, p.author")
+    List<AuthorCount> countByShopAndAuthor(@Param("idShop") Long idShop);
 }
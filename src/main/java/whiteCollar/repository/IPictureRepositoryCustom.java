@@ -0,0 +1,23 @@
+package whiteCollar.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import whiteCollar.dto.PictureDto;
+import whiteCollar.entity.Picture;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Interface de la capa Repository, fragmento con operaciones propias sobre la entidad Picture
+ * que no ofrece JpaRepository. Su implementacion es IPictureRepositoryCustomImpl.
+ *
+ */
+public interface IPictureRepositoryCustom {
+
+    Picture persist(Picture picture); //Insert a new Picture whose id has already been assigned
+
+    List<PictureDto> findDtoSlice(Specification<Picture> specification, Sort sort, int limit); //List at most limit Pictures as PictureDto, without COUNT query
+
+    List<PictureDto> findDtoSlice(Specification<Picture> specification, Sort sort, int limit, Set<PictureField> fields); //Same as above, selecting only the given columns and leaving the rest of the PictureDto empty
+}
@@ -0,0 +1,109 @@
+package whiteCollar.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import whiteCollar.dto.PictureDto;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+/**
+ * Clase de la capa Repository, implementa el fragmento IPictureRepositoryCustom.
+ *
+ * Los cuadros tienen una clave primaria compuesta con ids asignados por la aplicacion, por lo que
+ * JpaRepository.save los trata siempre como entidades existentes y hace un merge, que lanza un SELECT
+ * previo a cada INSERT. El metodo persist inserta directamente, sin ese SELECT adicional.
+ *
+ * El metodo findDtoSlice ejecuta una Specification con orden y limite de filas, pero sin la consulta COUNT
+ * que lanza JpaSpecificationExecutor.findAll(Specification, Pageable); se usa para la paginacion por cursor.
+ * Devuelve directamente objetos PictureDto mediante una expresion constructora (CriteriaBuilder.construct),
+ * con la capacidad de la tienda obtenida en la misma consulta, de forma que no se cargan entidades en el
+ * contexto de persistencia ni se guardan sus copias para la comprobacion de cambios (dirty checking).
+ * La variante con campos (ver PictureField) selecciona solo las columnas pedidas, sin el join con la tienda,
+ * para la representacion reducida del listado.
+ *
+ * Anotaciones:
+ * @PersistenceContext
+ * Inyecta el EntityManager asociado a la transaccion en curso
+ */
+public class IPictureRepositoryCustomImpl implements IPictureRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Picture persist(Picture picture) {
+        entityManager.persist(picture);
+        return picture;
+    }
+
+    @Override
+    public List<PictureDto> findDtoSlice(Specification<Picture> specification, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PictureDto> query = cb.createQuery(PictureDto.class);
+        Root<Picture> root = query.from(Picture.class);
+        Join<Picture, Shop> shop = root.join("shop");
+
+        query.select(cb.construct(PictureDto.class,
+                root.get("id"), root.get("idShop"), shop.get("capacity"), root.get("name"),
+                root.get("author"), root.get("price"), root.get("entryDate")));
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<PictureDto> findDtoSlice(Specification<Picture> specification, Sort sort, int limit, Set<PictureField> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Picture> root = query.from(Picture.class);
+
+        List<PictureField> columns = new ArrayList<>(fields);
+        List<Selection<?>> selections = new ArrayList<>(columns.size());
+        for (PictureField column : columns) {
+            selections.add(root.get(column.getAttribute()));
+        }
+        query.multiselect(selections);
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(toOrders(sort, root, cb));
+
+        List<Tuple> rows = entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+
+        List<PictureDto> pictures = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            PictureDto picture = new PictureDto();
+            for (int i = 0; i < columns.size(); i++) {
+                columns.get(i).set(picture, row.get(i));
+            }
+            pictures.add(picture);
+        }
+        return pictures;
+    }
+}
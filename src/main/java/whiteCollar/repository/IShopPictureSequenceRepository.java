@@ -0,0 +1,29 @@
+package whiteCollar.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import whiteCollar.entity.ShopPictureSequence;
+
+/**
+ * Interface de la capa Repository, extiende JpaRepository
+ *
+ * El avance del contador es una unica sentencia UPDATE, que bloquea la fila de la tienda
+ * hasta el final de la transaccion; el valor leido despues en la misma transaccion es el
+ * limite superior (exclusivo) del bloque de ids reservado.
+ */
+@Repository
+@Transactional
+public interface IShopPictureSequenceRepository extends JpaRepository<ShopPictureSequence, Long> {
+
+    @Modifying
+    @Query("update ShopPictureSequence s set s.nextVal = s.nextVal + :blockSize where s.idShop = :idShop")
+    int advance(@Param("idShop") Long idShop, @Param("blockSize") Long blockSize);
+
+    @Query("select s.nextVal from ShopPictureSequence s where s.idShop = :idShop")
+    Long findNextVal(@Param("idShop") Long idShop);
+
+}
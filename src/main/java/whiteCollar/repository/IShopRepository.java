@@ -1,17 +1,76 @@
 package whiteCollar.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import whiteCollar.dto.ShopDto;
 import whiteCollar.entity.Shop;
 
+import java.util.List;
+import java.util.Optional;
+
 
 /**
  * Interface de la capa Repository, extiende JpaRepository
  *
+ * Las reservas y liberaciones de capacidad se hacen con una unica sentencia UPDATE condicional
+ * sobre la columna occupancy, de forma que la comprobacion de capacidad y el incremento del contador
+ * son atomicos aunque existan peticiones concurrentes, y su coste no depende del numero de cuadros
+ * de la tienda.
+ *
+ * Los listados paginados por cursor (keyset) filtran por el id de la ultima tienda devuelta,
+ * usando la clave primaria, en lugar de saltar filas con OFFSET. Devuelven directamente objetos ShopDto
+ * mediante una expresion constructora (select new), sin cargar entidades en el contexto de persistencia.
+ * La busqueda por id de IShopService.findShopById (findDtoById) devuelve tambien un ShopDto, con la version
+ * de la tienda, que es lo que se guarda en la cache de tiendas.
+ *
+ * Las versiones de una tienda (shop.version) y del listado de tiendas (shop_list_version) se leen con
+ * consultas escalares, sin cargar entidades, para responder a las peticiones condicionales (If-None-Match).
+ * La version de la tienda avanza en las mismas sentencias que reservan o liberan capacidad.
  */
 @Repository
 @Transactional
 public interface IShopRepository extends JpaRepository<Shop, Long> {
 
+    @Query("select new whiteCollar.dto.ShopDto(s.id, s.name, s.capacity, s.version) from Shop s " +
+            "where s.id > :id order by s.id asc")
+    List<ShopDto> findDtoByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @Query("select new whiteCollar.dto.ShopDto(s.id, s.name, s.capacity, s.version) from Shop s " +
+            "where s.id < :id order by s.id desc")
+    List<ShopDto> findDtoByIdLessThan(@Param("id") Long id, Pageable pageable);
+
+    @Query("select new whiteCollar.dto.ShopDto(s.id, s.name, s.capacity, s.version) from Shop s where s.id = :id")
+    Optional<ShopDto> findDtoById(@Param("id") Long id);
+
+    @Query("select s.occupancy from Shop s where s.id = :idShop")
+    Long findOccupancyById(@Param("idShop") Long idShop);
+
+    @Modifying
+    @Query("update Shop s set s.occupancy = s.occupancy + :amount, s.version = s.version + 1 " +
+            "where s.id = :idShop and s.occupancy + :amount <= s.capacity")
+    int reserveCapacity(@Param("idShop") Long idShop, @Param("amount") Long amount);
+
+    @Modifying
+    @Query("update Shop s set s.occupancy = s.occupancy - :amount, s.version = s.version + 1 where s.id = :idShop")
+    int releaseCapacity(@Param("idShop") Long idShop, @Param("amount") Long amount);
+
+    @Query("select s.version from Shop s where s.id = :idShop")
+    Long findVersionById(@Param("idShop") Long idShop);
+
+    @Modifying
+    @Query("update Shop s set s.version = s.version + 1 where s.id = :idShop")
+    int incrementVersion(@Param("idShop") Long idShop);
+
+    @Query(value = "select version from shop_list_version where id = 1", nativeQuery = true)
+    Long findListVersion();
+
+    @Modifying
+    @Query(value = "update shop_list_version set version = version + 1 where id = 1", nativeQuery = true)
+    int incrementListVersion();
+
 }
@@ -0,0 +1,111 @@
+package whiteCollar.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Clase de la capa Repository que representa la posicion de un elemento en un listado ordenado,
+ * utilizada para la paginacion por cursor (keyset pagination).
+ *
+ * En lugar de saltar un numero de filas (OFFSET), cada pagina se pide a partir de los valores de orden
+ * del ultimo (o primer) elemento de la pagina anterior: el valor del atributo de orden y el id,
+ * que deshace los empates. Asi, con un indice sobre esas columnas, cualquier pagina cuesta lo mismo
+ * que la primera.
+ *
+ * Se expone a los clientes como un cursor opaco, codificado en Base64 (URL safe), que incluye el nombre
+ * del orden para detectar cursores usados con un orden distinto al que los genero.
+ *
+ * En los listados que abarcan varias tiendas (busqueda de cuadros) el id del cuadro no es unico, por lo que
+ * el keyset incluye tambien el id de la tienda, que deshace los empates antes que el id del cuadro.
+ */
+public final class Keyset {
+
+    private static final String SEPARATOR = "|";
+
+    private final String sort;
+    private final String value;
+    private final Long id;
+    private final Long idShop;
+
+    private Keyset(String sort, String value, Long id, Long idShop) {
+        this.sort = sort;
+        this.value = value;
+        this.id = id;
+        this.idShop = idShop;
+    }
+
+    public static Keyset of(String sort, String value, Long id) {
+        return new Keyset(sort, value, id, null);
+    }
+
+    public static Keyset of(PictureSort sort, Comparable<?> value, Long id) {
+        return new Keyset(sort.name(), sort.format(value), id, null);
+    }
+
+    /**
+     * Keyset de un listado de cuadros de varias tiendas, ordenado por el atributo de orden, el id de la tienda
+     * y el id del cuadro
+     */
+    public static Keyset of(String sort, PictureSort attribute, Comparable<?> value, Long idShop, Long id) {
+        return new Keyset(sort, attribute.format(value), id, idShop);
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return id de la tienda, o null si el keyset pertenece a un listado de una sola tienda
+     */
+    public Long getIdShop() {
+        return idShop;
+    }
+
+    /**
+     * Codifica el keyset como cursor opaco para incluirlo en los enlaces next/prev
+     *
+     * @return cursor en Base64 URL safe, sin relleno
+     */
+    public String encode() {
+        String raw = sort + SEPARATOR + value + SEPARATOR + id;
+        if (idShop != null) {
+            raw += SEPARATOR + idShop;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido en una peticion, comprobando que fue generado para el orden indicado
+     *
+     * @param cursor, cursor opaco recibido del cliente
+     * @param expectedSort, nombre del orden de la peticion en curso
+     * @return keyset decodificado, o IllegalArgumentException si el cursor no es valido
+     */
+    public static Keyset decode(String cursor, String expectedSort) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor " + cursor, e);
+        }
+
+        String[] parts = raw.split("\\|", -1);
+        if (parts.length < 3 || parts.length > 4 || !parts[0].equals(expectedSort)) {
+            throw new IllegalArgumentException("Cursor " + cursor + " does not belong to sort " + expectedSort);
+        }
+        try {
+            return new Keyset(parts[0], parts[1], Long.valueOf(parts[2]),
+                    parts.length == 4 ? Long.valueOf(parts[3]) : null);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package whiteCollar.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Clase de la capa Repository que representa una pagina de un listado paginado por cursor.
+ *
+ * A diferencia de Page, no conoce el numero total de elementos (evita la consulta COUNT);
+ * solo indica si existen elementos antes y despues de la pagina, para construir los enlaces prev y next.
+ */
+public final class KeysetSlice<T> {
+
+    private final List<T> content;
+    private final boolean hasPrevious;
+    private final boolean hasNext;
+
+    public KeysetSlice(List<T> content, boolean hasPrevious, boolean hasNext) {
+        this.content = content;
+        this.hasPrevious = hasPrevious;
+        this.hasNext = hasNext;
+    }
+
+    /**
+     * Construye la pagina a partir de las filas leidas avanzando (orden ascendente), pidiendo a la
+     * base de datos un elemento mas del tamaño de pagina para saber si existe una pagina siguiente
+     *
+     * @param rows, filas leidas, como maximo size + 1
+     * @param size, tamaño de pagina
+     * @param hasPrevious, indica si la pagina se pidio a partir de un cursor
+     * @return pagina con como maximo size elementos
+     */
+    public static <T> KeysetSlice<T> forward(List<T> rows, int size, boolean hasPrevious) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? new ArrayList<>(rows.subList(0, size)) : rows;
+        return new KeysetSlice<>(content, hasPrevious, hasNext);
+    }
+
+    /**
+     * Construye la pagina a partir de las filas leidas retrocediendo (orden descendente), invirtiendo
+     * su orden para devolverlas en el mismo orden que una pagina leida avanzando
+     *
+     * @param rows, filas leidas en orden descendente, como maximo size + 1
+     * @param size, tamaño de pagina
+     * @return pagina con como maximo size elementos
+     */
+    public static <T> KeysetSlice<T> backward(List<T> rows, int size) {
+        boolean hasPrevious = rows.size() > size;
+        List<T> content = new ArrayList<>(hasPrevious ? rows.subList(0, size) : rows);
+        Collections.reverse(content);
+        return new KeysetSlice<>(content, hasPrevious, true);
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public boolean isEmpty() {
+        return content.isEmpty();
+    }
+
+    public boolean hasPrevious() {
+        return hasPrevious;
+    }
+
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    public T getFirst() {
+        return content.get(0);
+    }
+
+    public T getLast() {
+        return content.get(content.size() - 1);
+    }
+}
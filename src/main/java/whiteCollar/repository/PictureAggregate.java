@@ -0,0 +1,58 @@
+package whiteCollar.repository;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Fila de resultado de las consultas de agregados de cuadros por tienda (ver IPictureRepository.aggregateByShop):
+ * numero de cuadros, suma, minimo y maximo del precio, y fechas de entrada minima y maxima.
+ */
+public class PictureAggregate {
+
+    private final Long idShop;
+    private final long pictures;
+    private final BigDecimal totalPrice;
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+    private final Date oldestEntryDate;
+    private final Date newestEntryDate;
+
+    public PictureAggregate(Long idShop, Long pictures, BigDecimal totalPrice, BigDecimal minPrice,
+                            BigDecimal maxPrice, Date oldestEntryDate, Date newestEntryDate) {
+        this.idShop = idShop;
+        this.pictures = pictures;
+        this.totalPrice = totalPrice;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.oldestEntryDate = oldestEntryDate;
+        this.newestEntryDate = newestEntryDate;
+    }
+
+    public Long getIdShop() {
+        return idShop;
+    }
+
+    public long getPictures() {
+        return pictures;
+    }
+
+    public BigDecimal getTotalPrice() {
+        return totalPrice;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public Date getOldestEntryDate() {
+        return oldestEntryDate;
+    }
+
+    public Date getNewestEntryDate() {
+        return newestEntryDate;
+    }
+}
@@ -0,0 +1,109 @@
+package whiteCollar.repository;
+
+import whiteCollar.dto.PictureDto;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Enumerado de la capa Repository con los campos de un cuadro que se pueden pedir en la representacion
+ * reducida del listado (parametro fields, por ejemplo ?fields=name,price).
+ *
+ * Cada campo indica el atributo de la entidad Picture del que se lee, de forma que la consulta solo selecciona
+ * las columnas pedidas (ver IPictureRepositoryCustom.findDtoSlice), y sabe guardar el valor leido en un PictureDto.
+ */
+public enum PictureField {
+
+    ID_PICTURE("idPicture", "id") {
+        @Override
+        public void set(PictureDto picture, Object value) {
+            picture.setIdPicture((Long) value);
+        }
+    },
+
+    NAME("name", "name") {
+        @Override
+        public void set(PictureDto picture, Object value) {
+            picture.setName((String) value);
+        }
+    },
+
+    AUTHOR("author", "author") {
+        @Override
+        public void set(PictureDto picture, Object value) {
+            picture.setAuthor((String) value);
+        }
+    },
+
+    PRICE("price", "price") {
+        @Override
+        public void set(PictureDto picture, Object value) {
+            picture.setPrice((BigDecimal) value);
+        }
+    },
+
+    ENTRY_DATE("entryDate", "entryDate") {
+        @Override
+        public void set(PictureDto picture, Object value) {
+            picture.setEntryDate((Date) value);
+        }
+    };
+
+    private final String param;
+    private final String attribute;
+
+    PictureField(String param, String attribute) {
+        this.param = param;
+        this.attribute = attribute;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public abstract void set(PictureDto picture, Object value);
+
+    /**
+     * Campo por el que se ordena el listado, que hay que leer siempre para construir los cursores de paginacion
+     */
+    public static PictureField of(PictureSort sort) {
+        for (PictureField field : values()) {
+            if (field.attribute.equals(sort.getAttribute())) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("No field for sort " + sort);
+    }
+
+    /**
+     * Convierte el parametro de la peticion, una lista de campos separados por comas (name, author, price, entryDate)
+     *
+     * @param param, lista de campos; si es nula o vacia se devuelven todos
+     * @return los campos correspondientes, o IllegalArgumentException si alguno no existe
+     */
+    public static Set<PictureField> fromParam(String param) {
+        if (param == null || param.isBlank()) {
+            return EnumSet.allOf(PictureField.class);
+        }
+        Set<PictureField> fields = EnumSet.noneOf(PictureField.class);
+        for (String name : param.split(",")) {
+            fields.add(fromName(name.strip()));
+        }
+        return fields;
+    }
+
+    private static PictureField fromName(String name) {
+        for (PictureField field : values()) {
+            if (field.param.equalsIgnoreCase(name)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field " + name);
+    }
+}
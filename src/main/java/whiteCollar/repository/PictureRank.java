@@ -0,0 +1,62 @@
+package whiteCollar.repository;
+
+import whiteCollar.entity.Picture;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Date;
+
+/**
+ * Fila de resultado de las consultas de clasificacion de cuadros de todas las tiendas, utilizada para mantener
+ * en memoria las clasificaciones por precio y por fecha de entrada (ver IPictureRepository.streamPictureRanks
+ * y findRanks). El precio se guarda con dos decimales, como se almacena en la tabla picture
+ */
+public class PictureRank {
+
+    private static final int PRICE_SCALE = 2;
+
+    private final Long idShop;
+    private final Long idPicture;
+    private final String name;
+    private final String author;
+    private final BigDecimal price;
+    private final Date entryDate;
+
+    public PictureRank(Long idShop, Long idPicture, String name, String author, BigDecimal price, Date entryDate) {
+        this.idShop = idShop;
+        this.idPicture = idPicture;
+        this.name = name;
+        this.author = author;
+        this.price = price.setScale(PRICE_SCALE, RoundingMode.HALF_UP);
+        this.entryDate = entryDate;
+    }
+
+    public static PictureRank of(Picture picture) {
+        return new PictureRank(picture.getIdShop(), picture.getId(), picture.getName(), picture.getAuthor(),
+                picture.getPrice(), picture.getEntryDate());
+    }
+
+    public Long getIdShop() {
+        return idShop;
+    }
+
+    public Long getIdPicture() {
+        return idPicture;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public Date getEntryDate() {
+        return entryDate;
+    }
+}
@@ -0,0 +1,74 @@
+package whiteCollar.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import whiteCollar.entity.Picture;
+
+import java.math.BigDecimal;
+
+/**
+ * Clase de la capa Repository con los criterios de la busqueda de cuadros en todas las tiendas.
+ *
+ * Todos los criterios son opcionales; los indicados se combinan con AND en una Specification
+ * (ver PictureSpecifications), de forma que la consulta solo incluye las condiciones pedidas y la base
+ * de datos puede elegir el indice mas selectivo: author, name, price o, si se indica la tienda, los indices
+ * por tienda de la paginacion.
+ */
+public final class PictureSearch {
+
+    private final String author;
+    private final String namePrefix;
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+    private final Long idShop;
+
+    public PictureSearch(String author, String namePrefix, BigDecimal minPrice, BigDecimal maxPrice, Long idShop) {
+        this.author = author;
+        this.namePrefix = namePrefix;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.idShop = idShop;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public Long getIdShop() {
+        return idShop;
+    }
+
+    /**
+     * @return Specification con los criterios indicados; sin criterios, devuelve todos los cuadros
+     */
+    public Specification<Picture> toSpecification() {
+        Specification<Picture> specification = Specification.where(null);
+        if (idShop != null) {
+            specification = specification.and(PictureSpecifications.ofShop(idShop));
+        }
+        if (author != null && !author.isEmpty()) {
+            specification = specification.and(PictureSpecifications.hasAuthor(author));
+        }
+        if (namePrefix != null && !namePrefix.isEmpty()) {
+            specification = specification.and(PictureSpecifications.nameStartsWith(namePrefix));
+        }
+        if (minPrice != null) {
+            specification = specification.and(PictureSpecifications.priceFrom(minPrice));
+        }
+        if (maxPrice != null) {
+            specification = specification.and(PictureSpecifications.priceTo(maxPrice));
+        }
+        return specification;
+    }
+}
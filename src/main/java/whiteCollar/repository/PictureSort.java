@@ -0,0 +1,96 @@
+package whiteCollar.repository;
+
+import whiteCollar.dto.PictureDto;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Enumerado de la capa Repository con los ordenes admitidos en el listado paginado de cuadros.
+ *
+ * Cada orden indica el atributo de la entidad Picture por el que se ordena, y sabe extraer su valor
+ * de un cuadro del listado (PictureDto) y convertirlo a texto (y de vuelta) para construir los cursores de paginacion (ver Keyset).
+ * El id del cuadro se usa siempre como segundo criterio de orden, para que el orden sea total.
+ */
+public enum PictureSort {
+
+    ID("id") {
+        @Override
+        public Comparable<?> valueOf(PictureDto picture) {
+            return picture.getIdPicture();
+        }
+
+        @Override
+        public Comparable<?> parse(String value) {
+            return Long.valueOf(value);
+        }
+    },
+
+    PRICE("price") {
+        @Override
+        public Comparable<?> valueOf(PictureDto picture) {
+            return picture.getPrice();
+        }
+
+        @Override
+        public Comparable<?> parse(String value) {
+            return new BigDecimal(value);
+        }
+    },
+
+    ENTRY_DATE("entryDate") {
+        @Override
+        public Comparable<?> valueOf(PictureDto picture) {
+            return picture.getEntryDate();
+        }
+
+        @Override
+        public Comparable<?> parse(String value) {
+            return Timestamp.from(Instant.parse(value));
+        }
+
+        @Override
+        public String format(Comparable<?> value) {
+            // Se conservan los nanosegundos de java.sql.Timestamp, para que la comparacion por igualdad
+            // del cursor con el valor almacenado sea exacta
+            return value instanceof Timestamp
+                    ? ((Timestamp) value).toInstant().toString()
+                    : ((Date) value).toInstant().toString();
+        }
+    };
+
+    private final String attribute;
+
+    PictureSort(String attribute) {
+        this.attribute = attribute;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public abstract Comparable<?> valueOf(PictureDto picture);
+
+    public abstract Comparable<?> parse(String value);
+
+    public String format(Comparable<?> value) {
+        return value.toString();
+    }
+
+    /**
+     * Busca el orden cuyo atributo coincide con el parametro de la peticion (id, price, entryDate)
+     *
+     * @param param, nombre del atributo por el que ordenar
+     * @return el orden correspondiente, o IllegalArgumentException si no existe
+     */
+    public static PictureSort fromParam(String param) {
+        for (PictureSort sort : values()) {
+            if (sort.attribute.equalsIgnoreCase(param)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Unknown sort " + param);
+    }
+}
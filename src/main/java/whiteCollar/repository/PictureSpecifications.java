@@ -0,0 +1,132 @@
+package whiteCollar.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import whiteCollar.entity.Picture;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.math.BigDecimal;
+
+/**
+ * Clase de la capa Repository con las Specification (criterios de consulta de JPA Criteria API)
+ * utilizadas para construir dinamicamente las consultas sobre la entidad Picture.
+ *
+ * Los criterios after y before implementan la paginacion por cursor: devuelven los cuadros situados
+ * despues (o antes) de un keyset segun el orden indicado, comparando primero el atributo de orden
+ * y despues el id para deshacer los empates.
+ *
+ * Los criterios de busqueda (hasAuthor, nameStartsWith, priceFrom, priceTo) se combinan en PictureSearch;
+ * la busqueda abarca todas las tiendas, por lo que se pagina con searchAfter y searchBefore, que deshacen
+ * los empates de precio con el id de la tienda y despues con el id del cuadro.
+ */
+public final class PictureSpecifications {
+
+    private PictureSpecifications() {
+    }
+
+    public static Specification<Picture> ofShop(Long idShop) {
+        return (root, query, cb) -> cb.equal(root.get("idShop"), idShop);
+    }
+
+    public static Specification<Picture> hasAuthor(String author) {
+        return (root, query, cb) -> cb.equal(root.get("author"), author);
+    }
+
+    /**
+     * Cuadros cuyo nombre empieza por el prefijo indicado. Se traduce a LIKE 'prefijo%', que puede
+     * resolverse con un rango del indice sobre name; los caracteres comodin del prefijo se escapan
+     */
+    public static Specification<Picture> nameStartsWith(String prefix) {
+        String pattern = prefix.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(root.get("name"), pattern, '\\');
+    }
+
+    public static Specification<Picture> priceFrom(BigDecimal minPrice) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Picture> priceTo(BigDecimal maxPrice) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    public static Specification<Picture> after(PictureSort sort, Keyset keyset) {
+        return (root, query, cb) -> keysetPredicate(root, cb, sort, keyset, true);
+    }
+
+    public static Specification<Picture> before(PictureSort sort, Keyset keyset) {
+        return (root, query, cb) -> keysetPredicate(root, cb, sort, keyset, false);
+    }
+
+    /**
+     * Orden de la consulta para el orden indicado: ascendente al avanzar (after) y descendente al
+     * retroceder (before); en este ultimo caso, el llamador debe invertir la lista resultante
+     */
+    public static Sort orderBy(PictureSort sort, boolean forward) {
+        Sort.Direction direction = forward ? Sort.Direction.ASC : Sort.Direction.DESC;
+        if (sort == PictureSort.ID) {
+            return Sort.by(direction, "id");
+        }
+        return Sort.by(direction, sort.getAttribute()).and(Sort.by(direction, "id"));
+    }
+
+    /**
+     * Cuadros de cualquier tienda situados despues del keyset en el orden de la busqueda: precio,
+     * id de la tienda e id del cuadro
+     */
+    public static Specification<Picture> searchAfter(Keyset keyset) {
+        return (root, query, cb) -> searchKeysetPredicate(root, cb, keyset, true);
+    }
+
+    public static Specification<Picture> searchBefore(Keyset keyset) {
+        return (root, query, cb) -> searchKeysetPredicate(root, cb, keyset, false);
+    }
+
+    /**
+     * Orden de la busqueda: precio, id de la tienda e id del cuadro, ascendente al avanzar y descendente
+     * al retroceder
+     */
+    public static Sort searchOrder(boolean forward) {
+        Sort.Direction direction = forward ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return Sort.by(direction, "price", "idShop", "id");
+    }
+
+    private static Predicate searchKeysetPredicate(Root<Picture> root, CriteriaBuilder cb, Keyset keyset, boolean forward) {
+        Path<BigDecimal> price = root.get("price");
+        Path<Long> idShop = root.get("idShop");
+        Path<Long> id = root.get("id");
+        BigDecimal lastPrice = (BigDecimal) PictureSort.PRICE.parse(keyset.getValue());
+        Long lastShop = keyset.getIdShop();
+        Long lastId = keyset.getId();
+
+        Predicate afterPrice = forward ? cb.greaterThan(price, lastPrice) : cb.lessThan(price, lastPrice);
+        Predicate afterShop = forward ? cb.greaterThan(idShop, lastShop) : cb.lessThan(idShop, lastShop);
+        Predicate afterId = forward ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId);
+
+        return cb.or(afterPrice,
+                cb.and(cb.equal(price, lastPrice),
+                        cb.or(afterShop, cb.and(cb.equal(idShop, lastShop), afterId))));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate keysetPredicate(Root<Picture> root, CriteriaBuilder cb,
+                                             PictureSort sort, Keyset keyset, boolean forward) {
+        Path<Long> id = root.get("id");
+        Long lastId = keyset.getId();
+
+        Predicate afterId = forward ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId);
+        if (sort == PictureSort.ID) {
+            return afterId;
+        }
+
+        Path attribute = root.get(sort.getAttribute());
+        Comparable value = sort.parse(keyset.getValue());
+        Predicate afterValue = forward ? cb.greaterThan(attribute, value) : cb.lessThan(attribute, value);
+
+        return cb.or(afterValue, cb.and(cb.equal(attribute, value), afterId));
+    }
+}
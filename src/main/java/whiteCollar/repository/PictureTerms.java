@@ -0,0 +1,36 @@
+package whiteCollar.repository;
+
+/**
+ * Fila de resultado de la consulta de nombres y autores de todos los cuadros, utilizada para construir
+ * el indice de sugerencias de busqueda (ver IPictureRepository.streamPictureTerms)
+ */
+public class PictureTerms {
+
+    private final Long idShop;
+    private final Long idPicture;
+    private final String name;
+    private final String author;
+
+    public PictureTerms(Long idShop, Long idPicture, String name, String author) {
+        this.idShop = idShop;
+        this.idPicture = idPicture;
+        this.name = name;
+        this.author = author;
+    }
+
+    public Long getIdShop() {
+        return idShop;
+    }
+
+    public Long getIdPicture() {
+        return idPicture;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+}
@@ -0,0 +1,128 @@
+package whiteCollar.repository;
+
+import io.r2dbc.spi.Row;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import whiteCollar.configuration.ReactiveConfiguration;
+import whiteCollar.dto.PictureDto;
+import whiteCollar.entity.Picture;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static whiteCollar.repository.ReactiveShopRepository.longValue;
+
+/**
+ * Clase de la capa Repository de la variante reactiva (perfil reactive), accede a las tablas picture
+ * y shop_picture_sequence con R2DBC.
+ *
+ * Los cuadros tienen una clave primaria compuesta (id_shop, id_picture), que los repositorios de Spring Data R2DBC
+ * no admiten, por lo que las sentencias se escriben en SQL sobre DatabaseClient. El listado devuelve los cuadros
+ * como objetos PictureDto a medida que la base de datos los entrega, sin construir la lista completa.
+ *
+ * Anotaciones:
+ * @Repository
+ * Indica que la clase es un repositorio, y traduce las excepciones de R2DBC a DataAccessException
+ *
+ * @Profile
+ * Solo se crea con el perfil reactive (ver ReactiveConfiguration)
+ */
+@Repository
+@Profile(ReactiveConfiguration.PROFILE)
+public class ReactivePictureRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public ReactivePictureRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Cuadros de una tienda, ordenados por id
+     *
+     * @param idShop, id de la tienda
+     * @param shopCapacity, capacidad de la tienda, que se copia en cada PictureDto
+     */
+    public Flux<PictureDto> findByShop(Long idShop, Long shopCapacity) {
+        return databaseClient.sql("SELECT id_picture, id_shop, name, author, price, entry_date FROM picture " +
+                        "WHERE id_shop = :idShop ORDER BY id_picture")
+                .bind("idShop", idShop)
+                .map(row -> toDto(row, shopCapacity))
+                .all();
+    }
+
+    /**
+     * Siguiente id de cuadro de la tienda. Avanza en una unidad la misma fila contador que PictureIdAllocator,
+     * de forma que ambas variantes pueden insertar en la misma tienda sin repetir ids. Si la tienda aun no tiene
+     * fila contador, la crea a partir del mayor id de cuadro existente. Debe ejecutarse en una transaccion
+     */
+    public Mono<Long> nextId(Long idShop) {
+        return databaseClient.sql("UPDATE shop_picture_sequence SET next_val = next_val + 1 WHERE id_shop = :idShop")
+                .bind("idShop", idShop)
+                .fetch().rowsUpdated()
+                .flatMap(updated -> updated == 1 ? findNextVal(idShop) : createSequence(idShop))
+                .map(limit -> limit - 1);
+    }
+
+    /**
+     * Inserta el cuadro, que ya tiene asignados su id y el de su tienda
+     */
+    public Mono<PictureDto> insert(Picture picture, Long shopCapacity) {
+        LocalDateTime entryDate = LocalDateTime.ofInstant(picture.getEntryDate().toInstant(), ZoneId.systemDefault());
+        return databaseClient.sql("INSERT INTO picture (id_picture, id_shop, name, author, price, entry_date) " +
+                        "VALUES (:idPicture, :idShop, :name, :author, :price, :entryDate)")
+                .bind("idPicture", picture.getId())
+                .bind("idShop", picture.getIdShop())
+                .bind("name", picture.getName())
+                .bind("author", picture.getAuthor())
+                .bind("price", picture.getPrice())
+                .bind("entryDate", entryDate)
+                .then()
+                .thenReturn(new PictureDto(picture.getId(), picture.getIdShop(), shopCapacity, picture.getName(),
+                        picture.getAuthor(), picture.getPrice(), picture.getEntryDate()));
+    }
+
+    /**
+     * Elimina todos los cuadros de una tienda con una unica sentencia DELETE
+     *
+     * @return numero de cuadros eliminados
+     */
+    public Mono<Integer> deleteByShop(Long idShop) {
+        return databaseClient.sql("DELETE FROM picture WHERE id_shop = :idShop")
+                .bind("idShop", idShop)
+                .fetch().rowsUpdated();
+    }
+
+    private Mono<Long> findNextVal(Long idShop) {
+        return databaseClient.sql("SELECT next_val FROM shop_picture_sequence WHERE id_shop = :idShop")
+                .bind("idShop", idShop)
+                .map(row -> longValue(row, "next_val"))
+                .one();
+    }
+
+    private Mono<Long> createSequence(Long idShop) {
+        return databaseClient.sql("SELECT COALESCE(MAX(id_picture), 0) + 2 AS next_val FROM picture WHERE id_shop = :idShop")
+                .bind("idShop", idShop)
+                .map(row -> longValue(row, "next_val"))
+                .one()
+                .flatMap(limit -> databaseClient.sql("INSERT INTO shop_picture_sequence (id_shop, next_val) " +
+                                "VALUES (:idShop, :nextVal)")
+                        .bind("idShop", idShop)
+                        .bind("nextVal", limit)
+                        .then()
+                        .thenReturn(limit));
+    }
+
+    private static PictureDto toDto(Row row, Long shopCapacity) {
+        LocalDateTime entryDate = row.get("entry_date", LocalDateTime.class);
+        return new PictureDto(longValue(row, "id_picture"), longValue(row, "id_shop"), shopCapacity,
+                row.get("name", String.class), row.get("author", String.class),
+                row.get("price", BigDecimal.class),
+                entryDate != null ? Date.from(entryDate.atZone(ZoneId.systemDefault()).toInstant()) : null);
+    }
+}
@@ -0,0 +1,111 @@
+package whiteCollar.repository;
+
+import io.r2dbc.spi.Row;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import whiteCollar.configuration.ReactiveConfiguration;
+import whiteCollar.dto.ShopDto;
+import whiteCollar.entity.Shop;
+
+/**
+ * Clase de la capa Repository de la variante reactiva (perfil reactive), accede a la tabla shop con R2DBC.
+ *
+ * Repite las sentencias de IShopRepository en SQL, sobre DatabaseClient: la reserva de capacidad es la misma
+ * sentencia UPDATE condicional, y el alta de una tienda avanza su version y la del listado de tiendas, que
+ * se usan para calcular los ETag en la variante servlet.
+ *
+ * Anotaciones:
+ * @Repository
+ * Indica que la clase es un repositorio, y traduce las excepciones de R2DBC a DataAccessException
+ *
+ * @Profile
+ * Solo se crea con el perfil reactive (ver ReactiveConfiguration)
+ */
+@Repository
+@Profile(ReactiveConfiguration.PROFILE)
+public class ReactiveShopRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveShopRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Todas las tiendas, ordenadas por id, a medida que se leen
+     */
+    public Flux<ShopDto> findAll() {
+        return databaseClient.sql("SELECT id_shop, name, capacity FROM shop ORDER BY id_shop")
+                .map(ReactiveShopRepository::toDto)
+                .all();
+    }
+
+    /**
+     * Capacidad de la tienda, o vacio si no existe
+     */
+    public Mono<Long> findCapacityById(Long idShop) {
+        return databaseClient.sql("SELECT capacity FROM shop WHERE id_shop = :idShop")
+                .bind("idShop", idShop)
+                .map(row -> longValue(row, "capacity"))
+                .one();
+    }
+
+    /**
+     * Inserta la tienda y avanza su version y la del listado de tiendas. Debe ejecutarse en una transaccion
+     *
+     * @return la tienda guardada, con el id asignado por la base de datos
+     */
+    public Mono<ShopDto> save(Shop shop) {
+        return databaseClient.sql("INSERT INTO shop (name, capacity) VALUES (:name, :capacity)")
+                .bind("name", shop.getName())
+                .bind("capacity", shop.getCapacity())
+                .filter(statement -> statement.returnGeneratedValues("id_shop"))
+                .map(row -> longValue(row, "id_shop"))
+                .one()
+                .flatMap(id -> databaseClient.sql("UPDATE shop SET version = version + 1 WHERE id_shop = :idShop")
+                        .bind("idShop", id)
+                        .then()
+                        .then(databaseClient.sql("UPDATE shop_list_version SET version = version + 1 WHERE id = 1").then())
+                        .thenReturn(new ShopDto(id, shop.getName(), shop.getCapacity(), null)));
+    }
+
+    /**
+     * Reserva amount plazas en la tienda con una unica sentencia UPDATE condicional
+     *
+     * @return true si la tienda tenia capacidad suficiente
+     */
+    public Mono<Boolean> reserveCapacity(Long idShop, long amount) {
+        return databaseClient.sql("UPDATE shop SET occupancy = occupancy + :amount, version = version + 1 " +
+                        "WHERE id_shop = :idShop AND occupancy + :amount <= capacity")
+                .bind("amount", amount)
+                .bind("idShop", idShop)
+                .fetch().rowsUpdated()
+                .map(updated -> updated == 1);
+    }
+
+    /**
+     * Libera amount plazas de la tienda
+     */
+    public Mono<Void> releaseCapacity(Long idShop, long amount) {
+        return databaseClient.sql("UPDATE shop SET occupancy = occupancy - :amount, version = version + 1 " +
+                        "WHERE id_shop = :idShop")
+                .bind("amount", amount)
+                .bind("idShop", idShop)
+                .then();
+    }
+
+    private static ShopDto toDto(Row row) {
+        return new ShopDto(longValue(row, "id_shop"), row.get("name", String.class), longValue(row, "capacity"), null);
+    }
+
+    /**
+     * Valor numerico de una columna; cada driver devuelve las columnas int(11) con su propio tipo
+     */
+    static Long longValue(Row row, String column) {
+        Number value = (Number) row.get(column);
+        return value != null ? value.longValue() : null;
+    }
+}
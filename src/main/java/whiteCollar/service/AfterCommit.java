@@ -0,0 +1,33 @@
+package whiteCollar.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Aplaza las actualizaciones de las estructuras en memoria (estadisticas de inventario, sugerencias de busqueda
+ * y clasificaciones de cuadros) hasta que se confirme la transaccion que las provoca, para que no reflejen
+ * escrituras que se deshacen.
+ */
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /**
+     * Ejecuta la accion cuando se confirme la transaccion en curso, o inmediatamente si no hay ninguna
+     *
+     * @param action, actualizacion que se aplica tras la confirmacion
+     */
+    static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,24 @@
+package whiteCollar.service;
+
+import whiteCollar.dto.PictureRankDto;
+import whiteCollar.entity.Picture;
+
+import java.util.List;
+
+/**
+ * Interface de la capa Service
+ *
+ */
+public interface IPictureLeaderboardService {
+
+    List<PictureRankDto> top(PictureRanking ranking, String author, int n); //Top n Pictures from every Shop, or from one author, kept in memory
+
+    int size(); //Maximum number of Pictures kept in each leaderboard
+
+    void picturesSaved(List<Picture> pictures); //Add new Pictures to the leaderboards, once the current transaction commits
+
+    void picturesFired(List<Picture> pictures); //Remove deleted Pictures from the leaderboards, once the current transaction commits
+
+    void shopFired(Long idShop); //Remove every Picture of a Shop from the leaderboards, once the current transaction commits
+
+}
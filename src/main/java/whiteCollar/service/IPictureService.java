@@ -1,9 +1,18 @@
 package whiteCollar.service;
 
+import whiteCollar.dto.PictureDto;
 import whiteCollar.entity.Picture;
 import whiteCollar.entity.Shop;
+import whiteCollar.repository.Keyset;
+import whiteCollar.repository.KeysetSlice;
+import whiteCollar.repository.PictureField;
+import whiteCollar.repository.PictureSearch;
+import whiteCollar.repository.PictureSort;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Interface de la capa Service
@@ -13,9 +22,21 @@ public interface IPictureService {
 
     public List<Picture> listPicturesByShop(Shop shop);  //List All Pictures from a Shop
 
-    Picture savePicture(Picture picture); //Save one picture in one Shop CREATE
+    KeysetSlice<PictureDto> listPicturesByShop(Long idShop, PictureSort sort, Keyset after, Keyset before, int size); //List one page of Pictures from a Shop as PictureDto
 
-    void firePictures(List<Picture> pictures); //Delete All Pictures from a Shop
+    KeysetSlice<PictureDto> listPicturesByShop(Long idShop, PictureSort sort, Keyset after, Keyset before, int size, Set<PictureField> fields); //List one page of Pictures from a Shop, reading only the given fields
+
+    KeysetSlice<PictureDto> searchPictures(PictureSearch search, Keyset after, Keyset before, int size); //Search one page of Pictures from every Shop as PictureDto, ordered by price
+
+    long exportPicturesByShop(Long idShop, Consumer<Picture> consumer); //Visit every Picture from a Shop, one at a time
+
+    Optional<Picture> savePicture(Picture picture); //Save one picture in one Shop CREATE, empty if the Shop is full
+
+    Optional<List<Picture>> savePictures(Long idShop, List<Picture> pictures); //Save a batch of pictures in one Shop CREATE, empty if the Shop has not room for all of them
+
+    void firePictures(List<Picture> pictures); //Delete a list of Pictures
+
+    long firePicturesByShop(Long idShop); //Delete All Pictures from a Shop, without loading them
 
 
 }
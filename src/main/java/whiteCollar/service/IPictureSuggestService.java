@@ -0,0 +1,22 @@
+package whiteCollar.service;
+
+import whiteCollar.dto.PictureSuggestionDto;
+import whiteCollar.entity.Picture;
+
+import java.util.List;
+
+/**
+ * Interface de la capa Service
+ *
+ */
+public interface IPictureSuggestService {
+
+    List<PictureSuggestionDto> suggest(String query, int limit); //Authors and names starting with the query, kept in memory
+
+    void picturesSaved(List<Picture> pictures); //Add new Pictures to the index, once the current transaction commits
+
+    void picturesFired(List<Picture> pictures); //Remove deleted Pictures from the index, once the current transaction commits
+
+    void shopFired(Long idShop); //Remove every Picture of a Shop from the index, once the current transaction commits
+
+}
@@ -1,6 +1,9 @@
 package whiteCollar.service;
 
+import whiteCollar.dto.ShopDto;
 import whiteCollar.entity.Shop;
+import whiteCollar.repository.Keyset;
+import whiteCollar.repository.KeysetSlice;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,10 +16,20 @@ public interface IShopService {
 
     List<Shop> listShops(); //List All Shops
 
+    KeysetSlice<ShopDto> listShops(Keyset after, Keyset before, int size); //List one page of Shops as ShopDto, ordered by id
+
     Shop saveShop(Shop shop); //Save a Shop CREATE
 
-    Optional<Shop> findShopById(Long id); //Find a Shop by Id READ
+    Optional<ShopDto> findShopById(Long id); //Find a Shop by Id READ, as an immutable ShopDto
 
     Long currentShopCapacity(Long idShop); //Get the current capacity from a Shop
 
+    boolean reserveCapacity(Long idShop, Long amount); //Reserve room for new Pictures in a Shop, if there is enough capacity
+
+    void releaseCapacity(Long idShop, Long amount); //Release room after deleting Pictures from a Shop
+
+    Optional<Long> findShopVersion(Long idShop); //Get the version of a Shop and its Pictures, without loading it
+
+    Long shopListVersion(); //Get the version of the list of Shops
+
 }
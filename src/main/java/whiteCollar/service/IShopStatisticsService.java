@@ -0,0 +1,24 @@
+package whiteCollar.service;
+
+import whiteCollar.dto.ShopStatisticsDto;
+import whiteCollar.entity.Picture;
+
+import java.util.List;
+
+/**
+ * Interface de la capa Service
+ *
+ */
+public interface IShopStatisticsService {
+
+    ShopStatisticsDto shopStatistics(Long idShop); //Get the inventory statistics of a Shop, kept in memory
+
+    void picturesSaved(List<Picture> pictures); //Add new Pictures to the statistics, once the current transaction commits
+
+    void picturesFired(List<Picture> pictures); //Remove deleted Pictures from the statistics, once the current transaction commits
+
+    void reloadShop(Long idShop); //Recompute the statistics of a Shop from the database, once the current transaction commits
+
+    int reconcile(); //Check the statistics of every Shop against a full SQL aggregate, fixing and counting the ones that differ
+
+}
@@ -0,0 +1,126 @@
+package whiteCollar.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import whiteCollar.entity.ShopPictureSequence;
+import whiteCollar.repository.IPictureRepository;
+import whiteCollar.repository.IShopPictureSequenceRepository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Clase de la capa Service, asigna los ids de los cuadros de cada tienda.
+ *
+ * Sigue la estrategia hi/lo: por cada tienda se reserva en base de datos un bloque de ids consecutivos
+ * avanzando su fila contador de la tabla shop_picture_sequence, y despues se reparten en memoria.
+ * Solo se vuelve a acceder a la base de datos cuando el bloque en curso se agota, por lo que la mayoria
+ * de inserciones no necesitan ninguna consulta adicional.
+ *
+ * Cada bloque se reserva en su propia transaccion (REQUIRES_NEW), de forma que el bloqueo sobre la fila
+ * contador dura solo lo que tarda el UPDATE, y varias instancias de la aplicacion nunca reciben ids
+ * repetidos. Los ids de un bloque que no lleguen a usarse (por ejemplo, al reiniciar la aplicacion)
+ * se pierden, por lo que puede haber huecos en la numeracion.
+ *
+ * Anotaciones:
+ * @Service
+ * Indica que la clase es un "Servicio" y permite que se detecte automaticamente a traves del escaneo
+ * del classpath
+ *
+ * @Value
+ * Inyecta el tamaño de bloque desde application.properties (whitecollar.picture-id.block-size)
+ */
+@Service
+public class PictureIdAllocator {
+
+    private final IShopPictureSequenceRepository iShopPictureSequenceRepository;
+    private final IPictureRepository iPictureRepository;
+    private final TransactionTemplate requiresNew;
+    private final long blockSize;
+
+    private final Map<Long, Block> blocks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PictureIdAllocator(IShopPictureSequenceRepository iShopPictureSequenceRepository,
+                              IPictureRepository iPictureRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${whitecollar.picture-id.block-size:50}") long blockSize) {
+        this.iShopPictureSequenceRepository = iShopPictureSequenceRepository;
+        this.iPictureRepository = iPictureRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Devuelve el siguiente id libre de cuadro para la tienda indicada
+     *
+     * @param idShop, id de la tienda
+     * @return id de cuadro que ninguna otra insercion va a recibir
+     */
+    public long nextId(Long idShop) {
+        return allocate(idShop, 1)[0];
+    }
+
+    /**
+     * Devuelve count ids libres de cuadro para la tienda indicada. Si el bloque en curso no es suficiente,
+     * reserva uno nuevo del tamaño necesario, de forma que un lote grande solo requiere un acceso a base de datos
+     *
+     * @param idShop, id de la tienda
+     * @param count, numero de ids a asignar
+     * @return array con los ids asignados, en orden creciente
+     */
+    public long[] allocate(Long idShop, int count) {
+        long[] ids = new long[count];
+        Block block = blocks.computeIfAbsent(idShop, key -> new Block());
+
+        synchronized (block) {
+            int i = 0;
+            while (i < count) {
+                if (block.next >= block.limit) {
+                    long size = Math.max(blockSize, count - i);
+                    block.limit = reserveBlock(idShop, size);
+                    block.next = block.limit - size;
+                }
+                ids[i++] = block.next++;
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Avanza la fila contador de la tienda y devuelve el limite superior (exclusivo) del bloque reservado.
+     * Si la tienda aun no tiene fila contador, la crea a partir del mayor id de cuadro existente; si otra
+     * instancia la crea a la vez, se reintenta el avance sobre la fila ya existente.
+     */
+    private long reserveBlock(Long idShop, long size) {
+        try {
+            return requiresNew.execute(status -> advanceOrCreate(idShop, size));
+        } catch (DataIntegrityViolationException e) {
+            return requiresNew.execute(status -> advanceOrCreate(idShop, size));
+        }
+    }
+
+    private long advanceOrCreate(Long idShop, long size) {
+        if (iShopPictureSequenceRepository.advance(idShop, size) == 1) {
+            return iShopPictureSequenceRepository.findNextVal(idShop);
+        }
+        long limit = iPictureRepository.findMaxPictureId(idShop) + 1 + size;
+        iShopPictureSequenceRepository.saveAndFlush(new ShopPictureSequence(idShop, limit));
+        return limit;
+    }
+
+    /**
+     * Bloque de ids en memoria de una tienda: next es el siguiente id a entregar y limit el primero
+     * que ya no pertenece al bloque
+     */
+    private static final class Block {
+        private long next;
+        private long limit;
+    }
+}
@@ -0,0 +1,297 @@
+package whiteCollar.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import whiteCollar.dto.PictureRankDto;
+import whiteCollar.entity.Picture;
+import whiteCollar.repository.IPictureRepository;
+import whiteCollar.repository.PictureRank;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Clase de la capa Service, implementa la interface IPictureLeaderboardService
+ *
+ * Mantiene en memoria, para cada clasificacion (ver PictureRanking), los whitecollar.leaderboard.size primeros
+ * cuadros de todas las tiendas y los primeros de cada autor, de forma que GET /pictures/top no consulta la
+ * base de datos. Las clasificaciones se calculan al arrancar recorriendo la tabla picture, y despues se
+ * actualizan de forma incremental con cada alta o baja de cuadros, una vez confirmada la transaccion.
+ *
+ * Cada clasificacion guarda como maximo size cuadros: al dar de alta un cuadro que entra en ella, sale el
+ * ultimo. Si se da de baja un cuadro de una clasificacion de la que ya han salido cuadros, el hueco solo se
+ * puede rellenar desde la base de datos, y esa clasificacion se vuelve a leer con una consulta de los size
+ * primeros cuadros, que recorre el indice del atributo de la clasificacion, global o precedido del autor
+ * (price, entry_date, (author, price) o (author, entry_date)), en lugar de la tabla.
+ *
+ * Anotaciones:
+ * @Service
+ * Indica que la clase es un "Servicio" y permite que se detecte automaticamente a traves del escaneo
+ * del classpath
+ *
+ * @PostConstruct
+ * Calcula las clasificaciones al crear el servicio, antes de que la aplicacion atienda peticiones
+ */
+@Service
+public class PictureLeaderboardServiceImpl implements IPictureLeaderboardService {
+
+    private static final int RELOAD_ATTEMPTS = 3;
+
+    private final IPictureRepository iPictureRepository;
+    private final TransactionTemplate readOnly;
+    private final int size;
+
+    private final Map<PictureRanking, Leaderboard> global = new EnumMap<>(PictureRanking.class);
+    private final Map<PictureRanking, Map<String, Leaderboard>> byAuthor = new EnumMap<>(PictureRanking.class);
+
+    @Autowired
+    public PictureLeaderboardServiceImpl(IPictureRepository iPictureRepository, PlatformTransactionManager transactionManager,
+                                         @Value("${whitecollar.leaderboard.size:1000}") int size) {
+        this.iPictureRepository = iPictureRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.size = size;
+        for (PictureRanking ranking : PictureRanking.values()) {
+            global.put(ranking, new Leaderboard(ranking, null));
+            byAuthor.put(ranking, new ConcurrentHashMap<>());
+        }
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        Map<PictureRanking, Leaderboard> loaded = new EnumMap<>(PictureRanking.class);
+        Map<PictureRanking, Map<String, Leaderboard>> loadedByAuthor = new EnumMap<>(PictureRanking.class);
+        for (PictureRanking ranking : PictureRanking.values()) {
+            loaded.put(ranking, new Leaderboard(ranking, null));
+            loadedByAuthor.put(ranking, new HashMap<>());
+        }
+
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<PictureRank> pictures = iPictureRepository.streamPictureRanks()) {
+                pictures.forEach(picture -> {
+                    for (PictureRanking ranking : PictureRanking.values()) {
+                        loaded.get(ranking).add(picture);
+                        loadedByAuthor.get(ranking)
+                                .computeIfAbsent(picture.getAuthor(), author -> new Leaderboard(ranking, author))
+                                .add(picture);
+                    }
+                });
+            }
+        });
+
+        for (PictureRanking ranking : PictureRanking.values()) {
+            global.get(ranking).copy(loaded.get(ranking));
+            byAuthor.get(ranking).clear();
+            byAuthor.get(ranking).putAll(loadedByAuthor.get(ranking));
+        }
+    }
+
+    /**
+     * Primeros n cuadros de la clasificacion, de todas las tiendas o solo del autor indicado
+     */
+    @Override
+    public List<PictureRankDto> top(PictureRanking ranking, String author, int n) {
+        Leaderboard leaderboard = author != null ? byAuthor.get(ranking).get(author) : global.get(ranking);
+        return leaderboard != null ? leaderboard.top(Math.min(n, size)) : new ArrayList<>();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void picturesSaved(List<Picture> pictures) {
+        AfterCommit.run(() -> pictures.forEach(picture -> {
+            PictureRank rank = PictureRank.of(picture);
+            for (PictureRanking ranking : PictureRanking.values()) {
+                global.get(ranking).add(rank);
+                byAuthor.get(ranking).compute(rank.getAuthor(), (author, leaderboard) -> {
+                    Leaderboard updated = leaderboard != null ? leaderboard : new Leaderboard(ranking, author);
+                    updated.add(rank);
+                    return updated;
+                });
+            }
+        }));
+    }
+
+    @Override
+    public void picturesFired(List<Picture> pictures) {
+        AfterCommit.run(() -> {
+            List<Leaderboard> incomplete = new ArrayList<>();
+            for (Picture picture : pictures) {
+                long ref = PrefixIndex.ref(picture.getIdShop(), picture.getId());
+                for (PictureRanking ranking : PictureRanking.values()) {
+                    if (global.get(ranking).remove(ref)) {
+                        incomplete.add(global.get(ranking));
+                    }
+                    byAuthor.get(ranking).computeIfPresent(picture.getAuthor(), (author, leaderboard) -> {
+                        if (leaderboard.remove(ref)) {
+                            incomplete.add(leaderboard);
+                        }
+                        return leaderboard.isEmpty() ? null : leaderboard;
+                    });
+                }
+            }
+            incomplete.stream().distinct().forEach(this::reload);
+        });
+    }
+
+    /**
+     * Los cuadros de la tienda se borran sin cargarlos, por lo que se buscan recorriendo todas las clasificaciones
+     */
+    @Override
+    public void shopFired(Long idShop) {
+        AfterCommit.run(() -> {
+            List<Leaderboard> incomplete = new ArrayList<>();
+            for (PictureRanking ranking : PictureRanking.values()) {
+                if (global.get(ranking).removeShop(idShop)) {
+                    incomplete.add(global.get(ranking));
+                }
+                for (String author : byAuthor.get(ranking).keySet()) {
+                    byAuthor.get(ranking).computeIfPresent(author, (key, leaderboard) -> {
+                        if (leaderboard.removeShop(idShop)) {
+                            incomplete.add(leaderboard);
+                        }
+                        return leaderboard.isEmpty() ? null : leaderboard;
+                    });
+                }
+            }
+            incomplete.forEach(this::reload);
+        });
+    }
+
+    /**
+     * Vuelve a leer de la base de datos los primeros cuadros de una clasificacion. Si la clasificacion cambia
+     * mientras se ejecuta la consulta, se vuelve a intentar
+     */
+    private void reload(Leaderboard leaderboard) {
+        PageRequest first = PageRequest.of(0, size, leaderboard.ranking.sort());
+        for (int attempt = 0; attempt < RELOAD_ATTEMPTS; attempt++) {
+            long before = leaderboard.modifications();
+            List<PictureRank> fresh = leaderboard.author != null
+                    ? iPictureRepository.findRanks(leaderboard.author, first)
+                    : iPictureRepository.findRanks(first);
+            if (leaderboard.replaceIfUnchanged(before, fresh)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Primeros cuadros de una clasificacion, de todas las tiendas o de un autor. Todos los accesos se sincronizan
+     * sobre el propio objeto; truncated indica que han salido cuadros de la clasificacion, y modifications cuenta
+     * los cambios incrementales, para detectar si ha cambiado durante una consulta
+     */
+    private final class Leaderboard {
+
+        private final PictureRanking ranking;
+        private final String author;
+        private final TreeSet<PictureRank> pictures;
+        private final Map<Long, PictureRank> byRef = new HashMap<>();
+        private boolean truncated;
+        private long modifications;
+
+        private Leaderboard(PictureRanking ranking, String author) {
+            this.ranking = ranking;
+            this.author = author;
+            this.pictures = new TreeSet<>(ranking.comparator());
+        }
+
+        private synchronized long modifications() {
+            return modifications;
+        }
+
+        private synchronized boolean isEmpty() {
+            return pictures.isEmpty() && !truncated;
+        }
+
+        private synchronized void add(PictureRank picture) {
+            long ref = PrefixIndex.ref(picture.getIdShop(), picture.getIdPicture());
+            PictureRank previous = byRef.put(ref, picture);
+            if (previous != null) {
+                pictures.remove(previous);
+            }
+            pictures.add(picture);
+            if (pictures.size() > size) {
+                PictureRank last = pictures.pollLast();
+                byRef.remove(PrefixIndex.ref(last.getIdShop(), last.getIdPicture()));
+                truncated = true;
+            }
+            modifications++;
+        }
+
+        /**
+         * @return true si el cuadro estaba en la clasificacion y han salido cuadros de ella, por lo que hay
+         * que rellenar el hueco desde la base de datos
+         */
+        private synchronized boolean remove(long ref) {
+            PictureRank removed = byRef.remove(ref);
+            if (removed == null) {
+                return false;
+            }
+            pictures.remove(removed);
+            modifications++;
+            return truncated;
+        }
+
+        private synchronized boolean removeShop(Long idShop) {
+            boolean removed = false;
+            for (Iterator<PictureRank> iterator = pictures.iterator(); iterator.hasNext(); ) {
+                PictureRank picture = iterator.next();
+                if (picture.getIdShop().equals(idShop)) {
+                    iterator.remove();
+                    byRef.remove(PrefixIndex.ref(picture.getIdShop(), picture.getIdPicture()));
+                    removed = true;
+                }
+            }
+            if (removed) {
+                modifications++;
+            }
+            return removed && truncated;
+        }
+
+        private synchronized boolean replaceIfUnchanged(long expectedModifications, List<PictureRank> fresh) {
+            if (modifications != expectedModifications) {
+                return false;
+            }
+            pictures.clear();
+            byRef.clear();
+            fresh.forEach(this::add);
+            truncated = fresh.size() >= size;
+            return true;
+        }
+
+        private synchronized void copy(Leaderboard loaded) {
+            pictures.clear();
+            byRef.clear();
+            loaded.pictures.forEach(this::add);
+            truncated = loaded.truncated;
+            modifications++;
+        }
+
+        private synchronized List<PictureRankDto> top(int n) {
+            List<PictureRankDto> top = new ArrayList<>(Math.min(n, pictures.size()));
+            for (PictureRank picture : pictures) {
+                if (top.size() == n) {
+                    break;
+                }
+                top.add(new PictureRankDto(top.size() + 1, picture.getIdPicture(), picture.getIdShop(),
+                        picture.getName(), picture.getAuthor(), picture.getPrice(), picture.getEntryDate()));
+            }
+            return top;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package whiteCollar.service;
+
+import org.springframework.data.domain.Sort;
+import whiteCollar.repository.PictureRank;
+
+import java.util.Comparator;
+import java.util.function.Function;
+
+/**
+ * Enumerado de la capa Service con las clasificaciones de cuadros de todas las tiendas (GET /pictures/top).
+ *
+ * Cada clasificacion ordena los cuadros de mayor a menor por un atributo, y despues por id de la tienda e id
+ * del cuadro, tambien de mayor a menor, para que el orden sea total y la base de datos pueda leer los primeros
+ * recorriendo el indice del atributo hacia atras.
+ */
+public enum PictureRanking {
+
+    PRICE("price", PictureRank::getPrice),
+
+    ENTRY_DATE("entryDate", PictureRank::getEntryDate);
+
+    private final String attribute;
+    private final Comparator<PictureRank> comparator;
+
+    <T extends Comparable<? super T>> PictureRanking(String attribute, Function<PictureRank, T> value) {
+        this.attribute = attribute;
+        this.comparator = Comparator.comparing(value, Comparator.reverseOrder())
+                .thenComparing(PictureRank::getIdShop, Comparator.reverseOrder())
+                .thenComparing(PictureRank::getIdPicture, Comparator.reverseOrder());
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public Comparator<PictureRank> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Orden de la consulta que lee los primeros cuadros de la clasificacion
+     */
+    public Sort sort() {
+        return Sort.by(Sort.Direction.DESC, attribute, "idShop", "id");
+    }
+
+    /**
+     * Busca la clasificacion cuyo atributo coincide con el parametro de la peticion (price, entryDate)
+     *
+     * @param param, nombre del atributo por el que se clasifica
+     * @return la clasificacion correspondiente, o IllegalArgumentException si no existe
+     */
+    public static PictureRanking fromParam(String param) {
+        for (PictureRanking ranking : values()) {
+            if (ranking.attribute.equalsIgnoreCase(param)) {
+                return ranking;
+            }
+        }
+        throw new IllegalArgumentException("Unknown ranking " + param);
+    }
+}
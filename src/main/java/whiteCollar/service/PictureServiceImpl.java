@@ -1,12 +1,42 @@
 package whiteCollar.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import whiteCollar.dto.PictureDto;
 import whiteCollar.entity.Picture;
 import whiteCollar.entity.Shop;
 import whiteCollar.repository.IPictureRepository;
+import whiteCollar.repository.Keyset;
+import whiteCollar.repository.KeysetSlice;
+import whiteCollar.repository.PictureField;
+import whiteCollar.repository.PictureSearch;
+import whiteCollar.repository.PictureSort;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.Collectors;
+
+import static whiteCollar.repository.PictureSpecifications.after;
+import static whiteCollar.repository.PictureSpecifications.before;
+import static whiteCollar.repository.PictureSpecifications.ofShop;
+import static whiteCollar.repository.PictureSpecifications.orderBy;
+import static whiteCollar.repository.PictureSpecifications.searchAfter;
+import static whiteCollar.repository.PictureSpecifications.searchBefore;
+import static whiteCollar.repository.PictureSpecifications.searchOrder;
 
 /**
  * Clase de la capa Service, implementa la interface IPictureService
@@ -23,6 +53,18 @@ import java.util.List;
  * Marca un constructor, campo, metodo setter o metodo de configuracion para ser detectado
  * automaticamente por la funcionalidad de inyeccion de dependencias de Spring
  *
+ * @Transactional
+ * La reserva de capacidad en la tienda y la insercion del cuadro se ejecutan en la misma transaccion,
+ * de forma que si la insercion falla, la reserva se deshace.
+ * El id del cuadro se asigna antes de abrir esa transaccion (ver PictureIdAllocator), para que la reserva
+ * de un nuevo bloque de ids no necesite una segunda conexion mientras se mantiene la primera.
+ * Los listados son de solo lectura, por lo que con el enrutado de lecturas activado se ejecutan en una
+ * replica (ver DataSourceRoutingConfiguration).
+ *
+ * @Timed
+ * Registra la duracion de cada metodo del servicio en la metrica whitecollar.service, etiquetada con la clase,
+ * el metodo y el grupo de la tienda (ver MetricsConfiguration).
+ *
  */
 @Service
 public class PictureServiceImpl implements IPictureService {
@@ -30,19 +72,252 @@ public class PictureServiceImpl implements IPictureService {
     @Autowired
     IPictureRepository iPictureRepository;
 
+    @Autowired
+    IShopService iShopService;
+
+    @Autowired
+    PictureIdAllocator pictureIdAllocator;
+
+    @Autowired
+    IShopStatisticsService iShopStatisticsService;
+
+    @Autowired
+    IPictureSuggestService iPictureSuggestService;
+
+    @Autowired
+    IPictureLeaderboardService iPictureLeaderboardService;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    int batchSize;
+
+    @Value("${whitecollar.picture-delete.chunk-size:1000}")
+    int deleteChunkSize;
+
 
     @Override
+    @Timed("whitecollar.service")
+    @Transactional(readOnly = true)
     public List<Picture> listPicturesByShop(Shop shop) {
         return iPictureRepository.findPicturesByShop(shop);
     }
 
+    /**
+     * Devuelve una pagina de cuadros de una tienda, construida directamente como objetos PictureDto
+     * en una transaccion de solo lectura, sin cargar entidades
+     */
+    @Override
+    @Timed("whitecollar.service")
+    @Transactional(readOnly = true)
+    public KeysetSlice<PictureDto> listPicturesByShop(Long idShop, PictureSort sort, Keyset after, Keyset before, int size) {
+        return listPicturesByShop(idShop, sort, after, before, size, iPictureRepository::findDtoSlice);
+    }
+
+    /**
+     * Devuelve una pagina de cuadros de una tienda leyendo solo los campos indicados, ademas del id del cuadro
+     * y del campo por el que se ordena, que se necesitan para los cursores. El resto de campos del PictureDto,
+     * incluida la capacidad de la tienda, quedan vacios
+     */
+    @Override
+    @Timed("whitecollar.service")
+    @Transactional(readOnly = true)
+    public KeysetSlice<PictureDto> listPicturesByShop(Long idShop, PictureSort sort, Keyset after, Keyset before, int size,
+                                                      Set<PictureField> fields) {
+        Set<PictureField> columns = EnumSet.of(PictureField.ID_PICTURE, PictureField.of(sort));
+        columns.addAll(fields);
+        return listPicturesByShop(idShop, sort, after, before, size,
+                (specification, order, limit) -> iPictureRepository.findDtoSlice(specification, order, limit, columns));
+    }
+
+    private static KeysetSlice<PictureDto> listPicturesByShop(Long idShop, PictureSort sort, Keyset after, Keyset before,
+                                                              int size, SliceQuery sliceQuery) {
+        Specification<Picture> specification = ofShop(idShop);
+
+        if (before != null) {
+            List<PictureDto> rows = sliceQuery.find(specification.and(before(sort, before)),
+                    orderBy(sort, false), size + 1);
+            return KeysetSlice.backward(rows, size);
+        }
+
+        if (after != null) {
+            specification = specification.and(after(sort, after));
+        }
+        List<PictureDto> rows = sliceQuery.find(specification, orderBy(sort, true), size + 1);
+        return KeysetSlice.forward(rows, size, after != null);
+    }
+
+    /**
+     * Busca cuadros en todas las tiendas con los criterios indicados y devuelve una pagina ordenada por precio,
+     * id de la tienda e id del cuadro, construida directamente como objetos PictureDto en una transaccion
+     * de solo lectura. La consulta solo incluye los criterios indicados y se pagina por cursor, apoyada en los
+     * indices sobre author, name y price de la tabla picture
+     */
     @Override
-    public Picture savePicture(Picture picture) {
-        return iPictureRepository.save(picture);
+    @Timed("whitecollar.service")
+    @Transactional(readOnly = true)
+    public KeysetSlice<PictureDto> searchPictures(PictureSearch search, Keyset after, Keyset before, int size) {
+        Specification<Picture> specification = search.toSpecification();
+
+        if (before != null) {
+            List<PictureDto> rows = iPictureRepository.findDtoSlice(specification.and(searchBefore(before)),
+                    searchOrder(false), size + 1);
+            return KeysetSlice.backward(rows, size);
+        }
+
+        if (after != null) {
+            specification = specification.and(searchAfter(after));
+        }
+        List<PictureDto> rows = iPictureRepository.findDtoSlice(specification, searchOrder(true), size + 1);
+        return KeysetSlice.forward(rows, size, after != null);
     }
 
+    /**
+     * Recorre todos los cuadros de una tienda en una transaccion de solo lectura, entregandolos uno a uno
+     * al consumidor. Cada cuadro se separa (detach) del contexto de persistencia en cuanto se ha procesado,
+     * de forma que la memoria utilizada no crece con el tamaño de la tienda.
+     *
+     * @param idShop, id de la tienda
+     * @param consumer, funcion que procesa cada cuadro, por ejemplo escribiendolo en la respuesta
+     * @return numero de cuadros recorridos
+     */
     @Override
+    @Timed("whitecollar.service")
+    @Transactional(readOnly = true)
+    public long exportPicturesByShop(Long idShop, Consumer<Picture> consumer) {
+        long count = 0;
+        try (Stream<Picture> pictures = iPictureRepository.streamPicturesByShopId(idShop)) {
+            for (Picture picture : (Iterable<Picture>) pictures::iterator) {
+                consumer.accept(picture);
+                entityManager.detach(picture);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    @Timed("whitecollar.service")
+    public Optional<Picture> savePicture(Picture picture) {
+        picture.setId(pictureIdAllocator.nextId(picture.getIdShop()));
+
+        return transactionTemplate.execute(status -> {
+            if (!iShopService.reserveCapacity(picture.getIdShop(), 1L)) {
+                return Optional.empty();
+            }
+            Picture saved = iPictureRepository.persist(picture);
+            iShopStatisticsService.picturesSaved(List.of(saved));
+            iPictureSuggestService.picturesSaved(List.of(saved));
+            iPictureLeaderboardService.picturesSaved(List.of(saved));
+            return Optional.of(saved);
+        });
+    }
+
+    /**
+     * Guarda un lote de cuadros en una tienda. La capacidad se reserva una sola vez para todo el lote
+     * y los ids se asignan en un unico paso (ver PictureIdAllocator.allocate). Las inserciones se agrupan
+     * en lotes JDBC de batch_size sentencias (hibernate.jdbc.batch_size), vaciando el contexto de
+     * persistencia tras cada lote para que no crezca con el tamaño de la peticion.
+     *
+     * @param idShop, id de la tienda
+     * @param pictures, cuadros a guardar, ya validados
+     * @return los cuadros guardados, o vacio si la tienda no tiene capacidad para todo el lote
+     */
+    @Override
+    @Timed("whitecollar.service")
+    public Optional<List<Picture>> savePictures(Long idShop, List<Picture> pictures) {
+        if (pictures.isEmpty()) {
+            return Optional.of(pictures);
+        }
+
+        long[] ids = pictureIdAllocator.allocate(idShop, pictures.size());
+        for (int i = 0; i < ids.length; i++) {
+            pictures.get(i).setIdShop(idShop);
+            pictures.get(i).setId(ids[i]);
+        }
+
+        return transactionTemplate.execute(status -> {
+            if (!iShopService.reserveCapacity(idShop, (long) pictures.size())) {
+                return Optional.empty();
+            }
+            for (int i = 0; i < pictures.size(); i++) {
+                iPictureRepository.persist(pictures.get(i));
+                if ((i + 1) % batchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            iShopStatisticsService.picturesSaved(pictures);
+            iPictureSuggestService.picturesSaved(pictures);
+            iPictureLeaderboardService.picturesSaved(pictures);
+            return Optional.of(pictures);
+        });
+    }
+
+    @Override
+    @Timed("whitecollar.service")
+    @Transactional
     public void firePictures(List<Picture> pictures) {
         iPictureRepository.deleteInBatch(pictures);
+
+        Map<Long, Long> firedByShop = pictures.stream()
+                .collect(Collectors.groupingBy(Picture::getIdShop, Collectors.counting()));
+        firedByShop.forEach(iShopService::releaseCapacity);
+        iShopStatisticsService.picturesFired(pictures);
+        iPictureSuggestService.picturesFired(pictures);
+        iPictureLeaderboardService.picturesFired(pictures);
+    }
+
+    /**
+     * Elimina todos los cuadros de una tienda sin cargarlos, mediante sentencias DELETE por tramos de como
+     * maximo deleteChunkSize cuadros, en orden de id; el ultimo tramo borra los cuadros restantes.
+     * Cada tramo se borra en su propia transaccion, junto con la liberacion de la capacidad correspondiente,
+     * de forma que los bloqueos de filas duran solo lo que tarda un tramo y la ocupacion de la tienda es
+     * correcta despues de cada uno.
+     * Al liberar capacidad la tienda se elimina de la cache y avanza su version (ETag). Al terminar se
+     * recalculan las estadisticas de la tienda (ver ShopStatisticsServiceImpl) y se eliminan sus cuadros del
+     * indice de sugerencias (ver PictureSuggestServiceImpl) y de las clasificaciones
+     * (ver PictureLeaderboardServiceImpl).
+     *
+     * @param idShop, id de la tienda
+     * @return numero de cuadros eliminados
+     */
+    @Override
+    @Timed("whitecollar.service")
+    public long firePicturesByShop(Long idShop) {
+        PageRequest chunkLimit = PageRequest.of(deleteChunkSize - 1, 1);
+        long fired = 0;
+        boolean lastChunk = false;
+
+        while (!lastChunk) {
+            List<Long> limit = iPictureRepository.findIdsByShop(idShop, chunkLimit);
+            lastChunk = limit.isEmpty();
+            fired += transactionTemplate.execute(status -> {
+                int deleted = limit.isEmpty()
+                        ? iPictureRepository.deleteByShop(idShop)
+                        : iPictureRepository.deleteByShopUpTo(idShop, limit.get(0));
+                if (deleted > 0) {
+                    iShopService.releaseCapacity(idShop, (long) deleted);
+                }
+                return deleted;
+            });
+        }
+
+        iShopStatisticsService.reloadShop(idShop);
+        iPictureSuggestService.shopFired(idShop);
+        iPictureLeaderboardService.shopFired(idShop);
+        return fired;
+    }
+
+    /**
+     * Consulta de una pagina de cuadros, con todos los campos o solo con algunos (ver IPictureRepositoryCustom)
+     */
+    @FunctionalInterface
+    private interface SliceQuery {
+        List<PictureDto> find(Specification<Picture> specification, Sort sort, int limit);
     }
 }
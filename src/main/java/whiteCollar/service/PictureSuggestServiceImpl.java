@@ -0,0 +1,121 @@
+package whiteCollar.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import whiteCollar.dto.PictureSuggestionDto;
+import whiteCollar.entity.Picture;
+import whiteCollar.repository.IPictureRepository;
+import whiteCollar.repository.PictureTerms;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Clase de la capa Service, implementa la interface IPictureSuggestService
+ *
+ * Mantiene en memoria un indice de prefijos de los nombres y otro de los autores de todos los cuadros
+ * (ver PrefixIndex), de forma que GET /pictures/suggest no consulta la base de datos. Los indices se construyen
+ * al arrancar recorriendo la tabla picture, y despues se actualizan de forma incremental con cada alta o baja
+ * de cuadros, una vez confirmada la transaccion.
+ *
+ * Cada nombre y cada autor se guarda una sola vez, con las referencias de sus cuadros en un array de long,
+ * para que varios millones de cuadros quepan en poca memoria.
+ *
+ * Anotaciones:
+ * @Service
+ * Indica que la clase es un "Servicio" y permite que se detecte automaticamente a traves del escaneo
+ * del classpath
+ *
+ * @PostConstruct
+ * Construye los indices al crear el servicio, antes de que la aplicacion atienda peticiones
+ */
+@Service
+public class PictureSuggestServiceImpl implements IPictureSuggestService {
+
+    private final IPictureRepository iPictureRepository;
+    private final TransactionTemplate readOnly;
+
+    private final PrefixIndex names = new PrefixIndex();
+    private final PrefixIndex authors = new PrefixIndex();
+
+    @Autowired
+    public PictureSuggestServiceImpl(IPictureRepository iPictureRepository, PlatformTransactionManager transactionManager) {
+        this.iPictureRepository = iPictureRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        PrefixIndex.Builder nameBuilder = new PrefixIndex.Builder();
+        PrefixIndex.Builder authorBuilder = new PrefixIndex.Builder();
+
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<PictureTerms> pictures = iPictureRepository.streamPictureTerms()) {
+                pictures.forEach(picture -> {
+                    long ref = PrefixIndex.ref(picture.getIdShop(), picture.getIdPicture());
+                    nameBuilder.add(picture.getName(), ref);
+                    authorBuilder.add(picture.getAuthor(), ref);
+                });
+            }
+        });
+
+        names.reset(nameBuilder);
+        authors.reset(authorBuilder);
+    }
+
+    /**
+     * Autores y nombres que empiezan por el texto indicado, sin distinguir mayusculas de minusculas:
+     * primero hasta limit autores y despues hasta limit nombres, cada grupo en orden alfabetico
+     */
+    @Override
+    public List<PictureSuggestionDto> suggest(String query, int limit) {
+        List<PictureSuggestionDto> suggestions = new ArrayList<>();
+        if (query == null || query.isBlank()) {
+            return suggestions;
+        }
+
+        String prefix = query.strip();
+        for (PrefixIndex.Match match : authors.startingWith(prefix, limit)) {
+            suggestions.add(new PictureSuggestionDto(match.getValue(), PictureSuggestionDto.AUTHOR, match.getPictures()));
+        }
+        for (PrefixIndex.Match match : names.startingWith(prefix, limit)) {
+            suggestions.add(new PictureSuggestionDto(match.getValue(), PictureSuggestionDto.NAME, match.getPictures()));
+        }
+        return suggestions;
+    }
+
+    @Override
+    public void picturesSaved(List<Picture> pictures) {
+        AfterCommit.run(() -> pictures.forEach(picture -> {
+            long ref = PrefixIndex.ref(picture.getIdShop(), picture.getId());
+            names.add(picture.getName(), ref);
+            authors.add(picture.getAuthor(), ref);
+        }));
+    }
+
+    @Override
+    public void picturesFired(List<Picture> pictures) {
+        AfterCommit.run(() -> pictures.forEach(picture -> {
+            long ref = PrefixIndex.ref(picture.getIdShop(), picture.getId());
+            names.remove(picture.getName(), ref);
+            authors.remove(picture.getAuthor(), ref);
+        }));
+    }
+
+    /**
+     * Los cuadros de la tienda se borran sin cargarlos, por lo que sus referencias se buscan recorriendo
+     * los indices completos
+     */
+    @Override
+    public void shopFired(Long idShop) {
+        AfterCommit.run(() -> {
+            names.removeIf(ref -> PrefixIndex.idShop(ref) == idShop);
+            authors.removeIf(ref -> PrefixIndex.idShop(ref) == idShop);
+        });
+    }
+}
@@ -0,0 +1,302 @@
+package whiteCollar.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Indice de prefijos en memoria, sin distinguir mayusculas de minusculas, utilizado para las sugerencias
+ * de busqueda de cuadros (ver PictureSuggestServiceImpl).
+ *
+ * Cada valor distinto (un nombre o un autor) se guarda una sola vez, junto con las referencias de los cuadros
+ * que lo tienen, como un array ordenado de long (id de la tienda en los 32 bits altos e id del cuadro en los
+ * bajos, ver ref). Los valores estan en un array ordenado, de forma que los que empiezan por un prefijo
+ * forman un rango contiguo que se localiza con una busqueda binaria.
+ *
+ * Las altas y bajas no modifican ese array, sino que se anotan en un mapa ordenado de cambios, que las consultas
+ * combinan con el array. Cuando el mapa de cambios crece, se funde con el array en uno nuevo (compactacion).
+ * El array y su mapa de cambios se sustituyen juntos, por lo que las consultas no necesitan bloqueos;
+ * las escrituras se sincronizan sobre el indice.
+ */
+public final class PrefixIndex {
+
+    private static final Comparator<String> ORDER = String.CASE_INSENSITIVE_ORDER;
+    private static final long[] NO_REFS = new long[0];
+    private static final int MIN_CHANGES_BEFORE_COMPACTION = 1024;
+
+    private volatile State state = new State(new String[0], new long[0][]);
+
+    /**
+     * Referencia compacta de un cuadro
+     *
+     * @return id de la tienda en los 32 bits altos e id del cuadro en los 32 bits bajos
+     */
+    public static long ref(Long idShop, Long idPicture) {
+        return (idShop << 32) | (idPicture & 0xFFFFFFFFL);
+    }
+
+    public static long idShop(long ref) {
+        return ref >>> 32;
+    }
+
+    /**
+     * Sustituye todo el contenido del indice por el del builder
+     */
+    public synchronized void reset(Builder builder) {
+        state = builder.build();
+    }
+
+    public synchronized void add(String value, long ref) {
+        State current = state;
+        Entry entry = current.find(value);
+        long[] refs = entry != null ? entry.refs : NO_REFS;
+        int position = Arrays.binarySearch(refs, ref);
+        if (position >= 0) {
+            return;
+        }
+
+        position = -position - 1;
+        long[] updated = new long[refs.length + 1];
+        System.arraycopy(refs, 0, updated, 0, position);
+        updated[position] = ref;
+        System.arraycopy(refs, position, updated, position + 1, refs.length - position);
+
+        current.changes.put(value, new Entry(entry != null && refs.length > 0 ? entry.value : value, updated));
+        compactIfNeeded(current);
+    }
+
+    public synchronized void remove(String value, long ref) {
+        State current = state;
+        Entry entry = current.find(value);
+        int position = entry != null ? Arrays.binarySearch(entry.refs, ref) : -1;
+        if (position < 0) {
+            return;
+        }
+
+        long[] updated = new long[entry.refs.length - 1];
+        System.arraycopy(entry.refs, 0, updated, 0, position);
+        System.arraycopy(entry.refs, position + 1, updated, position, updated.length - position);
+
+        current.changes.put(entry.value, new Entry(entry.value, updated.length > 0 ? updated : NO_REFS));
+        compactIfNeeded(current);
+    }
+
+    /**
+     * Elimina del indice todas las referencias que cumplan la condicion, recorriendo el indice completo
+     */
+    public synchronized void removeIf(LongPredicate condition) {
+        state = state.compact(refs -> {
+            long[] kept = Arrays.stream(refs).filter(ref -> !condition.test(ref)).toArray();
+            return kept.length == refs.length ? refs : kept;
+        });
+    }
+
+    /**
+     * Valores que empiezan por el prefijo, en orden alfabetico, con el numero de cuadros de cada uno
+     *
+     * @param prefix, comienzo del valor, sin distinguir mayusculas de minusculas
+     * @param limit, numero maximo de valores devueltos
+     */
+    public List<Match> startingWith(String prefix, int limit) {
+        State current = state;
+        List<Match> matches = new ArrayList<>(Math.min(limit, 16));
+
+        int position = Arrays.binarySearch(current.values, prefix, ORDER);
+        position = position >= 0 ? position : -position - 1;
+        Iterator<Entry> changes = current.changes.tailMap(prefix, true).values().iterator();
+        Entry change = changes.hasNext() ? changes.next() : null;
+
+        while (matches.size() < limit) {
+            String value = position < current.values.length && startsWith(current.values[position], prefix)
+                    ? current.values[position] : null;
+            Entry changed = change != null && startsWith(change.value, prefix) ? change : null;
+            if (value == null && changed == null) {
+                break;
+            }
+
+            int comparison = value == null ? 1 : changed == null ? -1 : ORDER.compare(value, changed.value);
+            long[] refs;
+            if (comparison < 0) {
+                refs = current.refs[position++];
+            } else {
+                value = changed.value;
+                refs = changed.refs;
+                if (comparison == 0) {
+                    position++;
+                }
+                change = changes.hasNext() ? changes.next() : null;
+            }
+            if (refs.length > 0) {
+                matches.add(new Match(value, refs.length));
+            }
+        }
+        return matches;
+    }
+
+    private void compactIfNeeded(State current) {
+        if (current.changes.size() >= Math.max(MIN_CHANGES_BEFORE_COMPACTION, current.values.length / 16)) {
+            state = current.compact(refs -> refs);
+        }
+    }
+
+    private static boolean startsWith(String value, String prefix) {
+        return value.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    /**
+     * Un valor del indice y el numero de cuadros que lo tienen
+     */
+    public static final class Match {
+
+        private final String value;
+        private final long pictures;
+
+        private Match(String value, long pictures) {
+            this.value = value;
+            this.pictures = pictures;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public long getPictures() {
+            return pictures;
+        }
+    }
+
+    /**
+     * Construye el contenido de un indice a partir de todos los cuadros, por ejemplo al arrancar. Los valores
+     * que solo difieren en mayusculas y minusculas se guardan una vez, con la primera forma recibida
+     */
+    public static final class Builder {
+
+        private final TreeMap<String, RefList> values = new TreeMap<>(ORDER);
+
+        public Builder add(String value, long ref) {
+            values.computeIfAbsent(value, key -> new RefList()).add(ref);
+            return this;
+        }
+
+        private State build() {
+            List<String> built = new ArrayList<>(values.size());
+            List<long[]> builtRefs = new ArrayList<>(values.size());
+            for (Map.Entry<String, RefList> entry : values.entrySet()) {
+                long[] refs = entry.getValue().toSortedArray();
+                if (refs.length > 0) {
+                    built.add(entry.getKey());
+                    builtRefs.add(refs);
+                }
+            }
+            return new State(built.toArray(new String[0]), builtRefs.toArray(new long[0][]));
+        }
+    }
+
+    private static final class RefList {
+
+        private long[] refs = new long[1];
+        private int size;
+
+        private void add(long ref) {
+            if (size == refs.length) {
+                refs = Arrays.copyOf(refs, size * 2);
+            }
+            refs[size++] = ref;
+        }
+
+        private long[] toSortedArray() {
+            long[] sorted = size == refs.length ? refs : Arrays.copyOf(refs, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    private static final class Entry {
+
+        private final String value;
+        private final long[] refs;
+
+        private Entry(String value, long[] refs) {
+            this.value = value;
+            this.refs = refs;
+        }
+    }
+
+    /**
+     * Array ordenado de valores, con las referencias de cada uno, y cambios pendientes de compactar.
+     * Un cambio con un array de referencias vacio indica que el valor ya no tiene cuadros
+     */
+    private static final class State {
+
+        private final String[] values;
+        private final long[][] refs;
+        private final ConcurrentSkipListMap<String, Entry> changes = new ConcurrentSkipListMap<>(ORDER);
+
+        private State(String[] values, long[][] refs) {
+            this.values = values;
+            this.refs = refs;
+        }
+
+        /**
+         * Funde el array con los cambios en un nuevo estado sin cambios pendientes
+         *
+         * @param filter, referencias que se conservan de cada valor; los valores sin referencias se descartan
+         */
+        private State compact(UnaryOperator<long[]> filter) {
+            List<String> compacted = new ArrayList<>(values.length + changes.size());
+            List<long[]> compactedRefs = new ArrayList<>(values.length + changes.size());
+            forEach(entry -> {
+                long[] kept = filter.apply(entry.refs);
+                if (kept.length > 0) {
+                    compacted.add(entry.value);
+                    compactedRefs.add(kept);
+                }
+            });
+            return new State(compacted.toArray(new String[0]), compactedRefs.toArray(new long[0][]));
+        }
+
+        private Entry find(String value) {
+            Entry changed = changes.get(value);
+            if (changed != null) {
+                return changed;
+            }
+            int position = Arrays.binarySearch(values, value, ORDER);
+            return position >= 0 ? new Entry(values[position], refs[position]) : null;
+        }
+
+        /**
+         * Recorre en orden los valores con cuadros, combinando el array con los cambios
+         */
+        private void forEach(Consumer<Entry> action) {
+            int position = 0;
+            Iterator<Entry> pending = changes.values().iterator();
+            Entry change = pending.hasNext() ? pending.next() : null;
+            while (position < values.length || change != null) {
+                int comparison = position == values.length ? 1
+                        : change == null ? -1 : ORDER.compare(values[position], change.value);
+                Entry entry;
+                if (comparison < 0) {
+                    entry = new Entry(values[position], refs[position]);
+                    position++;
+                } else {
+                    entry = change;
+                    if (comparison == 0) {
+                        position++;
+                    }
+                    change = pending.hasNext() ? pending.next() : null;
+                }
+                if (entry.refs.length > 0) {
+                    action.accept(entry);
+                }
+            }
+        }
+    }
+}
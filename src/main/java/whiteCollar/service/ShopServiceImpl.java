@@ -1,9 +1,17 @@
 package whiteCollar.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import whiteCollar.dto.ShopDto;
 import whiteCollar.entity.Shop;
 import whiteCollar.repository.IShopRepository;
+import whiteCollar.repository.Keyset;
+import whiteCollar.repository.KeysetSlice;
 
 import java.util.List;
 import java.util.Optional;
@@ -23,30 +31,112 @@ import java.util.Optional;
  * Marca un constructor, campo, metodo setter o metodo de configuracion para ser detectado
  * automaticamente por la funcionalidad de inyeccion de dependencias de Spring
  *
+ * @Cacheable
+ * El resultado de findShopById se guarda en la cache de tiendas (SHOPS_CACHE), de forma que las peticiones
+ * sobre los cuadros de una tienda no repiten la consulta por clave primaria. Se guarda un ShopDto inmutable
+ * (id, nombre, capacidad y version) leido con una proyeccion, y no la entidad Shop: la entidad quedaria
+ * desconectada del contexto de persistencia, con su coleccion perezosa de cuadros, y cualquier peticion podria
+ * modificar la copia compartida. Las tiendas que no existen no se guardan en la cache.
+ *
+ * @CacheEvict
+ * La tienda se elimina de la cache al guardarla y al reservar o liberar capacidad, ya que estas operaciones
+ * cambian su version. Dentro de una transaccion, la eliminacion se aplica despues del commit
+ * (ver SpringConfiguration.cacheManager).
+ *
+ * @Transactional
+ * Al guardar una tienda, en la misma transaccion avanzan la version del listado de tiendas y la de la
+ * propia tienda (sus cuadros incluyen la capacidad de la tienda), que se usan para calcular los ETag.
+ * El listado paginado se ejecuta en una transaccion de solo lectura y devuelve directamente objetos ShopDto.
+ * El listado y las versiones de los ETag son de solo lectura, por lo que con el enrutado de lecturas activado
+ * se ejecutan en una replica (ver DataSourceRoutingConfiguration). ShopController los lee en una misma transaccion,
+ * y por tanto en la misma replica. La busqueda por id no es de solo lectura: llena la cache de tiendas, y se lee
+ * en la principal para que, tras eliminar la tienda de la cache al confirmar una escritura, la cache no vuelva
+ * a llenarse con una copia atrasada de una replica, que se serviria hasta que caducase.
+ *
+ * @Timed
+ * Registra la duracion de cada metodo del servicio en la metrica whitecollar.service, etiquetada con la clase,
+ * el metodo y el grupo de la tienda (ver MetricsConfiguration).
+ *
  */
 @Service
 public class ShopServiceImpl implements IShopService {
 
+    public static final String SHOPS_CACHE = "shops";
+
     @Autowired
     IShopRepository iShopRepository;
 
     @Override
+    @Timed("whitecollar.service")
+    @Transactional(readOnly = true)
     public List<Shop> listShops() {
         return iShopRepository.findAll();
     }
 
     @Override
+    @Timed("whitecollar.service")
+    @Transactional(readOnly = true)
+    public KeysetSlice<ShopDto> listShops(Keyset after, Keyset before, int size) {
+        PageRequest limit = PageRequest.of(0, size + 1);
+
+        if (before != null) {
+            return KeysetSlice.backward(iShopRepository.findDtoByIdLessThan(before.getId(), limit), size);
+        }
+
+        Long afterId = after != null ? after.getId() : 0L;
+        return KeysetSlice.forward(iShopRepository.findDtoByIdGreaterThan(afterId, limit), size, after != null);
+    }
+
+    @Override
+    @Timed("whitecollar.service")
+    @Transactional
+    @CacheEvict(cacheNames = SHOPS_CACHE, key = "#shop.id")
     public Shop saveShop(Shop shop) {
-        return iShopRepository.save(shop);
+        Shop savedShop = iShopRepository.save(shop);
+        iShopRepository.incrementVersion(savedShop.getId());
+        iShopRepository.incrementListVersion();
+        return savedShop;
     }
 
     @Override
-    public Optional<Shop> findShopById(Long id) {
-        return iShopRepository.findById(id);
+    @Timed("whitecollar.service")
+    @Transactional
+    @Cacheable(cacheNames = SHOPS_CACHE, key = "#id", unless = "#result == null")
+    public Optional<ShopDto> findShopById(Long id) {
+        return iShopRepository.findDtoById(id);
     }
 
     @Override
+    @Timed("whitecollar.service")
     public Long currentShopCapacity(Long idShop) {
-        return iShopRepository.findById(idShop).get().getPictures().stream().count();
+        return iShopRepository.findOccupancyById(idShop);
+    }
+
+    @Override
+    @Timed("whitecollar.service")
+    @CacheEvict(cacheNames = SHOPS_CACHE, key = "#idShop")
+    public boolean reserveCapacity(Long idShop, Long amount) {
+        return iShopRepository.reserveCapacity(idShop, amount) == 1;
+    }
+
+    @Override
+    @Timed("whitecollar.service")
+    @CacheEvict(cacheNames = SHOPS_CACHE, key = "#idShop")
+    public void releaseCapacity(Long idShop, Long amount) {
+        iShopRepository.releaseCapacity(idShop, amount);
+    }
+
+    @Override
+    @Timed("whitecollar.service")
+    @Transactional(readOnly = true)
+    public Optional<Long> findShopVersion(Long idShop) {
+        return Optional.ofNullable(iShopRepository.findVersionById(idShop));
+    }
+
+    @Override
+    @Timed("whitecollar.service")
+    @Transactional(readOnly = true)
+    public Long shopListVersion() {
+        return iShopRepository.findListVersion();
     }
 }
@@ -0,0 +1,306 @@
+package whiteCollar.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import whiteCollar.dto.ShopStatisticsDto;
+import whiteCollar.entity.Picture;
+import whiteCollar.repository.AuthorCount;
+import whiteCollar.repository.IPictureRepository;
+import whiteCollar.repository.PictureAggregate;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Clase de la capa Service, implementa la interface IShopStatisticsService
+ *
+ * Mantiene en memoria las estadisticas de inventario de cada tienda (numero de cuadros, suma, minimo y maximo
+ * del precio, fechas de entrada extremas y cuadros por autor), de forma que GET /shops/{id}/stats no necesita
+ * consultar la base de datos. Las estadisticas se calculan al arrancar con consultas GROUP BY, y despues se
+ * actualizan de forma incremental con cada alta o baja de cuadros, una vez confirmada la transaccion.
+ *
+ * Al dar de baja un cuadro cuyo precio o fecha es el minimo o maximo de la tienda, o al borrar los cuadros
+ * sin cargarlos, no es posible actualizar los extremos de forma incremental, y las estadisticas de esa tienda
+ * se recalculan con una consulta de agregados.
+ *
+ * Una tarea programada compara periodicamente las estadisticas con el resultado de las consultas de agregados,
+ * corrigiendo las que no coincidan (por ejemplo, por escrituras hechas desde otra instancia de la aplicacion).
+ * Solo se corrigen las tiendas que no han cambiado mientras se ejecutaba la consulta.
+ * Los precios se redondean a dos decimales y las fechas se comparan con precision de segundos, como se
+ * almacenan en la tabla picture.
+ *
+ * Anotaciones:
+ * @Service
+ * Indica que la clase es un "Servicio" y permite que se detecte automaticamente a traves del escaneo
+ * del classpath
+ *
+ * @PostConstruct
+ * Calcula las estadisticas de todas las tiendas al crear el servicio, antes de que la aplicacion atienda peticiones
+ *
+ * @Scheduled
+ * Ejecuta la reconciliacion cada whitecollar.statistics.reconcile-delay milisegundos
+ */
+@Service
+public class ShopStatisticsServiceImpl implements IShopStatisticsService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShopStatisticsServiceImpl.class);
+    private static final int PRICE_SCALE = 2;
+    private static final int RELOAD_ATTEMPTS = 3;
+
+    @Autowired
+    IPictureRepository iPictureRepository;
+
+    private final Map<Long, ShopStatistics> statistics = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        statistics.clear();
+        load(iPictureRepository.aggregateByShop(), iPictureRepository.countByShopAndAuthor())
+                .forEach(statistics::put);
+    }
+
+    @Override
+    public ShopStatisticsDto shopStatistics(Long idShop) {
+        ShopStatistics shopStatistics = statistics.get(idShop);
+        return shopStatistics != null ? shopStatistics.toDto(idShop) : new ShopStatistics().toDto(idShop);
+    }
+
+    @Override
+    public void picturesSaved(List<Picture> pictures) {
+        AfterCommit.run(() -> byShop(pictures).forEach((idShop, saved) ->
+                statistics.computeIfAbsent(idShop, key -> new ShopStatistics()).addAll(saved)));
+    }
+
+    @Override
+    public void picturesFired(List<Picture> pictures) {
+        AfterCommit.run(() -> byShop(pictures).forEach((idShop, fired) -> {
+            boolean extremeRemoved = statistics.computeIfAbsent(idShop, key -> new ShopStatistics()).removeAll(fired);
+            if (extremeRemoved) {
+                reload(idShop);
+            }
+        }));
+    }
+
+    @Override
+    public void reloadShop(Long idShop) {
+        AfterCommit.run(() -> reload(idShop));
+    }
+
+    /**
+     * Compara las estadisticas en memoria de todas las tiendas con las consultas de agregados
+     *
+     * @return numero de tiendas cuyas estadisticas no coincidian y se han corregido
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${whitecollar.statistics.reconcile-delay:600000}",
+            initialDelayString = "${whitecollar.statistics.reconcile-delay:600000}")
+    public int reconcile() {
+        Map<Long, Long> modifications = new HashMap<>();
+        statistics.forEach((idShop, shopStatistics) -> modifications.put(idShop, shopStatistics.modifications()));
+
+        Map<Long, ShopStatistics> expected = load(iPictureRepository.aggregateByShop(),
+                iPictureRepository.countByShopAndAuthor());
+
+        Set<Long> shops = new HashSet<>(modifications.keySet());
+        shops.addAll(expected.keySet());
+
+        int mismatches = 0;
+        for (Long idShop : shops) {
+            ShopStatistics fresh = expected.getOrDefault(idShop, new ShopStatistics());
+            ShopStatistics current = statistics.computeIfAbsent(idShop, key -> new ShopStatistics());
+            long before = modifications.getOrDefault(idShop, 0L);
+
+            if (current.replaceIfDifferent(before, fresh)) {
+                LOGGER.warn("Statistics of shop {} did not match the database and were rebuilt", idShop);
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * Recalcula las estadisticas de una tienda con las consultas de agregados. Si la tienda cambia mientras
+     * se ejecutan las consultas, se vuelve a intentar; si sigue cambiando, la corregira la reconciliacion
+     */
+    private void reload(Long idShop) {
+        ShopStatistics current = statistics.computeIfAbsent(idShop, key -> new ShopStatistics());
+        for (int attempt = 0; attempt < RELOAD_ATTEMPTS; attempt++) {
+            long before = current.modifications();
+            ShopStatistics fresh = load(iPictureRepository.aggregateByShop(idShop),
+                    iPictureRepository.countByShopAndAuthor(idShop))
+                    .getOrDefault(idShop, new ShopStatistics());
+            if (current.replaceIfUnchanged(before, fresh)) {
+                return;
+            }
+        }
+    }
+
+    private static Map<Long, ShopStatistics> load(List<PictureAggregate> aggregates, List<AuthorCount> authorCounts) {
+        Map<Long, ShopStatistics> loaded = new HashMap<>();
+        for (PictureAggregate aggregate : aggregates) {
+            loaded.put(aggregate.getIdShop(), new ShopStatistics(aggregate));
+        }
+        for (AuthorCount authorCount : authorCounts) {
+            loaded.computeIfAbsent(authorCount.getIdShop(), key -> new ShopStatistics())
+                    .authors.put(authorCount.getAuthor(), authorCount.getPictures());
+        }
+        return loaded;
+    }
+
+    private static Map<Long, List<Picture>> byShop(List<Picture> pictures) {
+        return pictures.stream().collect(Collectors.groupingBy(Picture::getIdShop));
+    }
+
+    private static BigDecimal price(Picture picture) {
+        return picture.getPrice().setScale(PRICE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Estadisticas de una tienda. Todos los accesos se sincronizan sobre el propio objeto; modifications
+     * cuenta los cambios incrementales, para detectar si la tienda ha cambiado durante una consulta de agregados
+     */
+    private static final class ShopStatistics {
+
+        private long modifications;
+        private long pictures;
+        private BigDecimal totalPrice = BigDecimal.ZERO.setScale(PRICE_SCALE);
+        private BigDecimal minPrice;
+        private BigDecimal maxPrice;
+        private Date oldestEntryDate;
+        private Date newestEntryDate;
+        private final Map<String, Long> authors = new HashMap<>();
+
+        private ShopStatistics() {
+        }
+
+        private ShopStatistics(PictureAggregate aggregate) {
+            this.pictures = aggregate.getPictures();
+            this.totalPrice = aggregate.getTotalPrice().setScale(PRICE_SCALE, RoundingMode.HALF_UP);
+            this.minPrice = aggregate.getMinPrice();
+            this.maxPrice = aggregate.getMaxPrice();
+            this.oldestEntryDate = aggregate.getOldestEntryDate();
+            this.newestEntryDate = aggregate.getNewestEntryDate();
+        }
+
+        private synchronized long modifications() {
+            return modifications;
+        }
+
+        private synchronized void addAll(List<Picture> saved) {
+            for (Picture picture : saved) {
+                BigDecimal price = price(picture);
+                Date entryDate = picture.getEntryDate();
+
+                pictures++;
+                totalPrice = totalPrice.add(price);
+                minPrice = minPrice == null || price.compareTo(minPrice) < 0 ? price : minPrice;
+                maxPrice = maxPrice == null || price.compareTo(maxPrice) > 0 ? price : maxPrice;
+                oldestEntryDate = oldestEntryDate == null || entryDate.before(oldestEntryDate) ? entryDate : oldestEntryDate;
+                newestEntryDate = newestEntryDate == null || entryDate.after(newestEntryDate) ? entryDate : newestEntryDate;
+                authors.merge(picture.getAuthor(), 1L, Long::sum);
+            }
+            modifications++;
+        }
+
+        /**
+         * @return true si alguno de los cuadros tenia el precio o la fecha minimos o maximos de la tienda,
+         * y por tanto hay que recalcular los extremos
+         */
+        private synchronized boolean removeAll(List<Picture> fired) {
+            boolean extremeRemoved = false;
+            for (Picture picture : fired) {
+                BigDecimal price = price(picture);
+                Date entryDate = picture.getEntryDate();
+
+                pictures--;
+                totalPrice = totalPrice.subtract(price);
+                extremeRemoved |= minPrice == null || oldestEntryDate == null
+                        || price.compareTo(minPrice) <= 0 || price.compareTo(maxPrice) >= 0
+                        || entryDate.getTime() < oldestEntryDate.getTime() + 1000
+                        || entryDate.getTime() > newestEntryDate.getTime() - 1000;
+                authors.computeIfPresent(picture.getAuthor(), (author, count) -> count > 1 ? count - 1 : null);
+            }
+            modifications++;
+            return extremeRemoved;
+        }
+
+        private synchronized boolean replaceIfUnchanged(long expectedModifications, ShopStatistics fresh) {
+            if (modifications != expectedModifications) {
+                return false;
+            }
+            copy(fresh);
+            return true;
+        }
+
+        /**
+         * @return true si las estadisticas no coincidian y se han sustituido
+         */
+        private synchronized boolean replaceIfDifferent(long expectedModifications, ShopStatistics fresh) {
+            if (modifications != expectedModifications || sameAs(fresh)) {
+                return false;
+            }
+            copy(fresh);
+            return true;
+        }
+
+        private void copy(ShopStatistics fresh) {
+            pictures = fresh.pictures;
+            totalPrice = fresh.totalPrice;
+            minPrice = fresh.minPrice;
+            maxPrice = fresh.maxPrice;
+            oldestEntryDate = fresh.oldestEntryDate;
+            newestEntryDate = fresh.newestEntryDate;
+            authors.clear();
+            authors.putAll(fresh.authors);
+            modifications++;
+        }
+
+        private boolean sameAs(ShopStatistics other) {
+            return pictures == other.pictures
+                    && totalPrice.compareTo(other.totalPrice) == 0
+                    && samePrice(minPrice, other.minPrice)
+                    && samePrice(maxPrice, other.maxPrice)
+                    && sameSecond(oldestEntryDate, other.oldestEntryDate)
+                    && sameSecond(newestEntryDate, other.newestEntryDate)
+                    && authors.equals(other.authors);
+        }
+
+        private synchronized ShopStatisticsDto toDto(Long idShop) {
+            ShopStatisticsDto dto = new ShopStatisticsDto();
+            dto.setIdShop(idShop);
+            dto.setPictures(pictures);
+            dto.setTotalPrice(totalPrice);
+            dto.setAveragePrice(pictures > 0
+                    ? totalPrice.divide(BigDecimal.valueOf(pictures), PRICE_SCALE, RoundingMode.HALF_UP)
+                    : null);
+            dto.setMinPrice(minPrice);
+            dto.setMaxPrice(maxPrice);
+            dto.setOldestEntryDate(oldestEntryDate);
+            dto.setNewestEntryDate(newestEntryDate);
+            dto.setPicturesByAuthor(new TreeMap<>(authors));
+            return dto;
+        }
+
+        private static boolean samePrice(BigDecimal a, BigDecimal b) {
+            return Objects.equals(a, b) || a != null && b != null && a.compareTo(b) == 0;
+        }
+
+        private static boolean sameSecond(Date a, Date b) {
+            return Objects.equals(a, b) || a != null && b != null && Math.abs(a.getTime() - b.getTime()) < 1000;
+        }
+    }
+}
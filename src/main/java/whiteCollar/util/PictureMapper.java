@@ -0,0 +1,29 @@
+package whiteCollar.util;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import whiteCollar.dto.PictureDto;
+import whiteCollar.entity.Picture;
+
+/**
+ * Interface de la capa Controller, define el mapeo de objetos de tipo Picture a objetos de tipo PictureDto.
+ *
+ * MapStruct genera su implementacion (PictureMapperImpl) en tiempo de compilacion, como codigo Java
+ * plano con llamadas directas a getters y setters, sin reflexion ni TypeMaps en tiempo de ejecucion.
+ *
+ * Anotaciones:
+ *
+ * @Mapper
+ * Marca la interface como un mapper de MapStruct; con componentModel = "spring" la implementacion
+ * generada es un @Component y puede inyectarse con @Autowired
+ *
+ * @Mapping
+ * Indica las propiedades cuyo nombre no coincide entre origen y destino
+ */
+@Mapper(componentModel = "spring")
+public interface PictureMapper {
+
+    @Mapping(target = "idPicture", source = "id")
+    @Mapping(target = "shopCapacity", source = "shop.capacity")
+    PictureDto toDto(Picture picture);
+}
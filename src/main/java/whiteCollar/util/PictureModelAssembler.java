@@ -1,24 +1,24 @@
 package whiteCollar.util;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
-import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
 import org.springframework.stereotype.Component;
-import whiteCollar.controller.ShopController;
 import whiteCollar.dto.PictureDto;
+import whiteCollar.dto.PictureSlimDto;
+import whiteCollar.dto.ShopDto;
+import whiteCollar.dto.ShopPicturesDto;
 import whiteCollar.entity.Picture;
+import whiteCollar.repository.PictureField;
 
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
-
 /**
  * Clase de la capa Controller
  *
@@ -29,9 +29,12 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
  * para que los DTO recopilen enlaces, un EntityModel simple que envuelve un objeto
  * de dominio y le agrega enlaces.
  *
- * Utiliza el objeto ModelMapper para realizar el mapeo de objetos de tipo Picture
- * a objetos de tipo PictureDto.
- * Marcada con la anotacion @Autowired, la clase ModelMapper es automaticamente detectada por Spring
+ * Utiliza el mapper PictureMapper, generado en tiempo de compilacion por MapStruct, para realizar
+ * el mapeo de objetos de tipo Picture a objetos de tipo PictureDto.
+ * Marcada con la anotacion @Autowired, la implementacion de PictureMapper es automaticamente detectada por Spring
+ *
+ * Los enlaces se construyen con ShopLinkTemplates, que resuelve las rutas una sola vez al arrancar
+ * y solo sustituye el id de la tienda en cada cuadro
  *
  * Anotaciones:
  *
@@ -47,7 +50,10 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 public class PictureModelAssembler implements RepresentationModelAssembler<Picture, EntityModel<PictureDto>> {
 
     @Autowired
-    private ModelMapper modelMapper;
+    private PictureMapper pictureMapper;
+
+    @Autowired
+    private ShopLinkTemplates shopLinkTemplates;
 
     /**
      * Metodo abstracto de la interfaz RepresentationModelAssembler
@@ -62,24 +68,63 @@ public class PictureModelAssembler implements RepresentationModelAssembler<Pictu
     public EntityModel<PictureDto> toModel(Picture picture) {
         PictureDto pictureDto = convertToDto(picture);
 
+        Long idShop = picture.getShop().getId();
+
+        return EntityModel.of(pictureDto,
+                shopLinkTemplates.newPicture(idShop),
+                shopLinkTemplates.deletePicturesByShop(idShop),
+                shopLinkTemplates.allPicturesByShop(idShop));
+    }
+
+    /**
+     * Añade los enlaces a un PictureDto ya construido, por ejemplo por una consulta de proyeccion
+     *
+     * @param pictureDto, objeto de tipo PictureDto
+     * @return objeto de tipo EntityModel que envuelve al PictureDto y le agrega enlaces
+     */
+    public EntityModel<PictureDto> toModel(PictureDto pictureDto) {
+        Long idShop = pictureDto.getIdShop();
+
         return EntityModel.of(pictureDto,
-                linkTo(methodOn(ShopController.class).newPicture(picture, picture.getShop().getId())).withSelfRel(),
-                linkTo(methodOn(ShopController.class).deletePicturesByShop(picture.getShop().getId())).withRel("delete"),
-                linkTo(methodOn(ShopController.class).allPicturesByShop(picture.getShop().getId())).withRel("all"));
+                shopLinkTemplates.newPicture(idShop),
+                shopLinkTemplates.deletePicturesByShop(idShop),
+                shopLinkTemplates.allPicturesByShop(idShop));
+    }
+
+    /**
+     * Construye la representacion reducida de una pagina de cuadros de una tienda: los datos de la tienda
+     * y sus enlaces (delete y all) una sola vez, y cada cuadro solo con el id y los campos pedidos.
+     * El enlace self de cada cuadro de la representacion completa tiene la misma URL que all, por lo que no se repite
+     *
+     * @param shop, tienda a la que pertenecen los cuadros
+     * @param pictures, cuadros de la pagina
+     * @param fields, campos de cada cuadro que se incluyen en la respuesta
+     * @return objeto de tipo ShopPicturesDto, al que el controlador añade los enlaces de paginacion
+     */
+    public ShopPicturesDto toSlimModel(ShopDto shop, List<PictureDto> pictures, Set<PictureField> fields) {
+        List<PictureSlimDto> slimPictures = pictures.stream()
+                .map(picture -> new PictureSlimDto(picture.getIdPicture(),
+                        fields.contains(PictureField.NAME) ? picture.getName() : null,
+                        fields.contains(PictureField.AUTHOR) ? picture.getAuthor() : null,
+                        fields.contains(PictureField.PRICE) ? picture.getPrice() : null,
+                        fields.contains(PictureField.ENTRY_DATE) ? picture.getEntryDate() : null))
+                .collect(Collectors.toList());
+
+        ShopPicturesDto shopPictures = new ShopPicturesDto(shop.getId(), shop.getCapacity(), slimPictures);
+        shopPictures.add(shopLinkTemplates.deletePicturesByShop(shop.getId()),
+                shopLinkTemplates.allPicturesByShop(shop.getId()));
+        return shopPictures;
     }
 
     /**
      * Realizar el mapeo de objetos de tipo Picture a objetos de tipo PictureDto, haciendo uso de un objeto
-     * de tipo ModelMapper qu es injectado en la clase mediante la anotacion @Autowired
+     * de tipo PictureMapper que es injectado en la clase mediante la anotacion @Autowired
      *
      * @param picture, objeto de tipo Picture
      * @return objeto de tipo PictureDto
      */
     public PictureDto convertToDto(Picture picture){
-        PictureDto pictureDto = modelMapper.map(picture, PictureDto.class);
-        pictureDto.setIdPicture(picture.getId());
-        pictureDto.setShopCapacity(picture.getShop().getCapacity());
-        return pictureDto;
+        return pictureMapper.toDto(picture);
     }
 
 }
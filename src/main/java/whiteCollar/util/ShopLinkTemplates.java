@@ -0,0 +1,143 @@
+package whiteCollar.util;
+
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import whiteCollar.controller.ShopController;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * Clase de la capa Controller, construye los enlaces de tiendas y cuadros que añaden los assemblers.
+ *
+ * Cada llamada a linkTo(methodOn(...)) crea un proxy CGLIB de ShopController y vuelve a resolver su mapeo,
+ * lo que en un listado de miles de cuadros supone miles de proxies. Aqui las rutas se resuelven una sola vez
+ * al arrancar, con linkTo(methodOn(...)) y un id de tienda centinela que despues se sustituye por el real.
+ * La parte comun de la URL (esquema, host, puerto y context path) se calcula una vez por peticion, con la
+ * misma maquinaria de Spring HATEOAS, y se guarda en los atributos de la peticion. Asi el href de cada enlace
+ * es identico al que devolveria linkTo(methodOn(...)), y expandirlo solo cuesta concatenar el id.
+ *
+ * Anotaciones:
+ * @Component
+ * Indica que la clase es un "componente" y permite que se detecte automaticamente a traves del escaneo
+ * del classpath
+ */
+@Component
+public class ShopLinkTemplates {
+
+    private static final Long SHOP_ID_SENTINEL = Long.MIN_VALUE;
+    private static final String BASE_URI_ATTRIBUTE = ShopLinkTemplates.class.getName() + ".BASE_URI";
+
+    private static final LinkRelation ALL = LinkRelation.of("all");
+    private static final LinkRelation DELETE = LinkRelation.of("delete");
+
+    private final String shopsPath;
+    private final ShopPath newPicturePath;
+    private final ShopPath deletePicturesPath;
+    private final ShopPath allPicturesPath;
+
+    public ShopLinkTemplates() {
+        this.shopsPath = allShopsHref();
+        this.newPicturePath = ShopPath.of(
+                linkTo(methodOn(ShopController.class).newPicture(null, SHOP_ID_SENTINEL)).withSelfRel().getHref());
+        this.deletePicturesPath = ShopPath.of(
+                linkTo(methodOn(ShopController.class).deletePicturesByShop(SHOP_ID_SENTINEL)).withSelfRel().getHref());
+        this.allPicturesPath = ShopPath.of(
+                linkTo(methodOn(ShopController.class).allPicturesByShop(SHOP_ID_SENTINEL, null, null, null, null))
+                        .withSelfRel().expand().getHref());
+    }
+
+    /**
+     * Enlace self de una tienda, equivale a linkTo(methodOn(ShopController.class).newShop(shop)).withSelfRel()
+     */
+    public Link newShop() {
+        return Link.of(baseUri() + shopsPath, IanaLinkRelations.SELF);
+    }
+
+    /**
+     * Enlace all de una tienda, equivale a linkTo(methodOn(ShopController.class).allShops(null, null, null))
+     * .withRel("all").expand()
+     */
+    public Link allShops() {
+        return Link.of(baseUri() + shopsPath, ALL);
+    }
+
+    /**
+     * Enlace self de un cuadro, equivale a linkTo(methodOn(ShopController.class).newPicture(picture, idShop))
+     * .withSelfRel()
+     */
+    public Link newPicture(Long idShop) {
+        return Link.of(newPicturePath.expand(baseUri(), idShop), IanaLinkRelations.SELF);
+    }
+
+    /**
+     * Enlace delete de un cuadro, equivale a linkTo(methodOn(ShopController.class).deletePicturesByShop(idShop))
+     * .withRel("delete")
+     */
+    public Link deletePicturesByShop(Long idShop) {
+        return Link.of(deletePicturesPath.expand(baseUri(), idShop), DELETE);
+    }
+
+    /**
+     * Enlace all de un cuadro, equivale a linkTo(methodOn(ShopController.class)
+     * .allPicturesByShop(idShop, null, null, null, null)).withRel("all").expand()
+     */
+    public Link allPicturesByShop(Long idShop) {
+        return Link.of(allPicturesPath.expand(baseUri(), idShop), ALL);
+    }
+
+    /**
+     * Parte comun de la URL para la peticion en curso. Se obtiene comparando el enlace de /shops generado
+     * con la peticion con el resuelto al arrancar; fuera de una peticion es vacia, igual que la ruta relativa
+     * que genera linkTo en ese caso.
+     */
+    private String baseUri() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return "";
+        }
+
+        String baseUri = (String) attributes.getAttribute(BASE_URI_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (baseUri == null) {
+            String href = allShopsHref();
+            baseUri = href.substring(0, href.length() - shopsPath.length());
+            attributes.setAttribute(BASE_URI_ATTRIBUTE, baseUri, RequestAttributes.SCOPE_REQUEST);
+        }
+        return baseUri;
+    }
+
+    private static String allShopsHref() {
+        return linkTo(methodOn(ShopController.class).allShops(null, null, null)).withSelfRel().expand().getHref();
+    }
+
+    /**
+     * Ruta de un recurso de tienda, partida por la posicion del id de tienda
+     */
+    private static final class ShopPath {
+
+        private final String prefix;
+        private final String suffix;
+
+        private ShopPath(String prefix, String suffix) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+
+        private static ShopPath of(String href) {
+            String sentinel = String.valueOf(SHOP_ID_SENTINEL);
+            int index = href.indexOf(sentinel);
+            if (index < 0) {
+                throw new IllegalStateException("Shop id not found in link template " + href);
+            }
+            return new ShopPath(href.substring(0, index), href.substring(index + sentinel.length()));
+        }
+
+        private String expand(String baseUri, Long idShop) {
+            return baseUri + prefix + idShop + suffix;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package whiteCollar.util;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import whiteCollar.dto.ShopDto;
+import whiteCollar.entity.Shop;
+
+/**
+ * Interface de la capa Controller, define el mapeo de objetos de tipo Shop a objetos de tipo ShopDto.
+ *
+ * MapStruct genera su implementacion (ShopMapperImpl) en tiempo de compilacion, como codigo Java
+ * plano con llamadas directas a getters y setters, sin reflexion ni TypeMaps en tiempo de ejecucion.
+ * ShopDto es inmutable, por lo que se construye con su constructor.
+ *
+ * Anotaciones:
+ *
+ * @Mapper
+ * Marca la interface como un mapper de MapStruct; con componentModel = "spring" la implementacion
+ * generada es un @Component y puede inyectarse con @Autowired
+ */
+@Mapper(componentModel = "spring")
+public interface ShopMapper {
+
+    ShopDto toDto(Shop shop);
+
+    /**
+     * Entidad Shop nueva, con los datos de la copia de la cache, para asociarla a los cuadros que se dan de alta
+     * (Picture.shop no se inserta; solo se usa para construir la respuesta)
+     */
+    @Mapping(target = "occupancy", ignore = true)
+    @Mapping(target = "pictures", ignore = true)
+    Shop toEntity(ShopDto shopDto);
+}
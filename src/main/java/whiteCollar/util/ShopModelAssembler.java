@@ -1,18 +1,12 @@
 package whiteCollar.util;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
-import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
 import org.springframework.stereotype.Component;
-import whiteCollar.controller.ShopController;
 import whiteCollar.dto.ShopDto;
 import whiteCollar.entity.Shop;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
-
 /**
  * Clase de la capa Controller
  *
@@ -23,9 +17,11 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
  * para que los DTO recopilen enlaces, un EntityModel simple que envuelve un objeto
  * de dominio y le agrega enlaces.
  *
- * Utiliza el objeto ModelMapper para realizar el mapeo de objetos de tipo Shop
- * a objetos de tipo ShopDto.
- * Marcada con la anotacion @Autowired, la clase ModelMapper es automaticamente detectada por Spring
+ * Utiliza el mapper ShopMapper, generado en tiempo de compilacion por MapStruct, para realizar
+ * el mapeo de objetos de tipo Shop a objetos de tipo ShopDto.
+ * Marcada con la anotacion @Autowired, la implementacion de ShopMapper es automaticamente detectada por Spring
+ *
+ * Los enlaces se construyen con ShopLinkTemplates, que resuelve las rutas una sola vez al arrancar
  *
  * Anotaciones:
  *
@@ -41,7 +37,10 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 public class ShopModelAssembler implements RepresentationModelAssembler<Shop, EntityModel<ShopDto>> {
 
     @Autowired
-    private ModelMapper modelMapper;
+    private ShopMapper shopMapper;
+
+    @Autowired
+    private ShopLinkTemplates shopLinkTemplates;
 
     /**
      * Metodo abstracto de la interfaz RepresentationModelAssembler
@@ -57,20 +56,42 @@ public class ShopModelAssembler implements RepresentationModelAssembler<Shop, En
         ShopDto shopDto = convertToDto(shop);
 
         return EntityModel.of(shopDto,
-                        linkTo(methodOn(ShopController.class).newShop(shop)).withSelfRel(),
-                        linkTo(methodOn(ShopController.class).allShops()).withRel("all"));
+                        shopLinkTemplates.newShop(),
+                        shopLinkTemplates.allShops());
+    }
+
+    /**
+     * Añade los enlaces a un ShopDto ya construido, por ejemplo por una consulta de proyeccion
+     *
+     * @param shopDto, objeto de tipo ShopDto
+     * @return objeto de tipo EntityModel que envuelve al ShopDto y le agrega enlaces
+     */
+    public EntityModel<ShopDto> toModel(ShopDto shopDto) {
+        return EntityModel.of(shopDto,
+                        shopLinkTemplates.newShop(),
+                        shopLinkTemplates.allShops());
     }
 
     /**
      * Realizar el mapeo de objetos de tipo Shop a objetos de tipo ShopDto, haciendo uso de un objeto
-     * de tipo ModelMapper qu es injectado en la clase mediante la anotacion @Autowired
+     * de tipo ShopMapper que es injectado en la clase mediante la anotacion @Autowired
      *
      * @param shop, objeto de tipo Shop
      * @return objeto de tipo ShopDto
      */
     public ShopDto convertToDto(Shop shop) {
-        ShopDto shopDto = modelMapper.map(shop, ShopDto.class);
-        return shopDto;
+        return shopMapper.toDto(shop);
+    }
+
+    /**
+     * Realizar el mapeo de un ShopDto (la copia inmutable de la cache de tiendas) a una entidad Shop nueva,
+     * para asociarla a los cuadros que se dan de alta sin compartir ni modificar la copia
+     *
+     * @param shopDto, objeto de tipo ShopDto
+     * @return objeto de tipo Shop, con el id, el nombre, la capacidad y la version de la copia
+     */
+    public Shop convertToEntity(ShopDto shopDto) {
+        return shopMapper.toEntity(shopDto);
     }
 
 }
@@ -0,0 +1,41 @@
+-- Tablas de tiendas y cuadros. Los indices de la tabla picture se crean en V2, con una version para cada
+-- base de datos (db/migration/mysql y db/migration/h2)
+
+CREATE TABLE `shop` (
+  `id_shop` int(11) NOT NULL AUTO_INCREMENT,
+  `name` varchar(250) NOT NULL DEFAULT 'White Collar',
+  `capacity` int(11) NOT NULL DEFAULT 10,
+  `occupancy` int(11) NOT NULL DEFAULT 0,
+  `version` bigint NOT NULL DEFAULT 0,
+  PRIMARY KEY (`id_shop`)
+);
+
+-- Version del listado de tiendas (una unica fila), avanza cada vez que se crea o modifica una tienda.
+-- Junto con shop.version, que avanza con cada alta o baja de cuadros, sirve para calcular los ETag
+CREATE TABLE `shop_list_version` (
+  `id` int(11) NOT NULL,
+  `version` bigint NOT NULL DEFAULT 0,
+  PRIMARY KEY (`id`)
+);
+
+
+
+CREATE TABLE `picture` (
+  `id_picture` int(11) NOT NULL,
+  `id_shop` int(11) NOT NULL,
+  `name` varchar(250) NOT NULL,
+  `author` varchar(250) NOT NULL DEFAULT 'ANONYMOUS',
+  `price` decimal(15,2) NOT NULL DEFAULT 0.00,
+  `entry_date` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id_shop`,`id_picture`),
+  CONSTRAINT `picture_fk` FOREIGN KEY (`id_shop`) REFERENCES `shop` (`id_shop`)
+);
+
+
+
+CREATE TABLE `shop_picture_sequence` (
+  `id_shop` int(11) NOT NULL,
+  `next_val` int(11) NOT NULL DEFAULT 1,
+  PRIMARY KEY (`id_shop`),
+  CONSTRAINT `shop_picture_sequence_fk` FOREIGN KEY (`id_shop`) REFERENCES `shop` (`id_shop`)
+);
@@ -1,3 +1,5 @@
+-- Tiendas y cuadros iniciales. Se cargan una sola vez, al crear la base de datos
+
 insert into shop () values ();
 insert into shop (name, capacity) values ('Black Collar',6);
 insert into shop (name, capacity) values ('Red Collar',5);
@@ -16,5 +18,11 @@ insert into picture (id_picture,id_shop,name,author,price) values(4,3,'Tres estu
 insert into picture (id_picture,id_shop,name,author,price) values(5,3,'La Noche Estrellada','Vincent Van Gogh', 130000000.9);
 
 
+update shop set occupancy = (select count(*) from picture where picture.id_shop = shop.id_shop);
 
+insert into shop_picture_sequence (id_shop, next_val)
+select shop.id_shop, coalesce(max(picture.id_picture), 0) + 1
+from shop left join picture on picture.id_shop = shop.id_shop
+group by shop.id_shop;
 
+insert into shop_list_version (id, version) values (1, 0);
@@ -0,0 +1,13 @@
+-- Mismos indices que db/migration/mysql/V2__create_picture_indexes.sql. H2 no admite la creacion de indices
+-- sin bloqueo, y solo se usa en los tests y benchmarks
+
+-- Indices para la paginacion por cursor (keyset) de los cuadros de una tienda ordenados por precio
+-- y por fecha de entrada; el orden por id usa la clave primaria (id_shop, id_picture)
+CREATE INDEX `picture_shop_price_idx` ON `picture` (`id_shop`, `price`, `id_picture`);
+CREATE INDEX `picture_shop_entry_date_idx` ON `picture` (`id_shop`, `entry_date`, `id_picture`);
+
+-- Indices para la busqueda de cuadros en todas las tiendas (GET /pictures/search), ordenada por precio,
+-- id_shop e id_picture: por autor, por comienzo del nombre (LIKE 'prefijo%') y por rango de precio
+CREATE INDEX `picture_author_price_idx` ON `picture` (`author`, `price`, `id_shop`, `id_picture`);
+CREATE INDEX `picture_name_idx` ON `picture` (`name`, `id_shop`, `id_picture`);
+CREATE INDEX `picture_price_idx` ON `picture` (`price`, `id_shop`, `id_picture`);
@@ -0,0 +1,7 @@
+-- Mismos indices que db/migration/mysql/V4__create_picture_entry_date_indexes.sql, sin la creacion sin bloqueo
+
+-- Indices para las clasificaciones por fecha de entrada de GET /pictures/top, global y de cada autor: la
+-- consulta de los primeros cuadros (orden entry_date, id_shop, id_picture descendente) los recorre hacia atras
+-- en lugar de leer y ordenar toda la tabla
+CREATE INDEX `picture_entry_date_idx` ON `picture` (`entry_date`, `id_shop`, `id_picture`);
+CREATE INDEX `picture_author_entry_date_idx` ON `picture` (`author`, `entry_date`, `id_shop`, `id_picture`);
@@ -0,0 +1,14 @@
+-- Los indices se crean sin bloquear la tabla (ALGORITHM=INPLACE, LOCK=NONE): las lecturas y escrituras
+-- sobre picture continuan mientras se construyen. Si MySQL no puede crear el indice asi, la migracion falla
+-- en lugar de bloquear la tabla. Las migraciones que añadan indices deben seguir el mismo patron
+
+-- Indices para la paginacion por cursor (keyset) de los cuadros de una tienda ordenados por precio
+-- y por fecha de entrada; el orden por id usa la clave primaria (id_shop, id_picture)
+CREATE INDEX `picture_shop_price_idx` ON `picture` (`id_shop`, `price`, `id_picture`) ALGORITHM=INPLACE LOCK=NONE;
+CREATE INDEX `picture_shop_entry_date_idx` ON `picture` (`id_shop`, `entry_date`, `id_picture`) ALGORITHM=INPLACE LOCK=NONE;
+
+-- Indices para la busqueda de cuadros en todas las tiendas (GET /pictures/search), ordenada por precio,
+-- id_shop e id_picture: por autor, por comienzo del nombre (LIKE 'prefijo%') y por rango de precio
+CREATE INDEX `picture_author_price_idx` ON `picture` (`author`, `price`, `id_shop`, `id_picture`) ALGORITHM=INPLACE LOCK=NONE;
+CREATE INDEX `picture_name_idx` ON `picture` (`name`, `id_shop`, `id_picture`) ALGORITHM=INPLACE LOCK=NONE;
+CREATE INDEX `picture_price_idx` ON `picture` (`price`, `id_shop`, `id_picture`) ALGORITHM=INPLACE LOCK=NONE;
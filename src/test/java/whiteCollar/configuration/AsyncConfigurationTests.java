@@ -0,0 +1,77 @@
+package whiteCollar.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Comprueba que las peticiones se atienden en el ejecutor acotado de AsyncConfiguration: con su unico hilo
+ * ocupado y sin cola, una peticion se rechaza con 503 y se cuenta en executor.rejected; con el hilo libre,
+ * la respuesta se completa de forma asincrona con los enlaces calculados contra la peticion.
+ */
+@SpringBootTest(properties = {
+        "whitecollar.async.pool-size=1",
+        "whitecollar.async.queue-capacity=0"})
+@AutoConfigureMockMvc
+class AsyncConfigurationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier(AsyncConfiguration.SHOP_EXECUTOR)
+    private AsyncTaskExecutor shopExecutor;
+
+    @Test
+    void requestsAreRejectedWhileTheExecutorIsFull() throws Exception {
+        double rejected = meterRegistry.get("executor.rejected").tag("name", AsyncConfiguration.SHOP_EXECUTOR)
+                .counter().count();
+
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> busy = shopExecutor.submit(() -> {
+            release.await();
+            return null;
+        });
+        try {
+            mockMvc.perform(get("/shops")).andExpect(status().isServiceUnavailable());
+        } finally {
+            release.countDown();
+            busy.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(rejected + 1, meterRegistry.get("executor.rejected").tag("name", AsyncConfiguration.SHOP_EXECUTOR)
+                .counter().count());
+        assertEquals(1.0, meterRegistry.get("executor.pool.size").tag("name", AsyncConfiguration.SHOP_EXECUTOR)
+                .gauge().value());
+    }
+
+    @Test
+    void requestsCompleteAsynchronouslyWithLinksToTheRequest() throws Exception {
+        MvcResult result = mockMvc.perform(get("/shops")).andReturn();
+        assertTrue(result.getRequest().isAsyncStarted());
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$._links.self.href").value("http://localhost/shops"));
+    }
+}
@@ -0,0 +1,147 @@
+package whiteCollar.configuration;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+import whiteCollar.service.IPictureService;
+import whiteCollar.service.IShopService;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Comprueba que los listados se sirven en CBOR y Smile segun la cabecera Accept, con la misma estructura HAL
+ * (_embedded, _links) y los mismos valores que en JSON, que JSON sigue siendo el formato por defecto y que cada
+ * formato tiene su propio ETag.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class BinaryMediaTypeTests {
+
+    private static final ObjectMapper JSON = new ObjectMapper()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    private static final ObjectMapper CBOR = new ObjectMapper(new CBORFactory());
+    private static final ObjectMapper SMILE = new ObjectMapper(new SmileFactory());
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IShopService iShopService;
+
+    @Autowired
+    private IPictureService iPictureService;
+
+    @Test
+    void picturesAreServedAsCborAndSmileWithTheHalStructure() throws Exception {
+        Shop shop = new Shop();
+        shop.setName("Binary Collar");
+        shop.setCapacity(2L);
+        Long shopId = iShopService.saveShop(shop).getId();
+        for (String price : new String[]{"130000000.90", "12.50"}) {
+            Picture picture = new Picture();
+            picture.setIdShop(shopId);
+            picture.setName("Binary " + price);
+            picture.setAuthor("Binary Author");
+            picture.setPrice(new BigDecimal(price));
+            iPictureService.savePicture(picture);
+        }
+        String url = "/shops/" + shopId + "/pictures";
+
+        JsonNode json = JSON.readTree(body(url, MediaTypes.HAL_JSON));
+        JsonNode cbor = CBOR.readTree(body(url, MediaType.APPLICATION_CBOR));
+        JsonNode smile = SMILE.readTree(body(url, WebMVCConfiguration.APPLICATION_SMILE));
+
+        assertTrue(cbor.at("/_embedded/pictureDtoList/0/_links/self/href").isTextual());
+        assertTrue(cbor.at("/_links/self/href").isTextual());
+        assertEquals(json, cbor);
+        assertEquals(json, smile);
+    }
+
+    @Test
+    void jsonRemainsTheDefault() throws Exception {
+        Shop shop = new Shop();
+        shop.setName("Default Collar");
+        shop.setCapacity(1L);
+        iShopService.saveShop(shop);
+
+        perform(get("/shops"))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith(MediaTypes.HAL_JSON));
+
+        perform(get("/shops").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR));
+    }
+
+    @Test
+    void etagsDependOnTheNegotiatedFormat() throws Exception {
+        Shop shop = new Shop();
+        shop.setName("Tagged Binary Collar");
+        shop.setCapacity(1L);
+        Long shopId = iShopService.saveShop(shop).getId();
+        Picture picture = new Picture();
+        picture.setIdShop(shopId);
+        picture.setName("Tagged Binary");
+        picture.setAuthor("Binary Author");
+        picture.setPrice(BigDecimal.TEN);
+        iPictureService.savePicture(picture);
+        String url = "/shops/" + shopId + "/pictures";
+
+        String jsonETag = perform(get(url).accept(MediaTypes.HAL_JSON))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String cborETag = perform(get(url).accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, jsonETag))
+                .andExpect(status().isCreated())
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(jsonETag, cborETag);
+
+        perform(get(url).accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, cborETag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)));
+        perform(get(url).accept(WebMVCConfiguration.APPLICATION_SMILE).header(HttpHeaders.IF_NONE_MATCH, cborETag))
+                .andExpect(status().isCreated());
+    }
+
+    private byte[] body(String url, MediaType mediaType) throws Exception {
+        return perform(get(url).accept(mediaType))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    /**
+     * Ejecuta la peticion y, si el controlador responde de forma asincrona, espera a la respuesta
+     */
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+}
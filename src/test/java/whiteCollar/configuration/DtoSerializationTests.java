@@ -0,0 +1,60 @@
+package whiteCollar.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import whiteCollar.dto.PictureDto;
+import whiteCollar.dto.ShopDto;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Comprueba que los serializadores propios de PictureDto y ShopDto (ver DtoSerializationModule) escriben
+ * exactamente los mismos bytes que el serializador generico de Jackson, tambien con campos vacios, fechas
+ * leidas de la base de datos (java.sql.Timestamp) y dentro de un EntityModel.
+ */
+@SpringBootTest
+class DtoSerializationTests {
+
+    private static final ObjectMapper REFLECTIVE = new ObjectMapper().setTimeZone(TimeZone.getDefault());
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void picturesAreWrittenByteForByteAsBefore() throws Exception {
+        PictureDto morning = new PictureDto(42L, 7L, 5000L, "La Noche \"Estrellada\"", "Vincent Van Gogh",
+                new BigDecimal("130000000.90"), new Date(1_600_000_000_123L));
+        PictureDto afternoon = new PictureDto(43L, 7L, 5000L, "Los girasoles", "Vincent Van Gogh",
+                new BigDecimal("1E+3"), Timestamp.valueOf("2021-03-14 15:09:26.535897"));
+        PictureDto empty = new PictureDto();
+
+        assertSameBytes(morning);
+        assertSameBytes(afternoon);
+        assertSameBytes(empty);
+        assertSameBytes(List.of(morning, afternoon, empty));
+        assertSameBytes(EntityModel.of(morning, Link.of("http://localhost/shops/7/pictures")));
+    }
+
+    @Test
+    void shopsAreWrittenByteForByteAsBefore() throws Exception {
+        ShopDto shop = new ShopDto(7L, "White Collar", 5000L, 3L);
+
+        assertSameBytes(shop);
+        assertSameBytes(new ShopDto(null, null, null, null));
+        assertSameBytes(EntityModel.of(shop, Link.of("http://localhost/shops")));
+    }
+
+    private void assertSameBytes(Object value) throws Exception {
+        assertArrayEquals(REFLECTIVE.writeValueAsBytes(value), objectMapper.writeValueAsBytes(value));
+    }
+}
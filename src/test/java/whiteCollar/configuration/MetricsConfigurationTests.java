@@ -0,0 +1,101 @@
+package whiteCollar.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import whiteCollar.entity.Shop;
+import whiteCollar.service.IShopService;
+import whiteCollar.service.ShopServiceImpl;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Comprueba que las peticiones HTTP y los metodos de servicio se registran con la etiqueta del grupo
+ * de la tienda, y que el endpoint Prometheus publica los histogramas y las metricas de Hibernate, Hikari
+ * y de la cache de tiendas.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "management.endpoints.web.exposure.include=prometheus",
+        "management.metrics.distribution.slo.http.server.requests=5ms,1s",
+        "whitecollar.metrics.shop-buckets=4"})
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class MetricsConfigurationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private IShopService iShopService;
+
+    @Test
+    void requestsAndServiceCallsAreTaggedWithTheShopBucket() throws Exception {
+        Long shopId = newShop("Measured Collar");
+        String bucket = String.valueOf(shopId % 4);
+
+        perform(get("/shops/" + shopId + "/stats")).andExpect(status().isOk());
+
+        assertEquals(1, meterRegistry.get("http.server.requests")
+                .tag("uri", "/shops/{id}/stats")
+                .tag(MetricsConfiguration.SHOP_BUCKET_TAG, bucket)
+                .timer().count());
+        assertNotNull(meterRegistry.get("whitecollar.service")
+                .tag("class", ShopServiceImpl.class.getName())
+                .tag("method", "findShopById")
+                .tag(MetricsConfiguration.SHOP_BUCKET_TAG, bucket)
+                .timer());
+        iShopService.shopListVersion();
+        assertNotNull(meterRegistry.get("whitecollar.service")
+                .tag("method", "shopListVersion")
+                .tag(MetricsConfiguration.SHOP_BUCKET_TAG, "none")
+                .timer());
+    }
+
+    @Test
+    void prometheusEndpointPublishesHistogramsHibernateHikariAndCacheMetrics() throws Exception {
+        perform(get("/shops")).andExpect(status().is2xxSuccessful());
+
+        perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+                .andExpect(content().string(containsString("le=\"0.005\"")))
+                .andExpect(content().string(containsString("whitecollar_service_seconds_count{")))
+                .andExpect(content().string(containsString("hibernate_query_executions_total")))
+                .andExpect(content().string(containsString("hibernate_entities_loads_total")))
+                .andExpect(content().string(containsString("cache_gets_total{")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")));
+    }
+
+    private Long newShop(String name) {
+        Shop shop = new Shop();
+        shop.setName(name);
+        shop.setCapacity(10L);
+        return iShopService.saveShop(shop).getId();
+    }
+
+    /**
+     * Ejecuta la peticion y, si el controlador responde de forma asincrona, espera a la respuesta
+     */
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+}
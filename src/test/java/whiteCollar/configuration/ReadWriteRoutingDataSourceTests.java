@@ -0,0 +1,118 @@
+package whiteCollar.configuration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import whiteCollar.dto.ShopDto;
+import whiteCollar.entity.Shop;
+import whiteCollar.service.IShopService;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba el enrutado de lecturas con tres bases de datos H2: la principal (testdb) y dos replicas,
+ * cada una con una tienda propia que permite saber de donde se ha leido. Las transacciones de solo lectura
+ * van a las replicas por turnos, cada transaccion entera a una sola replica; las escrituras, las lecturas dentro
+ * de una escritura y la busqueda de tiendas por id que llena la cache, a la principal.
+ */
+@SpringBootTest(properties = {
+        "whitecollar.datasource.routing.enabled=true",
+        "whitecollar.datasource.replica-urls=" + ReadWriteRoutingDataSourceTests.REPLICA_0 + ","
+                + ReadWriteRoutingDataSourceTests.REPLICA_1,
+        "whitecollar.datasource.replica-selection=round-robin"})
+class ReadWriteRoutingDataSourceTests {
+
+    static final String REPLICA_0 = "jdbc:h2:mem:replica0;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_1 = "jdbc:h2:mem:replica1;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private IShopService iShopService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void seedReplicas() {
+        List<String> replicas = List.of(REPLICA_0, REPLICA_1);
+        for (int i = 0; i < replicas.size(); i++) {
+            DriverManagerDataSource replica = new DriverManagerDataSource(replicas.get(i), "sa", "");
+            Flyway flyway = Flyway.configure()
+                    .dataSource(replica)
+                    .locations(SchemaMigrationTests.LOCATIONS)
+                    .load();
+            flyway.clean();
+            flyway.migrate();
+            new JdbcTemplate(replica).update("INSERT INTO shop (name, capacity) VALUES (?, 10)", "Replica " + i);
+        }
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicasInTurn() {
+        String first = replicaName(shopNames());
+        String second = replicaName(shopNames());
+        String third = replicaName(shopNames());
+
+        assertNotEquals(first, second);
+        assertEquals(first, third);
+    }
+
+    @Test
+    void writesAndReadsInsideAWriteGoToThePrimary() {
+        Shop shop = new Shop();
+        shop.setName("Primary Collar");
+        shop.setCapacity(10L);
+        iShopService.saveShop(shop);
+
+        assertFalse(shopNames().contains("Primary Collar"));
+
+        List<String> insideWrite = transactionTemplate.execute(status -> shopNames());
+        assertTrue(insideWrite.contains("Primary Collar"));
+        assertTrue(insideWrite.stream().noneMatch(name -> name.startsWith("Replica")));
+    }
+
+    @Test
+    void readsInOneReadOnlyTransactionUseASingleReplica() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnly.setReadOnly(true);
+
+        for (int i = 0; i < 2; i++) {
+            List<String> replicas = readOnly.execute(status -> List.of(replicaName(shopNames()), replicaName(shopNames())));
+            assertEquals(replicas.get(0), replicas.get(1));
+        }
+    }
+
+    @Test
+    void shopLookupsFillTheCacheFromThePrimary() {
+        Shop shop = new Shop();
+        shop.setName("Cached Primary Collar");
+        shop.setCapacity(10L);
+        Long shopId = iShopService.saveShop(shop).getId();
+
+        assertFalse(shopNames().contains("Cached Primary Collar"));
+        assertEquals("Cached Primary Collar", iShopService.findShopById(shopId).orElseThrow().getName());
+    }
+
+    private List<String> shopNames() {
+        return iShopService.listShops(null, null, 100).getContent().stream()
+                .map(ShopDto::getName)
+                .collect(Collectors.toList());
+    }
+
+    private static String replicaName(List<String> names) {
+        return names.stream()
+                .filter(name -> name.startsWith("Replica"))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,86 @@
+package whiteCollar.configuration;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba las migraciones del esquema sobre una base de datos H2 propia: la primera ejecucion crea las tablas
+ * y carga los datos iniciales, y las siguientes no aplican nada, conservan los datos y tardan lo mismo con una
+ * tabla picture de unas pocas filas que con una de BULK_PICTURES filas.
+ *
+ * Solo se mide Flyway, no el arranque de la aplicacion: los servicios que cargan en memoria las estadisticas,
+ * las sugerencias y las clasificaciones recorren la tabla picture al arrancar, y ese tiempo si crece con ella.
+ */
+class SchemaMigrationTests {
+
+    static final String[] LOCATIONS = {"classpath:db/migration/common", "classpath:db/migration/h2"};
+
+    private static final int BULK_PICTURES = 100_000;
+    private static final int RESTARTS = 5;
+
+    @Test
+    void migrationsAreNoOpsOnRestartAndKeepTheData() {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:migrations" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        MigrateResult firstBoot = flyway(dataSource).migrate();
+        assertTrue(firstBoot.migrationsExecuted > 0);
+        for (MigrationInfo migration : flyway(dataSource).info().applied()) {
+            assertNotNull(migration.getChecksum(), migration.getScript());
+        }
+        long seedPictures = pictures(jdbcTemplate);
+        assertTrue(seedPictures > 0);
+
+        Duration smallTable = restart(dataSource);
+        assertEquals(seedPictures, pictures(jdbcTemplate));
+
+        jdbcTemplate.update("INSERT INTO picture (id_picture, id_shop, name, author, price) "
+                + "SELECT X, 1, CONCAT('Bulk ', X), 'Bulk Author', X FROM SYSTEM_RANGE(1000, ?)", 1000 + BULK_PICTURES - 1);
+        Duration largeTable = restart(dataSource);
+        assertEquals(seedPictures + BULK_PICTURES, pictures(jdbcTemplate));
+
+        assertTrue(largeTable.compareTo(smallTable.multipliedBy(5).plusMillis(250)) < 0,
+                "Migrations took " + largeTable.toMillis() + " ms with " + BULK_PICTURES + " pictures and "
+                        + smallTable.toMillis() + " ms without them");
+    }
+
+    /**
+     * Vuelve a ejecutar varias veces las migraciones sobre la misma base de datos, como en cada arranque
+     *
+     * @return duracion de la ejecucion mas rapida, para descartar las pausas del recolector de basura y del JIT
+     */
+    private static Duration restart(DataSource dataSource) {
+        Duration fastest = null;
+        for (int i = 0; i < RESTARTS; i++) {
+            long start = System.nanoTime();
+            MigrateResult result = flyway(dataSource).migrate();
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            assertEquals(0, result.migrationsExecuted);
+            fastest = fastest == null || elapsed.compareTo(fastest) < 0 ? elapsed : fastest;
+        }
+        return fastest;
+    }
+
+    private static Flyway flyway(DataSource dataSource) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations(LOCATIONS)
+                .load();
+    }
+
+    private static long pictures(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM picture", Long.class);
+    }
+}
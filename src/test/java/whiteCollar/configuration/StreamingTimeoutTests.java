@@ -0,0 +1,90 @@
+package whiteCollar.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+import whiteCollar.service.IPictureService;
+import whiteCollar.service.IShopService;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Comprueba, sobre un servidor real (MockMvc no aplica los limites de tiempo), que una exportacion NDJSON
+ * que tarda mas que whitecollar.async.request-timeout se escribe completa en lugar de cortarse con 503, y que
+ * se escribe en streamingExecutor y no en el ejecutor de peticiones.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "whitecollar.async.request-timeout=500")
+class StreamingTimeoutTests {
+
+    private static final long EXPORT_DELAY = 1500;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private IShopService iShopService;
+
+    @SpyBean
+    private IPictureService iPictureService;
+
+    @Test
+    void slowExportsAreNotCutOffByTheRequestTimeout() {
+        Long shopId = shopWithTwoPictures("Slow Export");
+
+        doAnswer(invocation -> {
+            Thread.sleep(EXPORT_DELAY);
+            return invocation.callRealMethod();
+        }).when(iPictureService).exportPicturesByShop(eq(shopId), any());
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/shops/" + shopId + "/pictures/export", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().lines().count());
+    }
+
+    @Test
+    void exportsAreWrittenOnTheStreamingExecutor() {
+        Long shopId = shopWithTwoPictures("Streaming Export");
+
+        AtomicReference<String> thread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            thread.set(Thread.currentThread().getName());
+            return invocation.callRealMethod();
+        }).when(iPictureService).exportPicturesByShop(eq(shopId), any());
+
+        ResponseEntity<String> response = restTemplate.getForEntity("/shops/" + shopId + "/pictures/export", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(thread.get().startsWith("streaming-"), thread.get());
+    }
+
+    private Long shopWithTwoPictures(String name) {
+        Shop shop = new Shop();
+        shop.setName(name + " Collar");
+        shop.setCapacity(2L);
+        Long shopId = iShopService.saveShop(shop).getId();
+        for (int i = 0; i < 2; i++) {
+            Picture picture = new Picture();
+            picture.setIdShop(shopId);
+            picture.setName(name + " " + i);
+            picture.setAuthor("Slow Author");
+            picture.setPrice(BigDecimal.TEN);
+            iPictureService.savePicture(picture);
+        }
+        return shopId;
+    }
+}
@@ -0,0 +1,105 @@
+package whiteCollar.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import whiteCollar.dto.PictureDto;
+import whiteCollar.dto.ShopDto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Recorre las rutas de la variante reactiva (perfil reactive) sobre Netty y R2DBC, con la misma base de datos
+ * H2 que los demas tests: alta de una tienda, alta de cuadros hasta llenarla, listado en NDJSON, borrado
+ * de los cuadros y respuestas de error, incluido un id de tienda que no es un numero.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "whitecollar.r2dbc.url=r2dbc:h2:mem:///testdb?options=DB_CLOSE_DELAY=-1;MODE=MySQL;LOCK_TIMEOUT=10000",
+        "whitecollar.r2dbc.username="})
+@ActiveProfiles("reactive")
+class ReactiveShopHandlerTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    void runsOnWebFluxWithoutTheServletController() {
+        assertFalse(applicationContext.containsBean("shopController"));
+    }
+
+    @Test
+    void shopsAndPicturesRoundTrip() {
+        ShopDto shop = webTestClient.post().uri("/shops")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("name", "Reactive Collar", "capacity", 2))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(ShopDto.class).returnResult().getResponseBody();
+        assertNotNull(shop);
+        String pictures = "/shops/" + shop.getId() + "/pictures";
+
+        postPicture(pictures, "First").expectStatus().isCreated();
+        postPicture(pictures, "Second").expectStatus().isCreated();
+        postPicture(pictures, "Third").expectStatus().isBadRequest();
+
+        List<PictureDto> listed = webTestClient.get().uri(pictures)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(PictureDto.class).getResponseBody()
+                .collectList().block();
+        assertNotNull(listed);
+        assertEquals(List.of("First", "Second"), listed.stream().map(PictureDto::getName).collect(Collectors.toList()));
+        assertEquals(List.of(1L, 2L), listed.stream().map(PictureDto::getIdPicture).collect(Collectors.toList()));
+
+        List<ShopDto> shops = webTestClient.get().uri("/shops")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(ShopDto.class).returnResult().getResponseBody();
+        assertNotNull(shops);
+        assertEquals(1, shops.stream().filter(listedShop -> listedShop.getId().equals(shop.getId())).count());
+
+        webTestClient.delete().uri(pictures).exchange().expectStatus().isNoContent();
+        webTestClient.get().uri(pictures).exchange()
+                .expectStatus().isOk()
+                .expectBodyList(PictureDto.class).hasSize(0);
+        postPicture(pictures, "After Delete").expectStatus().isCreated();
+    }
+
+    @Test
+    void invalidBodiesAndUnknownShopsAreRejected() {
+        webTestClient.post().uri("/shops")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("name", "Without Capacity"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.errors[0]").isEqualTo("capacity is required");
+
+        webTestClient.get().uri("/shops/-1/pictures").exchange().expectStatus().isNotFound();
+        postPicture("/shops/-1/pictures", "Nowhere").expectStatus().isNotFound();
+
+        webTestClient.get().uri("/shops/abc/pictures").exchange().expectStatus().isBadRequest();
+        webTestClient.delete().uri("/shops/abc/pictures").exchange().expectStatus().isBadRequest();
+    }
+
+    private WebTestClient.ResponseSpec postPicture(String uri, String name) {
+        return webTestClient.post().uri(uri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("name", name, "author", "Reactive Author", "price", 10))
+                .exchange();
+    }
+}
@@ -0,0 +1,121 @@
+package whiteCollar.controller;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import whiteCollar.entity.Shop;
+import whiteCollar.service.IShopService;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Comprueba los ETag de GET /shops y GET /shops/{id}/pictures: una peticion condicional con el ETag vigente
+ * recibe 304 sin cargar entidades, y el ETag cambia al crear tiendas y al dar de alta o baja cuadros.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class ShopControllerETagTests {
+
+    private static final String PICTURE = "{\"name\":\"Tagged Picture\",\"author\":\"Tagged Author\",\"price\":10}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IShopService iShopService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void picturesETagChangesWithInsertsAndDeletes() throws Exception {
+        Long shopId = newShop("Tagged Collar");
+        String url = "/shops/" + shopId + "/pictures";
+
+        postPicture(shopId);
+        String etag = etag(url);
+        assertNotModifiedWithoutLoading(url, etag);
+
+        postPicture(shopId);
+        String afterInsert = etag(url);
+        assertNotEquals(etag, afterInsert);
+        assertNotModifiedWithoutLoading(url, afterInsert);
+
+        perform(delete(url)).andExpect(status().isNoContent());
+        perform(get(url).header(HttpHeaders.IF_NONE_MATCH, afterInsert))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void shopsETagChangesWhenAShopIsCreated() throws Exception {
+        String etag = etag("/shops");
+        assertNotModifiedWithoutLoading("/shops", etag);
+
+        newShop("Another Tagged Collar");
+
+        perform(get("/shops").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isCreated());
+        assertNotEquals(etag, etag("/shops"));
+    }
+
+    private void assertNotModifiedWithoutLoading(String url, String etag) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long loads = statistics.getEntityLoadCount();
+
+        perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        assertEquals(loads, statistics.getEntityLoadCount());
+    }
+
+    private String etag(String url) throws Exception {
+        String etag = perform(get(url))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+
+    private void postPicture(Long shopId) throws Exception {
+        perform(post("/shops/" + shopId + "/pictures")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(PICTURE))
+                .andExpect(status().isCreated());
+    }
+
+    private Long newShop(String name) {
+        Shop shop = new Shop();
+        shop.setName(name);
+        shop.setCapacity(10L);
+        return iShopService.saveShop(shop).getId();
+    }
+
+    /**
+     * Ejecuta la peticion y, si el controlador responde de forma asincrona, espera a la respuesta
+     */
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+}
@@ -0,0 +1,143 @@
+package whiteCollar.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+import whiteCollar.repository.Keyset;
+import whiteCollar.repository.PictureSort;
+import whiteCollar.service.IPictureService;
+import whiteCollar.service.IShopService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Recorre el listado paginado de cuadros de una tienda siguiendo los enlaces next y prev,
+ * y comprueba que se visitan todos los cuadros una sola vez y en el orden solicitado.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ShopControllerPaginationTests {
+
+    private static final int[] PRICES = {300, 100, 200, 100, 500, 100, 400};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IShopService iShopService;
+
+    @Autowired
+    private IPictureService iPictureService;
+
+    @Test
+    void keysetPagesFollowNextAndPrevLinks() throws Exception {
+        Shop shop = new Shop();
+        shop.setName("Paged Collar");
+        shop.setCapacity((long) PRICES.length);
+        Long shopId = iShopService.saveShop(shop).getId();
+
+        for (int price : PRICES) {
+            Picture picture = new Picture();
+            picture.setIdShop(shopId);
+            picture.setName("Price " + price);
+            picture.setAuthor("Paged Author");
+            picture.setPrice(BigDecimal.valueOf(price));
+            iPictureService.savePicture(picture);
+        }
+
+        List<Integer> forward = new ArrayList<>();
+        String url = "/shops/" + shopId + "/pictures?sort=price&size=2";
+        String last = null;
+        while (url != null) {
+            String body = perform(get(url)).andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            forward.addAll(prices(body));
+            last = body;
+            url = link(body, "next");
+        }
+        assertEquals(List.of(100, 100, 100, 200, 300, 400, 500), forward);
+
+        List<Integer> backward = new ArrayList<>();
+        url = link(last, "prev");
+        while (url != null) {
+            String body = perform(get(url)).andExpect(status().isCreated())
+                    .andReturn().getResponse().getContentAsString();
+            backward.addAll(0, prices(body));
+            url = link(body, "prev");
+        }
+        assertEquals(forward.subList(0, 6), backward);
+    }
+
+    @Test
+    void invalidCursorIsRejected() throws Exception {
+        perform(get("/shops/1/pictures?sort=price&after=not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        perform(get("/shops/1/pictures?sort=weight"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void tamperedCursorValueIsRejected() throws Exception {
+        Shop shop = new Shop();
+        shop.setName("Tampered Collar");
+        shop.setCapacity(1L);
+        Long shopId = iShopService.saveShop(shop).getId();
+        Picture picture = new Picture();
+        picture.setIdShop(shopId);
+        picture.setName("Tampered");
+        picture.setAuthor("Paged Author");
+        picture.setPrice(BigDecimal.TEN);
+        iPictureService.savePicture(picture);
+
+        for (PictureSort sort : PictureSort.values()) {
+            String cursor = Keyset.of(sort.name(), "not-a-" + sort.getAttribute(), 1L).encode();
+            String url = "/shops/" + shopId + "/pictures?sort=" + sort.getAttribute();
+            perform(get(url + "&after=" + cursor))
+                    .andExpect(status().isBadRequest());
+            perform(get(url + "&before=" + cursor))
+                    .andExpect(status().isBadRequest());
+            perform(get(url + "&view=slim&after=" + cursor))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    private static List<Integer> prices(String body) {
+        List<Number> prices = JsonPath.read(body, "$._embedded.pictureDtoList[*].price");
+        return prices.stream().map(Number::intValue).collect(Collectors.toList());
+    }
+
+    private static String link(String body, String rel) {
+        Map<String, Object> links = JsonPath.read(body, "$._links");
+        if (!links.containsKey(rel)) {
+            return null;
+        }
+        String href = JsonPath.read(body, "$._links." + rel + ".href");
+        return href.replace("http://localhost", "");
+    }
+
+    /**
+     * Ejecuta la peticion y, si el controlador responde de forma asincrona, espera a la respuesta
+     */
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+}
@@ -0,0 +1,96 @@
+package whiteCollar.controller;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+import whiteCollar.service.IPictureService;
+import whiteCollar.service.IShopService;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Comprueba que el numero de sentencias SQL de GET /shops/{id}/pictures no depende del numero de cuadros
+ * de la tienda, es decir, que la tienda de cada cuadro no se carga de forma perezosa al construir la respuesta.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class ShopControllerQueryCountTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IShopService iShopService;
+
+    @Autowired
+    private IPictureService iPictureService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void pictureListingStatementCountDoesNotGrowWithTheShop() throws Exception {
+        Shop shop = new Shop();
+        shop.setName("Growing Collar");
+        shop.setCapacity(100L);
+        Long shopId = iShopService.saveShop(shop).getId();
+
+        iPictureService.savePictures(shopId, pictures(2)).orElseThrow();
+        long smallShop = statements("/shops/" + shopId + "/pictures?size=100");
+
+        iPictureService.savePictures(shopId, pictures(60)).orElseThrow();
+        long largeShop = statements("/shops/" + shopId + "/pictures?size=100");
+
+        assertEquals(smallShop, largeShop);
+    }
+
+    /**
+     * Numero de sentencias preparadas por una peticion, una vez que la tienda esta en la cache
+     */
+    private long statements(String url) throws Exception {
+        perform(get(url)).andExpect(status().is2xxSuccessful());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+        perform(get(url)).andExpect(status().is2xxSuccessful());
+        return statistics.getPrepareStatementCount() - before;
+    }
+
+    private static List<Picture> pictures(int count) {
+        List<Picture> pictures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Picture picture = new Picture();
+            picture.setName("Growing " + i);
+            picture.setAuthor("Growing Author");
+            picture.setPrice(BigDecimal.valueOf(i));
+            pictures.add(picture);
+        }
+        return pictures;
+    }
+
+    /**
+     * Ejecuta la peticion y, si el controlador responde de forma asincrona, espera a la respuesta
+     */
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+}
@@ -0,0 +1,138 @@
+package whiteCollar.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+import whiteCollar.service.IPictureService;
+import whiteCollar.service.IShopService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Busca cuadros de varias tiendas por autor, comienzo del nombre, rango de precio y tienda, y recorre
+ * el resultado paginado siguiendo los enlaces next y prev, con empates de precio entre tiendas.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ShopControllerSearchTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IShopService iShopService;
+
+    @Autowired
+    private IPictureService iPictureService;
+
+    @Test
+    void searchPagesAcrossShopsFollowNextAndPrevLinks() throws Exception {
+        String author = "SearchAuthor" + System.nanoTime();
+        Long first = saveShop("Search Collar A", 4);
+        Long second = saveShop("Search Collar B", 4);
+        savePicture(first, "Sunset", author, 100);
+        savePicture(first, "Sunrise", author, 300);
+        savePicture(first, "Moon", author, 200);
+        savePicture(first, "Sun_flower", "Someone Else", 200);
+        savePicture(second, "Sundial", author, 100);
+        savePicture(second, "Sunspot", author, 200);
+        savePicture(second, "Storm", author, 500);
+
+        List<String> forward = new ArrayList<>();
+        String url = "/pictures/search?author=" + author + "&size=2";
+        String last = null;
+        while (url != null) {
+            String body = perform(get(url)).andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            forward.addAll(names(body));
+            last = body;
+            url = link(body, "next");
+        }
+        assertEquals(List.of("Sunset", "Sundial", "Moon", "Sunspot", "Sunrise", "Storm"), forward);
+
+        List<String> backward = new ArrayList<>();
+        url = link(last, "prev");
+        while (url != null) {
+            String body = perform(get(url)).andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            backward.addAll(0, names(body));
+            url = link(body, "prev");
+        }
+        assertEquals(forward.subList(0, 4), backward);
+
+        String body = perform(get("/pictures/search?author=" + author + "&namePrefix=Sun&minPrice=150&maxPrice=300"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(List.of("Sunspot", "Sunrise"), names(body));
+
+        body = perform(get("/pictures/search?namePrefix=Sun_&shopId=" + first))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(List.of("Sun_flower"), names(body));
+
+        perform(get("/pictures/search?author=" + author + "&shopId=" + second + "&minPrice=600"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void invalidSearchIsRejected() throws Exception {
+        perform(get("/pictures/search?minPrice=20&maxPrice=10"))
+                .andExpect(status().isBadRequest());
+        perform(get("/pictures/search?after=not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Long saveShop(String name, long capacity) {
+        Shop shop = new Shop();
+        shop.setName(name);
+        shop.setCapacity(capacity);
+        return iShopService.saveShop(shop).getId();
+    }
+
+    private void savePicture(Long shopId, String name, String author, int price) {
+        Picture picture = new Picture();
+        picture.setIdShop(shopId);
+        picture.setName(name);
+        picture.setAuthor(author);
+        picture.setPrice(BigDecimal.valueOf(price));
+        iPictureService.savePicture(picture);
+    }
+
+    private static List<String> names(String body) {
+        return JsonPath.read(body, "$._embedded.pictureDtoList[*].name");
+    }
+
+    private static String link(String body, String rel) {
+        Map<String, Object> links = JsonPath.read(body, "$._links");
+        if (!links.containsKey(rel)) {
+            return null;
+        }
+        String href = JsonPath.read(body, "$._links." + rel + ".href");
+        return href.replace("http://localhost", "");
+    }
+
+    /**
+     * Ejecuta la peticion y, si el controlador responde de forma asincrona, espera a la respuesta
+     */
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+}
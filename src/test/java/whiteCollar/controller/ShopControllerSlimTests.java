@@ -0,0 +1,174 @@
+package whiteCollar.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import whiteCollar.configuration.WebMVCConfiguration;
+import whiteCollar.dto.PictureDto;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+import whiteCollar.repository.PictureField;
+import whiteCollar.repository.PictureSort;
+import whiteCollar.service.IPictureService;
+import whiteCollar.service.IShopService;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Comprueba la representacion reducida del listado de cuadros de una tienda: los datos y enlaces de la tienda
+ * una sola vez en el sobre, los cuadros sin enlaces y solo con los campos pedidos, la paginacion por cursor,
+ * y que la consulta solo lee las columnas pedidas.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ShopControllerSlimTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IShopService iShopService;
+
+    @Autowired
+    private IPictureService iPictureService;
+
+    @Test
+    void slimViewHoistsShopFieldsAndLinksOntoTheEnvelope() throws Exception {
+        Long shopId = saveShopWithPictures("Slim Collar", 3);
+
+        perform(get("/shops/" + shopId + "/pictures?view=slim&size=2"))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith(WebMVCConfiguration.APPLICATION_SLIM_JSON))
+                .andExpect(jsonPath("$.idShop").value(shopId))
+                .andExpect(jsonPath("$.shopCapacity").value(3))
+                .andExpect(jsonPath("$.pictures.length()").value(2))
+                .andExpect(jsonPath("$.pictures[0].idPicture").exists())
+                .andExpect(jsonPath("$.pictures[0].name").value("Slim 0"))
+                .andExpect(jsonPath("$.pictures[0].entryDate").exists())
+                .andExpect(jsonPath("$.pictures[0].idShop").doesNotExist())
+                .andExpect(jsonPath("$.pictures[0].shopCapacity").doesNotExist())
+                .andExpect(jsonPath("$.pictures[0]._links").doesNotExist())
+                .andExpect(jsonPath("$._links.all.href").value("http://localhost/shops/" + shopId + "/pictures"))
+                .andExpect(jsonPath("$._links.delete.href").value("http://localhost/shops/" + shopId + "/pictures"))
+                .andExpect(jsonPath("$._links.next.href").exists());
+    }
+
+    @Test
+    void slimViewIsSelectedByMediaType() throws Exception {
+        Long shopId = saveShopWithPictures("Slim Media Collar", 1);
+
+        perform(get("/shops/" + shopId + "/pictures").accept(WebMVCConfiguration.APPLICATION_SLIM_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith(WebMVCConfiguration.APPLICATION_SLIM_JSON))
+                .andExpect(jsonPath("$.idShop").value(shopId))
+                .andExpect(jsonPath("$.pictures[0].name").value("Slim Media 0"))
+                .andExpect(jsonPath("$._embedded").doesNotExist());
+
+        perform(get("/shops/" + shopId + "/pictures"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$._embedded.pictureDtoList[0].shopCapacity").value(1));
+    }
+
+    @Test
+    void sparseFieldsetsPageThroughTheShop() throws Exception {
+        Long shopId = saveShopWithPictures("Sparse Collar", 5);
+
+        List<String> names = new ArrayList<>();
+        String url = "/shops/" + shopId + "/pictures?view=slim&fields=name&sort=price&size=2";
+        while (url != null) {
+            String body = perform(get(url))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.pictures[0].price").doesNotExist())
+                    .andExpect(jsonPath("$.pictures[0].author").doesNotExist())
+                    .andExpect(jsonPath("$.pictures[0].entryDate").doesNotExist())
+                    .andReturn().getResponse().getContentAsString();
+            List<Map<String, Object>> pictures = JsonPath.read(body, "$.pictures");
+            pictures.forEach(picture -> {
+                assertEquals(2, picture.size());
+                names.add((String) picture.get("name"));
+            });
+            Map<String, Object> links = JsonPath.read(body, "$._links");
+            url = links.containsKey("next") ? JsonPath.read(body, "$._links.next.href") : null;
+        }
+
+        assertEquals(List.of("Sparse 0", "Sparse 1", "Sparse 2", "Sparse 3", "Sparse 4"), names);
+    }
+
+    @Test
+    void sparseFieldsetsOnlyReadTheRequestedColumns() {
+        Long shopId = saveShopWithPictures("Narrow Collar", 2);
+
+        List<PictureDto> pictures = iPictureService.listPicturesByShop(shopId, PictureSort.ID, null, null, 10,
+                EnumSet.of(PictureField.NAME)).getContent();
+
+        assertEquals(2, pictures.size());
+        for (PictureDto picture : pictures) {
+            assertNotNull(picture.getIdPicture());
+            assertNotNull(picture.getName());
+            assertNull(picture.getAuthor());
+            assertNull(picture.getPrice());
+            assertNull(picture.getEntryDate());
+            assertNull(picture.getShopCapacity());
+        }
+    }
+
+    @Test
+    void unknownFieldsAndDistinctETags() throws Exception {
+        Long shopId = saveShopWithPictures("Tagged Collar", 1);
+
+        perform(get("/shops/" + shopId + "/pictures?view=slim&fields=name,colour"))
+                .andExpect(status().isBadRequest());
+
+        String full = perform(get("/shops/" + shopId + "/pictures"))
+                .andReturn().getResponse().getHeader("ETag");
+        perform(get("/shops/" + shopId + "/pictures?view=slim").header("If-None-Match", full))
+                .andExpect(status().isCreated())
+                .andExpect(header().exists("ETag"));
+    }
+
+    private Long saveShopWithPictures(String name, int pictures) {
+        Shop shop = new Shop();
+        shop.setName(name);
+        shop.setCapacity((long) pictures);
+        Long shopId = iShopService.saveShop(shop).getId();
+        String prefix = name.substring(0, name.length() - " Collar".length());
+        for (int i = 0; i < pictures; i++) {
+            Picture picture = new Picture();
+            picture.setIdShop(shopId);
+            picture.setName(prefix + " " + i);
+            picture.setAuthor(prefix + " Author");
+            picture.setPrice(BigDecimal.valueOf(100 + i));
+            iPictureService.savePicture(picture).orElseThrow();
+        }
+        return shopId;
+    }
+
+    /**
+     * Ejecuta la peticion y, si el controlador responde de forma asincrona, espera a la respuesta
+     */
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+}
@@ -0,0 +1,77 @@
+package whiteCollar.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba que el borrado de los cuadros de una tienda se hace por tramos, sin cargar entidades,
+ * y que la ocupacion de la tienda (tambien la que se sirve desde la cache) queda a cero.
+ */
+@SpringBootTest(properties = {
+        "whitecollar.picture-delete.chunk-size=3",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+class PictureBulkDeleteTests {
+
+    private static final int PICTURES = 8;
+
+    @Autowired
+    private IShopService iShopService;
+
+    @Autowired
+    private IPictureService iPictureService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void firePicturesByShopDeletesInChunksWithoutLoadingPictures() {
+        Shop shop = newShop("Emptied Collar");
+        Shop neighbour = newShop("Neighbour Collar");
+        iPictureService.savePictures(shop.getId(), pictures(PICTURES)).orElseThrow();
+        iPictureService.savePictures(neighbour.getId(), pictures(2)).orElseThrow();
+        assertEquals(PICTURES, iShopService.currentShopCapacity(shop.getId()));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long loads = statistics.getEntityLoadCount();
+
+        assertEquals(PICTURES, iPictureService.firePicturesByShop(shop.getId()));
+
+        assertEquals(loads, statistics.getEntityLoadCount());
+        assertTrue(iPictureService.listPicturesByShop(shop).isEmpty());
+        assertEquals(0L, iShopService.currentShopCapacity(shop.getId()));
+        assertEquals(2L, iShopService.currentShopCapacity(neighbour.getId()));
+        assertEquals(0L, iPictureService.firePicturesByShop(shop.getId()));
+    }
+
+    private Shop newShop(String name) {
+        Shop shop = new Shop();
+        shop.setName(name);
+        shop.setCapacity(10L);
+        return iShopService.saveShop(shop);
+    }
+
+    private static List<Picture> pictures(int count) {
+        List<Picture> pictures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Picture picture = new Picture();
+            picture.setName("Fired " + i);
+            picture.setAuthor("Fired Author");
+            picture.setPrice(BigDecimal.ONE);
+            pictures.add(picture);
+        }
+        return pictures;
+    }
+}
@@ -0,0 +1,140 @@
+package whiteCollar.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import whiteCollar.dto.PictureRankDto;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Comprueba que las clasificaciones de cuadros se actualizan al dar de alta y de baja cuadros (solo si la
+ * transaccion se confirma), que se rellenan desde la base de datos al dar de baja un cuadro de una clasificacion
+ * completa, y la respuesta de GET /pictures/top. Cada clasificacion guarda solo 3 cuadros.
+ */
+@SpringBootTest(properties = "whitecollar.leaderboard.size=3")
+@AutoConfigureMockMvc
+class PictureLeaderboardTests {
+
+    @Autowired
+    private IShopService iShopService;
+
+    @Autowired
+    private IPictureService iPictureService;
+
+    @Autowired
+    private IPictureLeaderboardService iPictureLeaderboardService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void firedPicturesAreRefilledFromTheDatabase() {
+        String author = "Ribera" + System.nanoTime();
+        Shop shop = newShop("Ranked Collar");
+        iPictureService.savePictures(shop.getId(), pictures(author, "10", "50", "30", "20", "40")).orElseThrow();
+
+        assertEquals(List.of("50.00", "40.00", "30.00"), prices(author));
+
+        List<Picture> mostExpensive = iPictureService.listPicturesByShop(shop).stream()
+                .filter(picture -> picture.getPrice().compareTo(new BigDecimal("50")) == 0)
+                .collect(Collectors.toList());
+        iPictureService.firePictures(mostExpensive);
+        assertEquals(List.of("40.00", "30.00", "20.00"), prices(author));
+
+        iPictureService.firePicturesByShop(shop.getId());
+        assertEquals(List.of(), prices(author));
+    }
+
+    @Test
+    void globalLeaderboardAcrossShops() {
+        String author = "Murillo" + System.nanoTime();
+        Shop first = newShop("First Ranked Collar");
+        Shop second = newShop("Second Ranked Collar");
+        iPictureService.savePictures(first.getId(), pictures(author, "9999999999998.00")).orElseThrow();
+        iPictureService.savePictures(second.getId(), pictures(author, "9999999999999.00")).orElseThrow();
+
+        List<PictureRankDto> top = iPictureLeaderboardService.top(PictureRanking.PRICE, null, 2);
+        assertEquals(List.of(second.getId(), first.getId()),
+                top.stream().map(PictureRankDto::getIdShop).collect(Collectors.toList()));
+        assertEquals(List.of(1, 2), top.stream().map(PictureRankDto::getRank).collect(Collectors.toList()));
+
+        iPictureService.firePicturesByShop(second.getId());
+        top = iPictureLeaderboardService.top(PictureRanking.PRICE, null, 3);
+        assertEquals(first.getId(), top.get(0).getIdShop());
+        assertFalse(top.stream().anyMatch(picture -> picture.getIdShop().equals(second.getId())));
+
+        iPictureService.firePicturesByShop(first.getId());
+    }
+
+    @Test
+    void rolledBackPicturesAreNotRanked() {
+        String author = "Rollback" + System.nanoTime();
+        Shop shop = newShop("Unranked Collar");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            iPictureService.savePictures(shop.getId(), pictures(author, "10")).orElseThrow();
+            status.setRollbackOnly();
+        });
+
+        assertEquals(List.of(), prices(author));
+    }
+
+    @Test
+    void topEndpointReturnsTheRanking() throws Exception {
+        String author = "Velazquez" + System.nanoTime();
+        Shop shop = newShop("Endpoint Ranked Collar");
+        iPictureService.savePictures(shop.getId(), pictures(author, "1", "3", "2")).orElseThrow();
+
+        mockMvc.perform(get("/pictures/top").param("by", "price").param("n", "2").param("author", author))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.pictureRankDtoList[*].price", contains(3.0, 2.0)))
+                .andExpect(jsonPath("$._embedded.pictureRankDtoList[*].rank", contains(1, 2)));
+
+        mockMvc.perform(get("/pictures/top").param("by", "weight"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<String> prices(String author) {
+        return iPictureLeaderboardService.top(PictureRanking.PRICE, author, 10).stream()
+                .map(picture -> picture.getPrice().toPlainString())
+                .collect(Collectors.toList());
+    }
+
+    private Shop newShop(String name) {
+        Shop shop = new Shop();
+        shop.setName(name);
+        shop.setCapacity(10L);
+        return iShopService.saveShop(shop);
+    }
+
+    private static List<Picture> pictures(String author, String... prices) {
+        List<Picture> pictures = new ArrayList<>();
+        for (String price : prices) {
+            Picture picture = new Picture();
+            picture.setName("Price " + price);
+            picture.setAuthor(author);
+            picture.setPrice(new BigDecimal(price));
+            pictures.add(picture);
+        }
+        return pictures;
+    }
+}
@@ -0,0 +1,145 @@
+package whiteCollar.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import whiteCollar.dto.PictureSuggestionDto;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Comprueba que el indice de sugerencias se actualiza al dar de alta y de baja cuadros (solo si la transaccion
+ * se confirma), que las busquedas no distinguen mayusculas, la compactacion del indice y la respuesta
+ * de GET /pictures/suggest.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class PictureSuggestTests {
+
+    @Autowired
+    private IShopService iShopService;
+
+    @Autowired
+    private IPictureService iPictureService;
+
+    @Autowired
+    private IPictureSuggestService iPictureSuggestService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void savedAndFiredPicturesUpdateTheSuggestions() {
+        String author = "Zurbaran" + System.nanoTime();
+        Shop shop = newShop("Suggested Collar");
+        iPictureService.savePictures(shop.getId(), new ArrayList<>(List.of(
+                picture("Bodegon con cacharros", author),
+                picture("Bodegon con limones", author),
+                picture("San Serapio", "Someone Else")))).orElseThrow();
+
+        assertEquals(List.of(author + ":2"), suggestions(author.toLowerCase(), PictureSuggestionDto.AUTHOR));
+        assertTrue(suggestions("bodegon con", PictureSuggestionDto.NAME)
+                .containsAll(List.of("Bodegon con cacharros:1", "Bodegon con limones:1")));
+
+        List<Picture> lemons = iPictureService.listPicturesByShop(shop).stream()
+                .filter(picture -> picture.getName().equals("Bodegon con limones"))
+                .collect(Collectors.toList());
+        iPictureService.firePictures(lemons);
+        assertEquals(List.of(author + ":1"), suggestions(author, PictureSuggestionDto.AUTHOR));
+
+        iPictureService.firePicturesByShop(shop.getId());
+        assertEquals(List.of(), suggestions(author, PictureSuggestionDto.AUTHOR));
+    }
+
+    @Test
+    void rolledBackPicturesAreNotSuggested() {
+        String author = "Rollback" + System.nanoTime();
+        Shop shop = newShop("Rolled Back Collar");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            iPictureService.savePicture(picture(shop, "Never Saved", author));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(List.of(), suggestions(author, PictureSuggestionDto.AUTHOR));
+    }
+
+    @Test
+    void compactionKeepsEveryValue() {
+        PrefixIndex index = new PrefixIndex();
+        index.reset(new PrefixIndex.Builder().add("Velazquez", PrefixIndex.ref(1L, 1L)));
+        LongStream.range(0, 5000).forEach(id -> index.add("Goya " + id, PrefixIndex.ref(2L, id)));
+        LongStream.range(0, 2500).forEach(id -> index.remove("GOYA " + id, PrefixIndex.ref(2L, id)));
+        index.add("velazquez", PrefixIndex.ref(3L, 1L));
+
+        assertEquals(2500, index.startingWith("goya", 10_000).size());
+        assertEquals("Goya 2500", index.startingWith("goya", 1).get(0).getValue());
+        assertEquals(2L, index.startingWith("VEL", 10).get(0).getPictures());
+
+        index.removeIf(ref -> PrefixIndex.idShop(ref) == 2L);
+        assertEquals(0, index.startingWith("goya", 10).size());
+        assertEquals("Velazquez", index.startingWith("v", 10).get(0).getValue());
+    }
+
+    @Test
+    void suggestEndpointReturnsAuthorsAndNames() throws Exception {
+        String author = "Sorolla" + System.nanoTime();
+        Shop shop = newShop("Endpoint Collar");
+        iPictureService.savePicture(picture(shop, author + " en la playa", author));
+
+        mockMvc.perform(get("/pictures/suggest").param("q", author.substring(0, 10)).param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.pictureSuggestionDtoList[*].value", hasItem(author)))
+                .andExpect(jsonPath("$._embedded.pictureSuggestionDtoList[*].value", hasItem(author + " en la playa")));
+
+        mockMvc.perform(get("/pictures/suggest"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<String> suggestions(String query, String field) {
+        return iPictureSuggestService.suggest(query, 50).stream()
+                .filter(suggestion -> suggestion.getField().equals(field))
+                .map(suggestion -> suggestion.getValue() + ":" + suggestion.getPictures())
+                .collect(Collectors.toList());
+    }
+
+    private Shop newShop(String name) {
+        Shop shop = new Shop();
+        shop.setName(name);
+        shop.setCapacity(10L);
+        return iShopService.saveShop(shop);
+    }
+
+    private static Picture picture(String name, String author) {
+        Picture picture = new Picture();
+        picture.setName(name);
+        picture.setAuthor(author);
+        picture.setPrice(BigDecimal.TEN);
+        return picture;
+    }
+
+    private static Picture picture(Shop shop, String name, String author) {
+        Picture picture = picture(name, author);
+        picture.setIdShop(shop.getId());
+        return picture;
+    }
+}
@@ -0,0 +1,107 @@
+package whiteCollar.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import whiteCollar.entity.Shop;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba que las busquedas de tiendas se sirven desde la cache, que la cache se invalida al guardar
+ * la tienda y al cambiar su ocupacion (despues del commit, con una copia de la tienda con la nueva version),
+ * y que los aciertos y fallos se publican como metricas.
+ */
+@SpringBootTest
+class ShopCacheTests {
+
+    @Autowired
+    private IShopService iShopService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void repeatedLookupsHitTheCache() {
+        Long shopId = newShop("Cached Collar").getId();
+        double hits = gets("hit");
+        double misses = gets("miss");
+
+        iShopService.findShopById(shopId);
+        iShopService.findShopById(shopId);
+        iShopService.findShopById(shopId);
+
+        assertEquals(misses + 1, gets("miss"));
+        assertEquals(hits + 2, gets("hit"));
+    }
+
+    @Test
+    void missingShopsAreNotCached() {
+        double misses = gets("miss");
+
+        assertTrue(iShopService.findShopById(-1L).isEmpty());
+        assertTrue(iShopService.findShopById(-1L).isEmpty());
+
+        assertEquals(misses + 2, gets("miss"));
+    }
+
+    @Test
+    void saveShopInvalidatesTheCachedShop() {
+        Shop shop = newShop("Old Collar");
+        iShopService.findShopById(shop.getId());
+
+        Shop renamed = new Shop();
+        renamed.setId(shop.getId());
+        renamed.setName("New Collar");
+        renamed.setCapacity(shop.getCapacity());
+        iShopService.saveShop(renamed);
+
+        assertEquals("New Collar", iShopService.findShopById(shop.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void occupancyChangesInvalidateTheCachedShopAfterCommit() {
+        Long shopId = newShop("Busy Collar").getId();
+        Long version = iShopService.findShopById(shopId).orElseThrow().getVersion();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertTrue(iShopService.reserveCapacity(shopId, 1L));
+
+            double hits = gets("hit");
+            iShopService.findShopById(shopId);
+            assertEquals(hits + 1, gets("hit"));
+        });
+
+        double misses = gets("miss");
+        Long reserved = iShopService.findShopById(shopId).orElseThrow().getVersion();
+        assertTrue(reserved > version);
+        assertEquals(misses + 1, gets("miss"));
+        assertEquals(1L, iShopService.currentShopCapacity(shopId));
+
+        iShopService.releaseCapacity(shopId, 1L);
+
+        assertTrue(iShopService.findShopById(shopId).orElseThrow().getVersion() > reserved);
+        assertEquals(0L, iShopService.currentShopCapacity(shopId));
+    }
+
+    private Shop newShop(String name) {
+        Shop shop = new Shop();
+        shop.setName(name);
+        shop.setCapacity(10L);
+        return iShopService.saveShop(shop);
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", ShopServiceImpl.SHOPS_CACHE)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
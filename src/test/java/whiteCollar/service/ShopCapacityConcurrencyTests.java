@@ -0,0 +1,79 @@
+package whiteCollar.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Comprueba que la reserva de capacidad de una tienda es atomica: con muchos hilos insertando
+ * cuadros a la vez en la misma tienda, nunca se supera su capacidad.
+ */
+@SpringBootTest
+class ShopCapacityConcurrencyTests {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS = 64;
+    private static final long CAPACITY = 10L;
+
+    @Autowired
+    private IShopService iShopService;
+
+    @Autowired
+    private IPictureService iPictureService;
+
+    @Test
+    void concurrentInsertsNeverExceedCapacity() throws Exception {
+        Shop shop = new Shop();
+        shop.setName("Concurrent Collar");
+        shop.setCapacity(CAPACITY);
+        Shop savedShop = iShopService.saveShop(shop);
+        Long shopId = savedShop.getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        for (int i = 0; i < ATTEMPTS; i++) {
+            Picture picture = newPicture(shopId, "Picture " + i);
+            results.add(executor.submit(() -> {
+                start.await();
+                return iPictureService.savePicture(picture).isPresent();
+            }));
+        }
+        start.countDown();
+
+        int saved = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(30, TimeUnit.SECONDS)) {
+                saved++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(CAPACITY, saved);
+        assertEquals(CAPACITY, iShopService.currentShopCapacity(shopId));
+        assertEquals(CAPACITY, iPictureService.listPicturesByShop(savedShop).size());
+    }
+
+    private static Picture newPicture(Long shopId, String name) {
+        Picture picture = new Picture();
+        picture.setIdShop(shopId);
+        picture.setName(name);
+        picture.setAuthor("Concurrent Author");
+        picture.setPrice(BigDecimal.TEN);
+        return picture;
+    }
+}
@@ -0,0 +1,172 @@
+package whiteCollar.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionTemplate;
+import whiteCollar.dto.ShopStatisticsDto;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.endsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Comprueba que las estadisticas de inventario de una tienda se actualizan al dar de alta y de baja cuadros
+ * (solo si la transaccion se confirma), que la reconciliacion corrige las escrituras hechas fuera del servicio,
+ * y la respuesta de GET /shops/{id}/stats.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ShopStatisticsTests {
+
+    @Autowired
+    private IShopService iShopService;
+
+    @Autowired
+    private IPictureService iPictureService;
+
+    @Autowired
+    private IShopStatisticsService iShopStatisticsService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void savedAndFiredPicturesUpdateTheStatistics() {
+        Shop shop = newShop("Counted Collar");
+        iPictureService.savePictures(shop.getId(), List.of(
+                picture("Cheap", "Goya", "10"),
+                picture("Middle", "Goya", "20.555"),
+                picture("Expensive", "Sorolla", "30"))).orElseThrow();
+
+        ShopStatisticsDto statistics = iShopStatisticsService.shopStatistics(shop.getId());
+        assertEquals(3L, statistics.getPictures());
+        assertEquals(new BigDecimal("60.56"), statistics.getTotalPrice());
+        assertEquals(new BigDecimal("20.19"), statistics.getAveragePrice());
+        assertEquals(0, new BigDecimal("10").compareTo(statistics.getMinPrice()));
+        assertEquals(0, new BigDecimal("30").compareTo(statistics.getMaxPrice()));
+        assertEquals(Map.of("Goya", 2L, "Sorolla", 1L), statistics.getPicturesByAuthor());
+
+        List<Picture> expensive = iPictureService.listPicturesByShop(shop).stream()
+                .filter(picture -> picture.getName().equals("Expensive"))
+                .collect(Collectors.toList());
+        iPictureService.firePictures(expensive);
+
+        statistics = iShopStatisticsService.shopStatistics(shop.getId());
+        assertEquals(2L, statistics.getPictures());
+        assertEquals(new BigDecimal("30.56"), statistics.getTotalPrice());
+        assertEquals(0, new BigDecimal("20.56").compareTo(statistics.getMaxPrice()));
+        assertEquals(Map.of("Goya", 2L), statistics.getPicturesByAuthor());
+        assertEquals(0, iShopStatisticsService.reconcile());
+
+        iPictureService.firePicturesByShop(shop.getId());
+
+        statistics = iShopStatisticsService.shopStatistics(shop.getId());
+        assertEquals(0L, statistics.getPictures());
+        assertEquals(0, BigDecimal.ZERO.compareTo(statistics.getTotalPrice()));
+        assertNull(statistics.getAveragePrice());
+        assertNull(statistics.getMinPrice());
+        assertNull(statistics.getOldestEntryDate());
+        assertTrue(statistics.getPicturesByAuthor().isEmpty());
+    }
+
+    @Test
+    void rolledBackSavesAreNotCounted() {
+        Shop shop = newShop("Undecided Collar");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            iPictureService.savePicture(withShop(picture("Regret", "Goya", "10"), shop.getId())).orElseThrow();
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0L, iShopStatisticsService.shopStatistics(shop.getId()).getPictures());
+    }
+
+    @Test
+    void reconcileFixesWritesMadeBehindTheService() {
+        Shop shop = newShop("Drifting Collar");
+        iPictureService.savePicture(withShop(picture("Known", "Goya", "10"), shop.getId())).orElseThrow();
+
+        jdbcTemplate.update("INSERT INTO picture (id_picture, id_shop, name, author, price) VALUES (?, ?, ?, ?, ?)",
+                1_000_000, shop.getId(), "Unknown", "Velazquez", new BigDecimal("5"));
+        assertEquals(1L, iShopStatisticsService.shopStatistics(shop.getId()).getPictures());
+
+        assertTrue(iShopStatisticsService.reconcile() >= 1);
+
+        ShopStatisticsDto statistics = iShopStatisticsService.shopStatistics(shop.getId());
+        assertEquals(2L, statistics.getPictures());
+        assertEquals(0, new BigDecimal("5").compareTo(statistics.getMinPrice()));
+        assertEquals(Map.of("Goya", 1L, "Velazquez", 1L), statistics.getPicturesByAuthor());
+        assertEquals(0, iShopStatisticsService.reconcile());
+    }
+
+    @Test
+    void statsEndpointReturnsTheStatisticsWithLinks() throws Exception {
+        Shop shop = newShop("Served Collar");
+        iPictureService.savePicture(withShop(picture("Served", "Goya", "12.50"), shop.getId())).orElseThrow();
+
+        perform(get("/shops/" + shop.getId() + "/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.idShop").value(shop.getId()))
+                .andExpect(jsonPath("$.pictures").value(1))
+                .andExpect(jsonPath("$.averagePrice").value(12.5))
+                .andExpect(jsonPath("$.picturesByAuthor.Goya").value(1))
+                .andExpect(jsonPath("$._links.self.href").value(endsWith("/shops/" + shop.getId() + "/stats")))
+                .andExpect(jsonPath("$._links.pictures.href").value(endsWith("/shops/" + shop.getId() + "/pictures")));
+
+        perform(get("/shops/-1/stats")).andExpect(status().isNotFound());
+    }
+
+    private Shop newShop(String name) {
+        Shop shop = new Shop();
+        shop.setName(name);
+        shop.setCapacity(10L);
+        return iShopService.saveShop(shop);
+    }
+
+    private static Picture withShop(Picture picture, Long idShop) {
+        picture.setIdShop(idShop);
+        return picture;
+    }
+
+    private static Picture picture(String name, String author, String price) {
+        Picture picture = new Picture();
+        picture.setName(name);
+        picture.setAuthor(author);
+        picture.setPrice(new BigDecimal(price));
+        return picture;
+    }
+
+    /**
+     * Ejecuta la peticion y, si el controlador responde de forma asincrona, espera a la respuesta
+     */
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+}
@@ -0,0 +1,97 @@
+package whiteCollar.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.Links;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import whiteCollar.controller.ShopController;
+import whiteCollar.entity.Picture;
+import whiteCollar.entity.Shop;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * Comprueba que los enlaces construidos por los assemblers a partir de ShopLinkTemplates
+ * son identicos, byte a byte, a los que genera linkTo(methodOn(...)) para distintas peticiones.
+ */
+@SpringBootTest
+class ShopLinkTemplatesTests {
+
+    @Autowired
+    private PictureModelAssembler pictureModelAssembler;
+
+    @Autowired
+    private ShopModelAssembler shopModelAssembler;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void linksMatchLinkToOutsideRequest() throws Exception {
+        assertSameLinks();
+    }
+
+    @Test
+    void linksMatchLinkToForDefaultRequest() throws Exception {
+        bindRequest(new MockHttpServletRequest("GET", "/shops"));
+        assertSameLinks();
+    }
+
+    @Test
+    void linksMatchLinkToForContextPathAndCustomPort() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/gallery/api/shops/7/pictures");
+        request.setScheme("https");
+        request.setServerName("white-collar.example");
+        request.setServerPort(8443);
+        request.setContextPath("/gallery");
+        request.setServletPath("/api");
+        bindRequest(request);
+        assertSameLinks();
+    }
+
+    private void assertSameLinks() throws Exception {
+        Shop shop = new Shop();
+        shop.setId(7L);
+        shop.setName("Linked Collar");
+        shop.setCapacity(10L);
+
+        Picture picture = new Picture();
+        picture.setId(3L);
+        picture.setIdShop(shop.getId());
+        picture.setShop(shop);
+        picture.setName("Linked Picture");
+        picture.setAuthor("Linked Author");
+        picture.setPrice(BigDecimal.TEN);
+
+        Links expectedPictureLinks = Links.of(
+                linkTo(methodOn(ShopController.class).newPicture(picture, shop.getId())).withSelfRel(),
+                linkTo(methodOn(ShopController.class).deletePicturesByShop(shop.getId())).withRel("delete"),
+                linkTo(methodOn(ShopController.class).allPicturesByShop(shop.getId(), null, null, null, null)).withRel("all").expand());
+        Links expectedShopLinks = Links.of(
+                linkTo(methodOn(ShopController.class).newShop(shop)).withSelfRel(),
+                linkTo(methodOn(ShopController.class).allShops(null, null, null)).withRel("all").expand());
+
+        assertEquals(objectMapper.writeValueAsString(expectedPictureLinks),
+                objectMapper.writeValueAsString(pictureModelAssembler.toModel(picture).getLinks()));
+        assertEquals(objectMapper.writeValueAsString(expectedShopLinks),
+                objectMapper.writeValueAsString(shopModelAssembler.toModel(shop).getLinks()));
+    }
+
+    private void bindRequest(MockHttpServletRequest request) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}